@@ -0,0 +1,46 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import ec.edu.epn.petclinic.PetClinicApplication;
+
+/**
+ * Starts the application for benchmarks, with generated owners, pets and visits on top
+ * of the sample data in the in-memory H2 database.
+ * <p>
+ * The data is added by the {@link OwnerGenerator} with its default seed, so two runs with
+ * the same number of owners measure the same data.
+ * </p>
+ */
+public final class BenchmarkDataset {
+
+	private BenchmarkDataset() {
+	}
+
+	/**
+	 * Start the application on a random port and add the given number of generated
+	 * owners.
+	 * @param owners the number of owners to generate
+	 * @param args additional command line arguments, e.g. to activate profiles
+	 * @return the running application, to be closed by the caller
+	 */
+	public static ConfigurableApplicationContext start(int owners, String... args) {
+		// devtools is on the test class path but would turn off the template cache
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		List<String> arguments = new ArrayList<>(List.of("--server.port=0", "--spring.main.banner-mode=off",
+				"--spring.docker.compose.enabled=false", "--spring.devtools.add-properties=false",
+				"--spring.devtools.livereload.enabled=false",
+				"--spring.autoconfigure.exclude="
+						+ "org.springframework.boot.devtools.autoconfigure.DevToolsDataSourceAutoConfiguration",
+				"--logging.level.root=WARN", "--logging.level.org.springframework=WARN",
+				"--petclinic.generator.enabled=true", "--petclinic.generator.owners=" + owners));
+		arguments.addAll(Arrays.asList(args));
+		return new SpringApplicationBuilder(PetClinicApplication.class).run(arguments.toArray(String[]::new));
+	}
+
+}
@@ -0,0 +1,62 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Looks up a pet of an {@link Owner} by name and by id. The pet looked up is the last
+ * one added, the worst case for a scan over the pets; with the {@link PetIndex} the cost
+ * should not depend on the number of pets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OwnerBenchmark {
+
+	@Param({ "1", "10", "100", "1000" })
+	public int pets;
+
+	private Owner owner;
+
+	private String name;
+
+	private Integer id;
+
+	@Setup
+	public void createOwner() {
+		this.owner = new Owner();
+		for (int i = 1; i <= this.pets; i++) {
+			Pet pet = new Pet();
+			pet.setName("Pet" + i);
+			this.owner.addPet(pet);
+			pet.setId(i);
+		}
+		this.name = "pet" + this.pets;
+		this.id = this.pets;
+	}
+
+	@Benchmark
+	public Pet getPetByName() {
+		return this.owner.getPet(this.name);
+	}
+
+	@Benchmark
+	public Pet getPetById() {
+		return this.owner.getPet(this.id);
+	}
+
+}
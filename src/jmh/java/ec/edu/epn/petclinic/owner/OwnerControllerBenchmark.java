@@ -0,0 +1,72 @@
+package ec.edu.epn.petclinic.owner;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Full round trips of the owner search, {@code GET /owners?lastName=}, through
+ * {@link MockMvc}: request mapping, controller, repository and Thymeleaf rendering.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OwnerControllerBenchmark {
+
+	@Param("1000")
+	public int owners;
+
+	@Param({ "Davis", "Da", "" })
+	public String lastName;
+
+	@Param("1")
+	public int page;
+
+	private ConfigurableApplicationContext context;
+
+	private MockMvc mockMvc;
+
+	@Setup
+	public void start() throws Exception {
+		this.context = BenchmarkDataset.start(this.owners);
+		this.mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) this.context).build();
+		int status = findOwners().getResponse().getStatus();
+		if (status != 200 && status != 302) {
+			throw new IllegalStateException("GET /owners answered " + status);
+		}
+	}
+
+	@TearDown
+	public void stop() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public MvcResult findOwners() throws Exception {
+		return this.mockMvc
+			.perform(get("/owners").param("lastName", this.lastName).param("page", String.valueOf(this.page)))
+			.andReturn();
+	}
+
+}
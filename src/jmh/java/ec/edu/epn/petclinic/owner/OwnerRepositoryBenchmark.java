@@ -0,0 +1,65 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Searches owners by last name prefix through {@link OwnerRepository}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OwnerRepositoryBenchmark {
+
+	@Param("1000")
+	public int owners;
+
+	/**
+	 * A common last name, a prefix of several last names and the empty prefix used by
+	 * "find all".
+	 */
+	@Param({ "Davis", "Da", "" })
+	public String lastName;
+
+	private final Pageable firstPage = PageRequest.of(0, 5);
+
+	private ConfigurableApplicationContext context;
+
+	private OwnerRepository repository;
+
+	@Setup
+	public void start() {
+		this.context = BenchmarkDataset.start(this.owners);
+		this.repository = this.context.getBean(OwnerRepository.class);
+	}
+
+	@TearDown
+	public void stop() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public Slice<OwnerSummary> findSummariesByLastNameStartingWith() {
+		return this.repository.findSummariesByLastNameStartingWith(this.lastName, this.firstPage);
+	}
+
+}
@@ -0,0 +1,144 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ec.edu.epn.petclinic.system.SyntheticData;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Searches an in-memory {@link OwnerSearchIndex} of generated owners, without the
+ * database: the owners are added with {@link OwnerSearchIndex#load(java.util.Collection)}
+ * and then {@link OwnerSearchIndex#compact() compacted}, as a rebuild does.
+ * Last names follow Zipf's law over a short list, so common names have long posting
+ * lists, the worst case for the index.
+ * <p>
+ * The size of the index is logged once it is built, and the number of searches that ran
+ * out of the time budget, and therefore may have missed better owners, is reported as
+ * the {@code truncated} secondary result, next to {@code completed}. Run with e.g.
+ * {@code -Djmh.args="OwnerSearchIndex -p owners=5000000"}; the heap is sized for 5
+ * million owners.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OwnerSearchIndexBenchmark {
+
+	private static final Log logger = LogFactory.getLog(OwnerSearchIndexBenchmark.class);
+
+	/**
+	 * The default time budget of a search.
+	 */
+	private static final Duration TIMEOUT = Duration.ofMillis(8);
+
+	private static final List<String> PET_NAMES = List.of("Max", "Luna", "Bella", "Rocky", "Leo", "Milo", "Coco",
+			"Simba", "Nala", "Toby", "Kira", "Lucky", "Canela", "Pelusa", "Manchas", "Negrito");
+
+	@Param({ "100000", "1000000", "5000000" })
+	public int owners;
+
+	/**
+	 * Exact last name, last name prefix, misspelled last name, several words and the last
+	 * digits of a telephone number.
+	 */
+	@Param({ "davis", "rod", "rodirguez", "ana garcia luna", "4567" })
+	public String query;
+
+	private OwnerSearchIndex index;
+
+	@Setup(Level.Trial)
+	public void createIndex() {
+		this.index = new OwnerSearchIndex(null, null, new SimpleMeterRegistry(), "", TIMEOUT);
+		SyntheticData data = new SyntheticData(42);
+		Supplier<String> lastNames = data.zipf(SyntheticData.LAST_NAMES, 1);
+		List<Owner> chunk = new ArrayList<>(OwnerSearchIndex.REBUILD_CHUNK_SIZE);
+		for (int id = 1; id <= this.owners; id++) {
+			Owner owner = new Owner();
+			owner.setId(id);
+			owner.setFirstName(data.pick(SyntheticData.FIRST_NAMES));
+			owner.setLastName(lastNames.get());
+			owner.setTelephone("09" + data.digits(8));
+			int pets = data.nextInt(4);
+			for (int i = 0; i < pets; i++) {
+				Pet pet = new Pet();
+				pet.setName(data.pick(PET_NAMES));
+				owner.getPets().add(pet);
+			}
+			chunk.add(owner);
+			if (chunk.size() == OwnerSearchIndex.REBUILD_CHUNK_SIZE) {
+				this.index.load(chunk);
+				chunk.clear();
+			}
+		}
+		this.index.load(chunk);
+		this.index.compact();
+		logger.info(this.owners + " owners indexed in " + this.index.sizeInBytes() / (1024 * 1024) + " MB");
+	}
+
+	@TearDown(Level.Trial)
+	public void closeIndex() throws IOException {
+		this.index.destroy();
+	}
+
+	@Benchmark
+	public OwnerSearchIndex.Hits search(Searches searches) {
+		OwnerSearchIndex.Hits hits = this.index.search(this.query, 20);
+		searches.count(hits);
+		return hits;
+	}
+
+	/**
+	 * Counts the searches of an iteration that ran out of the time budget.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Searches {
+
+		public long truncated;
+
+		public long completed;
+
+		void count(OwnerSearchIndex.Hits hits) {
+			if (hits.truncated()) {
+				this.truncated++;
+			}
+			else {
+				this.completed++;
+			}
+		}
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			this.truncated = 0;
+			this.completed = 0;
+		}
+
+	}
+
+}
@@ -0,0 +1,105 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import ec.edu.epn.petclinic.system.SyntheticData;
+
+/**
+ * A burst of concurrent owner searches, {@code GET /owners?lastName=}, over HTTP against
+ * the running application, once on Tomcat's platform thread pool and once on virtual
+ * threads. Both modes use the settings of the {@code virtual-threads} profile apart from
+ * the threads themselves, so the score, the time to answer the whole burst, only differs
+ * by the threading model. The throughput is {@code clients} divided by the score.
+ * <p>
+ * Virtual threads require the benchmark JVM to be Java 21 or later, e.g.
+ * {@code -Djmh.args="OwnerSearchLoad -jvm /path/to/jdk-21/bin/java"}. Clients and server
+ * share the benchmark JVM, so it needs two file descriptors per client ({@code ulimit -n}).
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class OwnerSearchLoadBenchmark {
+
+	@Param("10000")
+	public int owners;
+
+	@Param({ "1000", "5000", "10000" })
+	public int clients;
+
+	@Param({ "false", "true" })
+	public boolean virtualThreads;
+
+	private ConfigurableApplicationContext context;
+
+	private HttpClient client;
+
+	private List<HttpRequest> requests;
+
+	@Setup
+	public void start() {
+		if (this.virtualThreads && Runtime.version().feature() < 21) {
+			throw new IllegalStateException("Virtual threads require Java 21, run JMH with -jvm <java 21>");
+		}
+		this.context = BenchmarkDataset.start(this.owners, "--spring.profiles.active=virtual-threads",
+				"--spring.threads.virtual.enabled=" + this.virtualThreads);
+		String port = this.context.getEnvironment().getProperty("local.server.port");
+		// two letter prefixes of the generated last names, common ones most often
+		Supplier<String> prefixes = new SyntheticData(42)
+			.zipf(SyntheticData.LAST_NAMES.stream().map(name -> name.substring(0, 2)).toList(), 1);
+		this.requests = new ArrayList<>(this.clients);
+		for (int i = 0; i < this.clients; i++) {
+			URI uri = URI.create("http://localhost:" + port + "/owners?lastName=" + prefixes.get());
+			this.requests.add(HttpRequest.newBuilder(uri).timeout(Duration.ofMinutes(1)).build());
+		}
+		this.client = HttpClient.newBuilder().connectTimeout(Duration.ofMinutes(1)).build();
+	}
+
+	@TearDown
+	public void stop() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public int burst() {
+		List<CompletableFuture<HttpResponse<Void>>> responses = this.requests.stream()
+			.map(request -> this.client.sendAsync(request, HttpResponse.BodyHandlers.discarding()))
+			.toList();
+		int answered = 0;
+		for (CompletableFuture<HttpResponse<Void>> response : responses) {
+			int status = response.join().statusCode();
+			if (status != 200 && status != 302) {
+				throw new IllegalStateException("GET /owners answered " + status);
+			}
+			answered++;
+		}
+		return answered;
+	}
+
+}
@@ -0,0 +1,58 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.text.ParseException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Parses pet type names as submitted by the pet form, see {@link PetTypeFormatter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PetTypeFormatterBenchmark {
+
+	/**
+	 * The first and the last pet type of the sample data.
+	 */
+	@Param({ "bird", "snake" })
+	public String type;
+
+	private ConfigurableApplicationContext context;
+
+	private PetTypeFormatter formatter;
+
+	@Setup
+	public void start() {
+		this.context = BenchmarkDataset.start(0);
+		this.formatter = this.context.getBean(PetTypeFormatter.class);
+	}
+
+	@TearDown
+	public void stop() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public PetType parse() throws ParseException {
+		return this.formatter.parse(this.type, Locale.ENGLISH);
+	}
+
+}
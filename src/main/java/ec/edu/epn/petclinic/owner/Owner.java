@@ -3,7 +3,6 @@ package ec.edu.epn.petclinic.owner;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
 import org.springframework.core.style.ToStringCreator;
 import ec.edu.epn.petclinic.model.Person;
@@ -14,19 +13,43 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedEntityGraphs;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OrderBy;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.NotBlank;
 
 /**
  * Simple JavaBean domain object representing an owner.
+ * <p>
+ * Both the {@link #getPets() pets} and their visits are loaded lazily. Callers pick how
+ * much of the aggregate they need through one of the named entity graphs declared here:
+ * {@value #SUMMARY_GRAPH} (owner columns only) or {@value #WITH_PETS_GRAPH} (pets and
+ * their types).
+ * </p>
+ * <p>
+ * Pets are looked up by id and name through a {@link PetIndex} built on first use, so
+ * owners with many pets do not pay a scan per lookup.
+ * </p>
  */
 @Entity
 @Table(name = "owners")
+@NamedEntityGraphs({ @NamedEntityGraph(name = Owner.SUMMARY_GRAPH),
+		@NamedEntityGraph(name = Owner.WITH_PETS_GRAPH,
+				attributeNodes = @NamedAttributeNode(value = "pets", subgraph = "pet-type"),
+				subgraphs = @NamedSubgraph(name = "pet-type", attributeNodes = @NamedAttributeNode("type"))) })
 public class Owner extends Person {
 
+	static final String SUMMARY_GRAPH = "owner-summary";
+
+	static final String WITH_PETS_GRAPH = "owner-with-pets";
+
 	@Column
 	@NotBlank
 	private String address;
@@ -40,11 +63,17 @@ public class Owner extends Person {
 	@Pattern(regexp = "\\d{10}", message = "{telephone.invalid}")
 	private String telephone;
 
-	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	@JoinColumn(name = "owner_id")
 	@OrderBy("name")
 	private final List<Pet> pets = new ArrayList<>();
 
+	@Version
+	private Integer version;
+
+	@Transient
+	private PetIndex petIndex;
+
 	public String getAddress() {
 		return this.address;
 	}
@@ -69,13 +98,31 @@ public class Owner extends Person {
 		this.telephone = telephone;
 	}
 
+	/**
+	 * Return the version of this owner, incremented whenever the owner or its list of
+	 * pets changes.
+	 * @return the version, {@code null} if the owner is new
+	 */
+	public Integer getVersion() {
+		return this.version;
+	}
+
+	public void setVersion(Integer version) {
+		this.version = version;
+	}
+
 	public List<Pet> getPets() {
 		return this.pets;
 	}
 
 	public void addPet(Pet pet) {
 		if (pet.isNew()) {
+			PetIndex index = this.petIndex;
+			boolean indexed = index != null && index.covers(this.pets);
 			getPets().add(pet);
+			if (indexed) {
+				index.add(pet);
+			}
 		}
 	}
 
@@ -94,15 +141,7 @@ public class Owner extends Person {
 	 * @return the Pet with the given id, or null if no such Pet exists for this Owner
 	 */
 	public Pet getPet(Integer id) {
-		for (Pet pet : getPets()) {
-			if (!pet.isNew()) {
-				Integer compId = pet.getId();
-				if (Objects.equals(compId, id)) {
-					return pet;
-				}
-			}
-		}
-		return null;
+		return (id != null) ? petIndex().get(id) : null;
 	}
 
 	/**
@@ -112,15 +151,16 @@ public class Owner extends Person {
 	 * @return the Pet with the given name, or null if no such Pet exists for this Owner
 	 */
 	public Pet getPet(String name, boolean ignoreNew) {
-		for (Pet pet : getPets()) {
-			String compName = pet.getName();
-			if (compName != null && compName.equalsIgnoreCase(name)) {
-				if (!ignoreNew || !pet.isNew()) {
-					return pet;
-				}
-			}
+		return petIndex().get(name, ignoreNew);
+	}
+
+	private PetIndex petIndex() {
+		PetIndex index = this.petIndex;
+		if (index == null || !index.covers(this.pets)) {
+			index = new PetIndex(this.pets);
+			this.petIndex = index;
 		}
-		return null;
+		return index;
 	}
 
 	@Override
@@ -0,0 +1,97 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import ec.edu.epn.petclinic.system.BatchInserts;
+
+/**
+ * Inserts new {@link Owner}s together with their {@link Pet}s and {@link Visit}s using
+ * JDBC batch statements, bypassing the persistence context.
+ * <p>
+ * Ids stay database generated: each table is written with one batch whose generated keys
+ * are read back and assigned to the entities, so the following batch can reference them.
+ * Inserting {@code n} owners therefore costs three round trips instead of one statement
+ * per row, see {@link BatchInserts}.
+ * </p>
+ */
+@Component
+class OwnerBatchWriter {
+
+	private static final String INSERT_OWNER = "INSERT INTO owners (first_name, last_name, address, city, telephone) VALUES (?, ?, ?, ?, ?)";
+
+	private static final String INSERT_PET = "INSERT INTO pets (name, birth_date, type_id, owner_id) VALUES (?, ?, ?, ?)";
+
+	private static final String INSERT_VISIT = "INSERT INTO visits (pet_id, visit_date, description) VALUES (?, ?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	OwnerBatchWriter(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Insert the given owners, their pets and the visits of those pets. The generated
+	 * ids are set on the given entities.
+	 * @param owners new owners, with new pets and visits
+	 */
+	@Transactional
+	void insert(List<Owner> owners) {
+		if (owners.isEmpty()) {
+			return;
+		}
+		List<Integer> ownerIds = BatchInserts.insert(this.jdbcTemplate, INSERT_OWNER, owners, (ps, owner, i) -> {
+			ps.setString(1, owner.getFirstName());
+			ps.setString(2, owner.getLastName());
+			ps.setString(3, owner.getAddress());
+			ps.setString(4, owner.getCity());
+			ps.setString(5, owner.getTelephone());
+		});
+		List<Pet> pets = new ArrayList<>();
+		List<Integer> petOwnerIds = new ArrayList<>();
+		for (int i = 0; i < owners.size(); i++) {
+			Owner owner = owners.get(i);
+			owner.setId(ownerIds.get(i));
+			for (Pet pet : owner.getPets()) {
+				pets.add(pet);
+				petOwnerIds.add(owner.getId());
+			}
+		}
+		if (pets.isEmpty()) {
+			return;
+		}
+		List<Integer> petIds = BatchInserts.insert(this.jdbcTemplate, INSERT_PET, pets, (ps, pet, i) -> {
+			ps.setString(1, pet.getName());
+			ps.setDate(2, Date.valueOf(pet.getBirthDate()));
+			ps.setInt(3, pet.getType().getId());
+			ps.setInt(4, petOwnerIds.get(i));
+		});
+		List<Visit> visits = new ArrayList<>();
+		List<Integer> visitPetIds = new ArrayList<>();
+		for (int i = 0; i < pets.size(); i++) {
+			Pet pet = pets.get(i);
+			pet.setId(petIds.get(i));
+			for (Visit visit : pet.getVisits()) {
+				visits.add(visit);
+				visitPetIds.add(pet.getId());
+			}
+		}
+		if (visits.isEmpty()) {
+			return;
+		}
+		List<Integer> visitIds = BatchInserts.insert(this.jdbcTemplate, INSERT_VISIT, visits, (ps, visit, i) -> {
+			ps.setInt(1, visitPetIds.get(i));
+			ps.setDate(2, Date.valueOf(visit.getDate()));
+			ps.setString(3, visit.getDescription());
+		});
+		for (int i = 0; i < visits.size(); i++) {
+			visits.get(i).setId(visitIds.get(i));
+		}
+	}
+
+}
@@ -0,0 +1,67 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the data held in memory about owners in step with the database: the
+ * {@link OwnerSearchIndex}, the {@link OwnerLastNames}, the {@link OwnerSearchCounts}
+ * and the {@link OwnerETags}.
+ * <p>
+ * Every path that writes owners, pets or visits publishes an {@link OwnersChangedEvent}
+ * instead of updating each of them itself. The event is handled once the surrounding
+ * transaction has committed, so a rolled back write is never indexed, or right away if
+ * it was published outside of a transaction.
+ * </p>
+ */
+@Component
+class OwnerChangeListener {
+
+	private final OwnerSearchIndex searchIndex;
+
+	private final OwnerLastNames lastNames;
+
+	private final OwnerSearchCounts searchCounts;
+
+	private final OwnerETags eTags;
+
+	OwnerChangeListener(OwnerSearchIndex searchIndex, OwnerLastNames lastNames, OwnerSearchCounts searchCounts,
+			OwnerETags eTags) {
+		this.searchIndex = searchIndex;
+		this.lastNames = lastNames;
+		this.searchCounts = searchCounts;
+		this.eTags = eTags;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	void ownersChanged(OwnersChangedEvent event) {
+		List<Owner> created = new ArrayList<>();
+		boolean renamed = false;
+		for (Owner owner : event.owners()) {
+			String previousLastName = event.previousLastNames().get(owner.getId());
+			if (previousLastName == null) {
+				created.add(owner);
+				continue;
+			}
+			if (!previousLastName.equals(owner.getLastName())) {
+				this.lastNames.rename(previousLastName, owner.getLastName());
+				renamed = true;
+			}
+			this.eTags.evict(owner.getId());
+		}
+		if (!created.isEmpty()) {
+			this.lastNames.add(created);
+		}
+		// the counts are per last name prefix, other changes leave them as they are
+		if (renamed || !created.isEmpty()) {
+			this.searchCounts.invalidate();
+		}
+		if (event.searchable()) {
+			this.searchIndex.update(event.owners());
+		}
+	}
+
+}
@@ -3,11 +3,16 @@ package ec.edu.epn.petclinic.owner;
 
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.OptionalLong;
 
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -18,8 +23,9 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.bind.annotation.ResponseBody;
 
+import ec.edu.epn.petclinic.system.KeysetCursor;
 import jakarta.validation.Valid;
 
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
@@ -29,10 +35,32 @@ class OwnerController {
 
 	private static final String VIEWS_OWNER_CREATE_OR_UPDATE_FORM = "owners/createOrUpdateOwnerForm";
 
+	private static final int PAGE_SIZE = 5;
+
+	private static final int SEARCH_LIMIT = 20;
+
+	private static final int SUGGESTION_LIMIT = 10;
+
 	private final OwnerRepository owners;
 
-	public OwnerController(OwnerRepository owners) {
+	private final OwnerResolver ownerResolver;
+
+	private final OwnerSearchCounts searchCounts;
+
+	private final OwnerSearchIndex searchIndex;
+
+	private final OwnerLastNames lastNames;
+
+	private final ApplicationEventPublisher events;
+
+	public OwnerController(OwnerRepository owners, OwnerResolver ownerResolver, OwnerSearchCounts searchCounts,
+			OwnerSearchIndex searchIndex, OwnerLastNames lastNames, ApplicationEventPublisher events) {
 		this.owners = owners;
+		this.ownerResolver = ownerResolver;
+		this.searchCounts = searchCounts;
+		this.searchIndex = searchIndex;
+		this.lastNames = lastNames;
+		this.events = events;
 	}
 
 	@InitBinder
@@ -42,10 +70,7 @@ class OwnerController {
 
 	@ModelAttribute("owner")
 	public Owner findOwner(@PathVariable(name = "ownerId", required = false) Integer ownerId) {
-		return ownerId == null ? new Owner()
-				: this.owners.findById(ownerId)
-					.orElseThrow(() -> new IllegalArgumentException("Owner not found with id: " + ownerId
-							+ ". Please ensure the ID is correct " + "and the owner exists in the database."));
+		return ownerId == null ? new Owner() : this.ownerResolver.findOwner(ownerId);
 	}
 
 	@GetMapping("/owners/new")
@@ -61,6 +86,7 @@ class OwnerController {
 		}
 
 		this.owners.save(owner);
+		this.events.publishEvent(OwnersChangedEvent.created(List.of(owner)));
 		redirectAttributes.addFlashAttribute("message", "New Owner Created");
 		return "redirect:/owners/" + owner.getId();
 	}
@@ -71,45 +97,132 @@ class OwnerController {
 	}
 
 	@GetMapping("/owners")
-	public String processFindForm(@RequestParam(defaultValue = "1") int page, Owner owner, BindingResult result,
-			Model model) {
+	public String processFindForm(@RequestParam(defaultValue = "1") int page,
+			@RequestParam(required = false) String cursor, Owner owner, BindingResult result, Model model) {
 		// allow parameterless GET request for /owners to return all records
 		String lastName = owner.getLastName();
 		if (lastName == null) {
 			lastName = ""; // empty string signifies broadest possible search
 		}
 
+		if (cursor != null) {
+			// keyset mode: continue after the last owner of the previous window
+			return processKeysetFind(lastName, cursor, result, model);
+		}
+
 		// find owners by last name
-		Page<Owner> ownersResults = findPaginatedForOwnersLastName(page, lastName);
+		Slice<OwnerSummary> ownersResults = findPaginatedForOwnersLastName(page, lastName);
 		if (ownersResults.isEmpty()) {
 			// no owners found
 			result.rejectValue("lastName", "notFound", "not found");
 			return "owners/findOwners";
 		}
 
-		if (ownersResults.getTotalElements() == 1) {
+		if (ownersResults.isFirst() && !ownersResults.hasNext() && ownersResults.getNumberOfElements() == 1) {
 			// 1 owner found
-			owner = ownersResults.iterator().next();
-			return "redirect:/owners/" + owner.getId();
+			OwnerSummary found = ownersResults.iterator().next();
+			return "redirect:/owners/" + found.id();
 		}
 
 		// multiple owners found
-		return addPaginationModel(page, model, ownersResults);
+		return addPaginationModel(page, lastName, model, ownersResults);
+	}
+
+	/**
+	 * Full-text search over owner names, pet names and telephone numbers, see
+	 * {@link OwnerSearchIndex}. Results are ranked by relevance and not paginated. Until
+	 * the index is built, the query is matched as a last name prefix instead. A search
+	 * that ran out of its time budget is flagged with {@code searchTruncated}, and is not
+	 * taken as a unique match, as better matches may exist.
+	 * @param query the words or telephone number to search for
+	 * @return the owner list, the owner if exactly one matches, or the find form if none
+	 */
+	@GetMapping("/owners/search")
+	public String processSearchForm(@RequestParam(name = "q", defaultValue = "") String query, Model model) {
+		List<OwnerSummary> found;
+		boolean truncated = false;
+		if (this.searchIndex.isReady()) {
+			OwnerSearchIndex.Hits hits = this.searchIndex.search(query, SEARCH_LIMIT);
+			found = this.owners.findSummariesByIdIn(hits.ownerIds());
+			truncated = hits.truncated();
+		}
+		else {
+			found = this.owners.findSummariesByLastNameStartingWith(query.trim(), PageRequest.of(0, SEARCH_LIMIT))
+				.getContent();
+		}
+		model.addAttribute("searchTruncated", truncated);
+
+		if (found.isEmpty()) {
+			model.addAttribute("query", query);
+			model.addAttribute("queryNotFound", true);
+			return "owners/findOwners";
+		}
+
+		if (found.size() == 1 && !truncated) {
+			return "redirect:/owners/" + found.get(0).id();
+		}
+
+		model.addAttribute("listOwners", found);
+		return "owners/ownersList";
 	}
 
-	private String addPaginationModel(int page, Model model, Page<Owner> paginated) {
-		List<Owner> listOwners = paginated.getContent();
+	/**
+	 * Suggest last names for the find form while the user types. The names are served
+	 * from memory, see {@link OwnerLastNames}.
+	 * @param prefix the start of the last name, in any case
+	 * @return the matching last names in alphabetical order, each with its number of
+	 * owners
+	 */
+	@GetMapping(value = "/owners/lastNames", produces = MediaType.APPLICATION_JSON_VALUE)
+	public @ResponseBody List<OwnerLastNames.LastName> suggestLastNames(
+			@RequestParam(name = "prefix", defaultValue = "") String prefix) {
+		return this.lastNames.startingWith(prefix, SUGGESTION_LIMIT);
+	}
+
+	private String processKeysetFind(String lastName, String cursor, BindingResult result, Model model) {
+		// a malformed cursor starts over at the first window
+		ScrollPosition position = KeysetCursor.decodeOrFirst(cursor);
+		Window<OwnerSummary> window = this.owners.findSummariesByLastNameStartingWith(lastName, position,
+				Limit.of(PAGE_SIZE));
+		boolean firstWindow = position.isInitial();
+		if (window.isEmpty() && firstWindow) {
+			// no owners found
+			result.rejectValue("lastName", "notFound", "not found");
+			return "owners/findOwners";
+		}
+
+		if (window.size() == 1 && firstWindow && !window.hasNext()) {
+			// 1 owner found
+			return "redirect:/owners/" + window.getContent().get(0).id();
+		}
+
+		model.addAttribute("keyset", true);
+		model.addAttribute("lastName", lastName);
+		model.addAttribute("nextCursor",
+				window.hasNext() ? KeysetCursor.encode(window.positionAt(window.size() - 1)) : null);
+		model.addAttribute("listOwners", window.getContent());
+		return "owners/ownersList";
+	}
+
+	private String addPaginationModel(int page, String lastName, Model model, Slice<OwnerSummary> paginated) {
+		List<OwnerSummary> listOwners = paginated.getContent();
 		model.addAttribute("currentPage", page);
-		model.addAttribute("totalPages", paginated.getTotalPages());
-		model.addAttribute("totalItems", paginated.getTotalElements());
+		model.addAttribute("hasNext", paginated.hasNext());
+		OptionalLong totalItems = this.searchCounts.approximateCount(lastName);
+		if (totalItems.isPresent()) {
+			// the count may lag behind, so never contradict the slice that was just read
+			long estimatedPages = (totalItems.getAsLong() + PAGE_SIZE - 1) / PAGE_SIZE;
+			long totalPages = paginated.hasNext() ? Math.max(estimatedPages, page + 1) : page;
+			model.addAttribute("totalPages", (int) totalPages);
+			model.addAttribute("totalItems", totalItems.getAsLong());
+		}
 		model.addAttribute("listOwners", listOwners);
 		return "owners/ownersList";
 	}
 
-	private Page<Owner> findPaginatedForOwnersLastName(int page, String lastname) {
-		int pageSize = 5;
-		Pageable pageable = PageRequest.of(page - 1, pageSize);
-		return owners.findByLastNameStartingWith(lastname, pageable);
+	private Slice<OwnerSummary> findPaginatedForOwnersLastName(int page, String lastname) {
+		Pageable pageable = PageRequest.of(page - 1, PAGE_SIZE);
+		return owners.findSummariesByLastNameStartingWith(lastname, pageable);
 	}
 
 	@GetMapping("/owners/{ownerId}/edit")
@@ -117,9 +230,21 @@ class OwnerController {
 		return VIEWS_OWNER_CREATE_OR_UPDATE_FORM;
 	}
 
+	/**
+	 * Save the edited details of an owner, provided nobody else saved the owner since
+	 * the form was shown: the form carries the version of the owner it was filled from.
+	 * Otherwise the form is shown again with the values entered, next to the ones saved
+	 * in the meantime, and submitting it again overwrites the latter.
+	 * @param owner the owner bound from the form, including the version it is based on
+	 * @param result the binding result of the form
+	 * @param ownerId the ID of the owner to update
+	 * @param model the model of the form, if it has to be shown again
+	 * @param redirectAttributes the flash attributes of the owner page
+	 * @return a redirect to the owner page, or the form if it has to be shown again
+	 */
 	@PostMapping("/owners/{ownerId}/edit")
 	public String processUpdateOwnerForm(@Valid Owner owner, BindingResult result, @PathVariable("ownerId") int ownerId,
-			RedirectAttributes redirectAttributes) {
+			Model model, RedirectAttributes redirectAttributes) {
 		if (result.hasErrors()) {
 			redirectAttributes.addFlashAttribute("error", "There was an error in updating the owner.");
 			return VIEWS_OWNER_CREATE_OR_UPDATE_FORM;
@@ -132,24 +257,27 @@ class OwnerController {
 		}
 
 		owner.setId(ownerId);
-		this.owners.save(owner);
+		// the bound owner already carries the new name, the loaded one is remembered
+		String previousLastName = this.ownerResolver.findStoredLastName(ownerId);
+		// a single version-checked UPDATE instead of merging the owner
+		if (this.owners.updateDetails(owner) == 0) {
+			return showConcurrentModification(owner, result, model);
+		}
+		this.events.publishEvent(OwnersChangedEvent.updated(owner, previousLastName));
 		redirectAttributes.addFlashAttribute("message", "Owner Values Updated");
 		return "redirect:/owners/{ownerId}";
 	}
 
-	/**
-	 * Custom handler for displaying an owner.
-	 * @param ownerId the ID of the owner to display
-	 * @return a ModelMap with the model attributes for the view
-	 */
-	@GetMapping("/owners/{ownerId}")
-	public ModelAndView showOwner(@PathVariable("ownerId") int ownerId) {
-		ModelAndView mav = new ModelAndView("owners/ownerDetails");
-		Optional<Owner> optionalOwner = this.owners.findById(ownerId);
-		Owner owner = optionalOwner.orElseThrow(() -> new IllegalArgumentException(
-				"Owner not found with id: " + ownerId + ". Please ensure the ID is correct "));
-		mav.addObject(owner);
-		return mav;
+	private String showConcurrentModification(Owner owner, BindingResult result, Model model) {
+		Owner current = this.owners.findById(owner.getId())
+			.orElseThrow(() -> new IllegalArgumentException("Owner not found with id: " + owner.getId()
+					+ ". It may have been deleted while it was being edited."));
+		// keep the values entered, but based on the current version, so that submitting
+		// the form again deliberately overwrites the values saved in the meantime
+		owner.setVersion(current.getVersion());
+		model.addAttribute("currentOwner", current);
+		result.reject("concurrentModification", "was changed by someone else");
+		return VIEWS_OWNER_CREATE_OR_UPDATE_FORM;
 	}
 
 }
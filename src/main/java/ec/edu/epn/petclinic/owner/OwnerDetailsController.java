@@ -0,0 +1,100 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+/**
+ * Shows an owner with its pets and their visits.
+ * <p>
+ * Kept apart from the {@link OwnerController}, whose {@code @ModelAttribute} method reads
+ * the owner for every request, so that a repeated request for an unchanged page can be
+ * answered before anything is read.
+ * </p>
+ */
+@Controller
+class OwnerDetailsController {
+
+	private static final int VISITS_PAGE_SIZE = 10;
+
+	private final OwnerResolver ownerResolver;
+
+	private final VisitRepository visits;
+
+	private final OwnerETags eTags;
+
+	public OwnerDetailsController(OwnerResolver ownerResolver, VisitRepository visits, OwnerETags eTags) {
+		this.ownerResolver = ownerResolver;
+		this.visits = visits;
+		this.eTags = eTags;
+	}
+
+	/**
+	 * Custom handler for displaying an owner. Only the most recent visits of each pet are
+	 * shown, older ones are loaded on demand through {@link #showVisits}.
+	 * <p>
+	 * The page carries an entity tag, see {@link OwnerETags}. If the browser already
+	 * shows the current page, it is answered with {@code 304 Not Modified}: without any
+	 * query if the tag is still cached, otherwise after reading the owner but without
+	 * reading the visits or rendering the page.
+	 * </p>
+	 * @param ownerId the ID of the owner to display
+	 * @return a ModelMap with the model attributes for the view, or {@code null} if the
+	 * page has not been modified
+	 */
+	@GetMapping("/owners/{ownerId}")
+	public ModelAndView showOwner(@PathVariable("ownerId") int ownerId, ServletWebRequest request, Locale locale) {
+		// a page showing a flash message, e.g. after an edit, is always rendered
+		Map<String, ?> flashAttributes = RequestContextUtils.getInputFlashMap(request.getRequest());
+		boolean conditional = flashAttributes == null || flashAttributes.isEmpty();
+		String cachedETag = conditional ? this.eTags.find(ownerId, locale) : null;
+		if (cachedETag != null && request.checkNotModified(cachedETag)) {
+			return null;
+		}
+
+		Owner owner = this.ownerResolver.findOwnerWithPets(ownerId);
+		String eTag = this.eTags.compute(owner, locale);
+		if (conditional && request.checkNotModified(eTag)) {
+			return null;
+		}
+		ModelAndView mav = new ModelAndView("owners/ownerDetails");
+		mav.addObject(owner);
+		mav.addObject("visits", this.visits
+			.findRecentByPetIdIn(owner.getPets().stream().map(Pet::getId).toList(), VISITS_PAGE_SIZE));
+		return mav;
+	}
+
+	/**
+	 * Render the next visits of a pet, older than the given visit, as rows of the visit
+	 * table of the owner details page.
+	 * @param ownerId the ID of the owner
+	 * @param petId the ID of the pet
+	 * @param date the date of the last visit already shown
+	 * @param id the ID of the last visit already shown
+	 * @return the visit rows fragment
+	 */
+	@GetMapping("/owners/{ownerId}/pets/{petId}/visits")
+	public String showVisits(@PathVariable("ownerId") int ownerId, @PathVariable("petId") int petId,
+			@RequestParam("before") LocalDate date, @RequestParam("beforeId") int id, Model model) {
+		if (this.ownerResolver.findOwnerWithPets(ownerId).getPet(petId) == null) {
+			throw new IllegalArgumentException(
+					"Pet with id " + petId + " not found for owner with id " + ownerId + ".");
+		}
+		model.addAttribute("ownerId", ownerId);
+		model.addAttribute("petId", petId);
+		model.addAttribute("window", this.visits.findByPetIdOrderByPetIdDescDateDescIdDesc(petId,
+				VisitRepository.position(petId, date, id), Limit.of(VISITS_PAGE_SIZE)));
+		return "owners/visitRows :: visits";
+	}
+
+}
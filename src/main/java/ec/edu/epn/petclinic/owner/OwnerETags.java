@@ -0,0 +1,78 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.util.Locale;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entity tags of the owner details page, so that a browser showing the current page is
+ * answered with {@code 304 Not Modified} instead of a page rendered again.
+ * <p>
+ * The tag of an owner is derived from the {@link Owner#getVersion() version} of the owner
+ * and the versions of its pets: adding a pet increments the first, editing a pet or
+ * booking one of its visits the second. The last tag computed for every owner is
+ * remembered in the {@value #CACHE_NAME} cache, so a repeated request can be answered
+ * without reading the owner at all. The {@link OwnerChangeListener} therefore
+ * {@link #evict(int) evicts} the owner whenever it, its pets or their visits are written.
+ * Changes made by another instance of the application are only seen once the cached tag
+ * expires.
+ * </p>
+ */
+@Component
+class OwnerETags {
+
+	static final String CACHE_NAME = "ownerETags";
+
+	private final Cache cache;
+
+	OwnerETags(CacheManager cacheManager) {
+		this.cache = cacheManager.getCache(CACHE_NAME);
+	}
+
+	/**
+	 * Return the entity tag last computed for the given owner.
+	 * @param ownerId the id of the owner
+	 * @param locale the locale the page is rendered in
+	 * @return the entity tag, or {@code null} if none is known
+	 */
+	String find(int ownerId, Locale locale) {
+		String version = this.cache.get(ownerId, String.class);
+		return version != null ? eTag(ownerId, version, locale) : null;
+	}
+
+	/**
+	 * Compute the entity tag of the given owner and remember it.
+	 * @param owner the owner, with its pets
+	 * @param locale the locale the page is rendered in
+	 * @return the entity tag
+	 */
+	String compute(Owner owner, Locale locale) {
+		long petVersions = owner.getPets().stream().mapToLong(pet -> versionOf(pet.getVersion())).sum();
+		String version = versionOf(owner.getVersion()) + "." + petVersions;
+		this.cache.put(owner.getId(), version);
+		return eTag(owner.getId(), version, locale);
+	}
+
+	/**
+	 * Forget the entity tag of the given owner, e.g. after one of its pets was edited.
+	 * @param ownerId the id of the owner
+	 */
+	void evict(int ownerId) {
+		this.cache.evict(ownerId);
+	}
+
+	/**
+	 * An owner or pet that was not saved yet has no version; it counts as never updated.
+	 */
+	private static long versionOf(Integer version) {
+		return (version != null) ? version : 0;
+	}
+
+	private static String eTag(int ownerId, String version, Locale locale) {
+		// the page is rendered in the locale of the user, each locale is a representation
+		return "\"owner-" + ownerId + "-" + version + "-" + locale.toLanguageTag() + "\"";
+	}
+
+}
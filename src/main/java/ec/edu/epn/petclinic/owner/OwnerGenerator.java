@@ -0,0 +1,167 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import ec.edu.epn.petclinic.system.DataGeneratorProperties;
+import ec.edu.epn.petclinic.system.SyntheticData;
+
+/**
+ * Adds synthetic owners, with pets and visits, at startup. See
+ * {@link DataGeneratorProperties} for the settings.
+ * <p>
+ * Last names, cities, pet types and visit reasons follow Zipf's law, and the number of
+ * pets per owner and of visits per pet are geometrically distributed. Owners are written
+ * in chunks of {@value #CHUNK_SIZE} through the {@link OwnerBatchWriter}.
+ * </p>
+ */
+@Component
+@ConditionalOnBooleanProperty("petclinic.generator.enabled")
+@Order(2)
+class OwnerGenerator implements ApplicationRunner {
+
+	static final int CHUNK_SIZE = 1000;
+
+	/**
+	 * Latest visit date; fixed so that the generated data only depends on the seed.
+	 */
+	static final LocalDate LATEST_VISIT = LocalDate.of(2025, 12, 31);
+
+	private static final List<String> CITIES = List.of("Madison", "Quito", "Sun Prairie", "Guayaquil", "McFarland",
+			"Cuenca", "Windsor", "Monona", "Loja", "Waunakee", "Ambato", "Manta");
+
+	private static final List<String> STREETS = List.of("Main St.", "Oak Ave.", "Av. Amazonas", "Lake St.",
+			"Calle Larga", "Elm Blvd.", "Av. 6 de Diciembre", "Pine Rd.");
+
+	private static final List<String> PET_NAMES = List.of("Max", "Luna", "Bella", "Rocky", "Leo", "Milo", "Coco",
+			"Simba", "Nala", "Toby", "Kira", "Lucky", "Oliver", "Chloe", "Jewel", "Iggy", "George", "Basil",
+			"Samantha", "Freddy", "Bruno", "Mulligan", "Sly", "Rosy", "Thor", "Zeus", "Canela", "Pelusa", "Manchas",
+			"Negrito");
+
+	/**
+	 * Pet types from the most to the least common; other types come last.
+	 */
+	private static final List<String> PET_TYPE_FREQUENCY = List.of("dog", "cat", "bird", "hamster", "lizard",
+			"snake");
+
+	private static final List<String> VISIT_REASONS = List.of("checkup", "vaccination", "rabies shot", "dental cleaning",
+			"skin allergy", "neutered", "spayed", "ear infection", "injured paw", "x-ray");
+
+	private static final Log logger = LogFactory.getLog(OwnerGenerator.class);
+
+	private final OwnerBatchWriter writer;
+
+	private final PetTypeRegistry petTypes;
+
+	private final OwnerSearchCounts searchCounts;
+
+	private final DataGeneratorProperties properties;
+
+	OwnerGenerator(OwnerBatchWriter writer, PetTypeRegistry petTypes, OwnerSearchCounts searchCounts,
+			DataGeneratorProperties properties) {
+		this.writer = writer;
+		this.petTypes = petTypes;
+		this.searchCounts = searchCounts;
+		this.properties = properties;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (this.properties.owners() > 0) {
+			long start = System.nanoTime();
+			generate(new SyntheticData(this.properties.seed()), this.properties.owners());
+			logger.info("Generated " + this.properties.owners() + " owners in "
+					+ (System.nanoTime() - start) / 1_000_000 + " ms");
+		}
+	}
+
+	void generate(SyntheticData data, int owners) {
+		Generator generator = new Generator(data, this.petTypes.findAll());
+		List<Owner> chunk = new ArrayList<>(CHUNK_SIZE);
+		for (int i = 0; i < owners; i++) {
+			chunk.add(generator.owner());
+			if (chunk.size() == CHUNK_SIZE) {
+				this.writer.insert(chunk);
+				chunk.clear();
+			}
+		}
+		this.writer.insert(chunk);
+		this.searchCounts.invalidate();
+	}
+
+	private final class Generator {
+
+		private final SyntheticData data;
+
+		private final Supplier<String> lastNames;
+
+		private final Supplier<String> cities;
+
+		private final Supplier<PetType> types;
+
+		private final Supplier<String> visitReasons;
+
+		Generator(SyntheticData data, List<PetType> types) {
+			this.data = data;
+			this.lastNames = data.zipf(SyntheticData.LAST_NAMES, 1);
+			this.cities = data.zipf(CITIES, 1);
+			List<PetType> byFrequency = new ArrayList<>(types);
+			byFrequency.sort(Comparator.comparing(type -> {
+				int rank = PET_TYPE_FREQUENCY.indexOf(type.getName());
+				return (rank >= 0) ? rank : PET_TYPE_FREQUENCY.size();
+			}));
+			this.types = data.zipf(byFrequency, 1.5);
+			this.visitReasons = data.zipf(VISIT_REASONS, 1);
+		}
+
+		Owner owner() {
+			Owner owner = new Owner();
+			owner.setFirstName(this.data.pick(SyntheticData.FIRST_NAMES));
+			owner.setLastName(this.lastNames.get());
+			owner.setAddress((this.data.nextInt(9999) + 1) + " " + this.data.pick(STREETS));
+			owner.setCity(this.cities.get());
+			owner.setTelephone("09" + this.data.digits(8));
+			// consecutive names from a random offset, so that no owner has two pets of
+			// the same name
+			int pets = Math.min(this.data.geometric(properties.petsPerOwner()), PET_NAMES.size());
+			int offset = this.data.nextInt(PET_NAMES.size());
+			for (int i = 0; i < pets; i++) {
+				owner.addPet(pet(PET_NAMES.get((offset + i) % PET_NAMES.size())));
+			}
+			return owner;
+		}
+
+		private Pet pet(String name) {
+			Pet pet = new Pet();
+			pet.setName(name);
+			pet.setBirthDate(this.data.date(LATEST_VISIT.minusYears(20), LATEST_VISIT));
+			pet.setType(this.types.get());
+			int visits = this.data.geometric(properties.visitsPerPet());
+			List<LocalDate> dates = new ArrayList<>(visits);
+			for (int i = 0; i < visits; i++) {
+				dates.add(this.data.date(pet.getBirthDate(), LATEST_VISIT));
+			}
+			dates.sort(null);
+			for (LocalDate date : dates) {
+				Visit visit = new Visit();
+				visit.setDate(date);
+				visit.setDescription(this.visitReasons.get());
+				pet.addVisit(visit);
+			}
+			return pet;
+		}
+
+	}
+
+}
@@ -0,0 +1,31 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import ec.edu.epn.petclinic.owner.OwnerImporter.ImportResult;
+
+/**
+ * Bulk import of owners, see {@link OwnerImporter} for the expected input.
+ */
+@Controller
+class OwnerImportController {
+
+	private final OwnerImporter importer;
+
+	OwnerImportController(OwnerImporter importer) {
+		this.importer = importer;
+	}
+
+	@PostMapping(value = "/owners/import", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+			produces = MediaType.APPLICATION_JSON_VALUE)
+	public @ResponseBody ImportResult importOwners(InputStream body) throws IOException {
+		return this.importer.importNdjson(body);
+	}
+
+}
@@ -0,0 +1,237 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SimpleErrors;
+import org.springframework.validation.ValidationUtils;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Imports owners, with their pets and visits, from newline delimited JSON.
+ * <p>
+ * Each line holds one owner, for example:
+ * </p>
+ * <pre>
+ * {"firstName":"Ana","lastName":"Vega","address":"Av. Amazonas 12","city":"Quito",
+ *  "telephone":"0991234567","pets":[{"name":"Luna","birthDate":"2020-01-31","type":"cat",
+ *  "visits":[{"date":"2024-03-01","description":"rabies shot"}]}]}
+ * </pre>
+ * <p>
+ * The input is read line by line. Every owner is checked with the same rules as the
+ * forms: the bean constraints of {@link Owner} and {@link Visit} and the
+ * {@link PetValidator}. Invalid lines are skipped and reported; valid owners are written
+ * in chunks of {@value #CHUNK_SIZE} through the {@link OwnerBatchWriter}, each chunk in
+ * its own transaction, so memory use does not grow with the size of the input.
+ * Each written chunk is announced with an {@link OwnersChangedEvent}, so it can be
+ * searched and suggested.
+ * </p>
+ */
+@Component
+class OwnerImporter {
+
+	static final int CHUNK_SIZE = 500;
+
+	static final int MAX_REPORTED_ERRORS = 100;
+
+	private final OwnerBatchWriter writer;
+
+	private final PetTypeRegistry petTypes;
+
+	private final Validator validator;
+
+	private final JsonMapper jsonMapper;
+
+	private final ApplicationEventPublisher events;
+
+	OwnerImporter(OwnerBatchWriter writer, PetTypeRegistry petTypes, Validator validator, JsonMapper jsonMapper,
+			ApplicationEventPublisher events) {
+		this.writer = writer;
+		this.petTypes = petTypes;
+		this.validator = validator;
+		this.jsonMapper = jsonMapper;
+		this.events = events;
+	}
+
+	/**
+	 * Import all owners of the given input.
+	 * @param input newline delimited JSON, UTF-8 encoded
+	 * @return the number of imported rows and the rejected lines
+	 * @throws IOException if the input cannot be read
+	 */
+	ImportResult importNdjson(InputStream input) throws IOException {
+		ImportResult.Builder result = new ImportResult.Builder();
+		List<Owner> chunk = new ArrayList<>(CHUNK_SIZE);
+		BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+		String line;
+		int lineNumber = 0;
+		while ((line = reader.readLine()) != null) {
+			lineNumber++;
+			if (!StringUtils.hasText(line)) {
+				continue;
+			}
+			try {
+				chunk.add(toOwner(this.jsonMapper.readValue(line, OwnerRecord.class)));
+			}
+			catch (JacksonException ex) {
+				result.reject(lineNumber, "malformed JSON: " + ex.getOriginalMessage());
+			}
+			catch (IllegalArgumentException ex) {
+				result.reject(lineNumber, ex.getMessage());
+			}
+			if (chunk.size() == CHUNK_SIZE) {
+				write(chunk, result);
+			}
+		}
+		write(chunk, result);
+		return result.build();
+	}
+
+	private void write(List<Owner> chunk, ImportResult.Builder result) {
+		if (chunk.isEmpty()) {
+			return;
+		}
+		this.writer.insert(chunk);
+		this.events.publishEvent(OwnersChangedEvent.created(chunk));
+		chunk.forEach(result::imported);
+		chunk.clear();
+	}
+
+	private Owner toOwner(OwnerRecord record) {
+		Owner owner = new Owner();
+		owner.setFirstName(record.firstName());
+		owner.setLastName(record.lastName());
+		owner.setAddress(record.address());
+		owner.setCity(record.city());
+		owner.setTelephone(record.telephone());
+		List<String> errors = new ArrayList<>(violations(owner, ""));
+		List<PetRecord> pets = (record.pets() != null) ? record.pets() : List.of();
+		for (int i = 0; i < pets.size(); i++) {
+			String path = "pets[" + i + "].";
+			PetRecord petRecord = pets.get(i);
+			Pet pet = new Pet();
+			pet.setName(petRecord.name());
+			pet.setBirthDate(petRecord.birthDate());
+			if (petRecord.type() != null) {
+				this.petTypes.findByName(petRecord.type())
+					.ifPresentOrElse(pet::setType, () -> errors.add(path + "type: unknown " + petRecord.type()));
+			}
+			Errors petErrors = new SimpleErrors(pet, "pet");
+			ValidationUtils.invokeValidator(new PetValidator(), pet, petErrors);
+			petErrors.getFieldErrors()
+				.stream()
+				.filter(error -> !(error.getField().equals("type") && petRecord.type() != null))
+				.forEach(error -> errors.add(path + error.getField() + ": " + error.getCode()));
+			if (StringUtils.hasText(pet.getName()) && owner.getPet(pet.getName()) != null) {
+				errors.add(path + "name: duplicate");
+			}
+			List<VisitRecord> visits = (petRecord.visits() != null) ? petRecord.visits() : List.of();
+			for (int j = 0; j < visits.size(); j++) {
+				Visit visit = new Visit();
+				visit.setDate(visits.get(j).date());
+				visit.setDescription(visits.get(j).description());
+				errors.addAll(violations(visit, path + "visits[" + j + "]."));
+				if (visit.getDate() == null) {
+					errors.add(path + "visits[" + j + "].date: required");
+				}
+				pet.addVisit(visit);
+			}
+			owner.addPet(pet);
+		}
+		if (!errors.isEmpty()) {
+			throw new IllegalArgumentException(String.join(", ", errors));
+		}
+		return owner;
+	}
+
+	private List<String> violations(Object bean, String path) {
+		Set<ConstraintViolation<Object>> violations = this.validator.validate(bean);
+		return violations.stream()
+			.map(violation -> path + violation.getPropertyPath() + ": " + violation.getMessage())
+			.sorted()
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * One line of the import.
+	 */
+	record OwnerRecord(String firstName, String lastName, String address, String city, String telephone,
+			List<PetRecord> pets) {
+	}
+
+	record PetRecord(String name, LocalDate birthDate, String type, List<VisitRecord> visits) {
+	}
+
+	record VisitRecord(LocalDate date, String description) {
+	}
+
+	/**
+	 * Outcome of an import.
+	 * @param owners the number of imported owners
+	 * @param pets the number of imported pets
+	 * @param visits the number of imported visits
+	 * @param rejected the number of rejected lines
+	 * @param errors the first {@value OwnerImporter#MAX_REPORTED_ERRORS} rejected lines
+	 */
+	record ImportResult(int owners, int pets, int visits, int rejected, List<LineError> errors) {
+
+		private static final class Builder {
+
+			private int owners;
+
+			private int pets;
+
+			private int visits;
+
+			private int rejected;
+
+			private final List<LineError> errors = new ArrayList<>();
+
+			void imported(Owner owner) {
+				this.owners++;
+				for (Pet pet : owner.getPets()) {
+					this.pets++;
+					this.visits += pet.getVisits().size();
+				}
+			}
+
+			void reject(int line, String message) {
+				this.rejected++;
+				if (this.errors.size() < MAX_REPORTED_ERRORS) {
+					this.errors.add(new LineError(line, message));
+				}
+			}
+
+			ImportResult build() {
+				return new ImportResult(this.owners, this.pets, this.visits, this.rejected, List.copyOf(this.errors));
+			}
+
+		}
+
+	}
+
+	/**
+	 * A rejected line.
+	 * @param line the line number, starting at 1
+	 * @param message why the line was rejected
+	 */
+	record LineError(int line, String message) {
+	}
+
+}
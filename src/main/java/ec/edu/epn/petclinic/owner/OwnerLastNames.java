@@ -0,0 +1,197 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * The distinct last names of all {@link Owner}s, each with the number of owners that
+ * carry it, kept in memory so the last name field of the find form can suggest names
+ * while the user types without querying the database.
+ * <p>
+ * The names are held in a concurrent skip list ordered case-insensitively, so the names
+ * starting with a prefix are a contiguous range that is found in logarithmic time and
+ * read in order, without locking. The names are loaded with one grouped query once the
+ * application is ready and are updated when owners are created, renamed or imported.
+ * </p>
+ * <p>
+ * Until the names are loaded, only the owners saved since startup are suggested. The
+ * grouped query may or may not see an owner saved while it runs, so the names such
+ * owners were saved or renamed with are counted once more after the load, until no name
+ * changed meanwhile. The counts are only shown as a hint and are never used to size a
+ * page.
+ * </p>
+ */
+@Component
+class OwnerLastNames {
+
+	private static final Log logger = LogFactory.getLog(OwnerLastNames.class);
+
+	/**
+	 * Case-insensitive first, so that a prefix matches names in any case, and then exact,
+	 * so that names differing only in case are kept apart.
+	 */
+	private static final Comparator<String> ORDER = String.CASE_INSENSITIVE_ORDER
+		.thenComparing(Comparator.naturalOrder());
+
+	private final NavigableMap<String, Long> counts = new ConcurrentSkipListMap<>(ORDER);
+
+	private final OwnerRepository owners;
+
+	private final TaskExecutor taskExecutor;
+
+	private final Object lock = new Object();
+
+	/**
+	 * Names changed while the names are being loaded, counted again once the load has
+	 * finished.
+	 */
+	private Set<String> changedDuringLoad;
+
+	OwnerLastNames(OwnerRepository owners, TaskExecutor taskExecutor) {
+		this.owners = owners;
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Load the names in the background once the application has started.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	void scheduleLoad() {
+		this.taskExecutor.execute(this::load);
+	}
+
+	/**
+	 * Replace all names with the ones currently stored in the database.
+	 */
+	void load() {
+		long start = System.nanoTime();
+		synchronized (this.lock) {
+			this.changedDuringLoad = new HashSet<>();
+		}
+		Collection<OwnerRepository.LastNameCount> loaded = this.owners.findLastNameCounts();
+		Set<String> changed;
+		synchronized (this.lock) {
+			this.counts.clear();
+			loaded.forEach(name -> this.counts.put(name.getLastName(), name.getOwners()));
+			changed = drainChangedDuringLoad();
+		}
+		while (!changed.isEmpty()) {
+			// the changes are committed before they are counted here, so a count read now
+			// includes them, whether or not the snapshot did
+			Collection<OwnerRepository.LastNameCount> recounted = this.owners.findLastNameCountsIn(changed);
+			synchronized (this.lock) {
+				changed.forEach(this.counts::remove);
+				recounted.forEach(name -> this.counts.put(name.getLastName(), name.getOwners()));
+				changed = drainChangedDuringLoad();
+			}
+		}
+		logger.info("Loaded " + loaded.size() + " owner last names in " + (System.nanoTime() - start) / 1_000_000
+				+ " ms");
+	}
+
+	/**
+	 * Return the names starting with the given prefix, ignoring case, in alphabetical
+	 * order.
+	 * @param prefix the start of the last name
+	 * @param limit the maximum number of names to return
+	 * @return the matching names with the number of owners carrying them
+	 */
+	List<LastName> startingWith(String prefix, int limit) {
+		if (!StringUtils.hasText(prefix)) {
+			return List.of();
+		}
+		String start = prefix.strip();
+		List<LastName> names = new ArrayList<>(limit);
+		for (Map.Entry<String, Long> entry : this.counts.tailMap(lowestCaseVariant(start)).entrySet()) {
+			String name = entry.getKey();
+			if (names.size() == limit || !name.regionMatches(true, 0, start, 0, start.length())) {
+				break;
+			}
+			names.add(new LastName(name, entry.getValue()));
+		}
+		return names;
+	}
+
+	/**
+	 * Return the variant of the given prefix that sorts first among all its case
+	 * variants: names that differ from the prefix only in case are ordered by their
+	 * characters, upper case usually first, so starting at the prefix as typed would skip
+	 * "Davis" for "davis".
+	 */
+	private static String lowestCaseVariant(String prefix) {
+		char[] chars = prefix.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			char c = chars[i];
+			chars[i] = (char) Math.min(c, Math.min(Character.toUpperCase(c), Character.toLowerCase(c)));
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Count the given owners, e.g. after they were created or imported.
+	 * @param owners the owners that were added
+	 */
+	void add(Collection<Owner> owners) {
+		synchronized (this.lock) {
+			owners.forEach(owner -> change(owner.getLastName(), 1));
+		}
+	}
+
+	/**
+	 * Count an owner under its new last name instead of its previous one.
+	 * @param previousLastName the last name before the owner was saved, or {@code null}
+	 * if the owner is new
+	 * @param lastName the last name the owner was saved with
+	 */
+	void rename(String previousLastName, String lastName) {
+		if (lastName.equals(previousLastName)) {
+			return;
+		}
+		synchronized (this.lock) {
+			if (previousLastName != null) {
+				change(previousLastName, -1);
+			}
+			change(lastName, 1);
+		}
+	}
+
+	private Set<String> drainChangedDuringLoad() {
+		Set<String> changed = this.changedDuringLoad;
+		this.changedDuringLoad = changed.isEmpty() ? null : new HashSet<>();
+		return changed;
+	}
+
+	private void change(String lastName, long delta) {
+		if (this.changedDuringLoad != null) {
+			this.changedDuringLoad.add(lastName);
+		}
+		this.counts.compute(lastName, (name, count) -> {
+			long updated = (count != null ? count : 0) + delta;
+			return updated > 0 ? updated : null;
+		});
+	}
+
+	/**
+	 * A last name and the number of owners that carry it.
+	 * @param lastName the last name
+	 * @param owners the number of owners
+	 */
+	record LastName(String lastName, long owners) {
+	}
+
+}
@@ -1,11 +1,26 @@
 
 package ec.edu.epn.petclinic.owner;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-import org.springframework.data.domain.Page;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repository class for <code>Owner</code> domain objects. All method names are compliant
@@ -16,13 +31,141 @@ import org.springframework.data.jpa.repository.JpaRepository;
 public interface OwnerRepository extends JpaRepository<Owner, Integer> {
 
 	/**
-	 * Retrieve {@link Owner}s from the data store by last name, returning all owners
-	 * whose last name <i>starts</i> with the given name.
+	 * Retrieve an {@link OwnerSummary} for every {@link Owner} whose last name
+	 * <i>starts</i> with the given name. Each summary is read in a single statement that
+	 * also aggregates the names of the owner's pets. The owners are ordered by last name
+	 * and id, so that slices neither overlap nor miss owners.
+	 * <p>
+	 * No count query is issued: one row more than the page size is read to tell whether
+	 * a next slice exists. Use {@link #countByLastNameStartingWith(String)} when the
+	 * total is needed.
+	 * </p>
+	 * @param lastName Value to search for
+	 * @param pageable the page to retrieve
+	 * @return a slice of matching {@link OwnerSummary summaries}
+	 */
+	@Transactional(readOnly = true)
+	@Query(value = """
+			SELECT new ec.edu.epn.petclinic.owner.OwnerSummary(o.id, o.firstName, o.lastName, o.address, o.city,
+				o.telephone, LISTAGG(p.name, ', ') WITHIN GROUP (ORDER BY p.name))
+			FROM Owner o LEFT JOIN o.pets p
+			WHERE o.lastName LIKE :lastName%
+			GROUP BY o.id, o.firstName, o.lastName, o.address, o.city, o.telephone
+			ORDER BY o.lastName, o.id
+			""")
+	Slice<OwnerSummary> findSummariesByLastNameStartingWith(@Param("lastName") String lastName, Pageable pageable);
+
+	/**
+	 * Count the {@link Owner}s whose last name <i>starts</i> with the given name.
+	 * @param lastName Value to search for
+	 * @return the number of matching owners
+	 */
+	@Transactional(readOnly = true)
+	long countByLastNameStartingWith(String lastName);
+
+	/**
+	 * Retrieve a window of {@link OwnerSummary summaries} for the owners whose last name
+	 * <i>starts</i> with the given name, ordered by last name and id. The window starts
+	 * right after the given keyset position, so deep windows cost the same as the first
+	 * one and no count query is issued.
+	 * @param lastName Value to search for
+	 * @param position the keyset position to continue from
+	 * @param limit the maximum number of summaries in the window
+	 * @return a window of matching {@link OwnerSummary summaries}
+	 */
+	@Transactional(readOnly = true)
+	default Window<OwnerSummary> findSummariesByLastNameStartingWith(String lastName, ScrollPosition position,
+			Limit limit) {
+		Window<Owner> window = findByLastNameStartingWithOrderByLastNameAscIdAsc(lastName, position, limit);
+		Map<Integer, String> petNames = window.isEmpty() ? Map.of()
+				: findPetNamesByOwnerIdIn(window.map(Owner::getId).getContent()).stream()
+					.collect(Collectors.toMap(PetNames::getOwnerId, PetNames::getPetNames));
+		return window.map(owner -> new OwnerSummary(owner.getId(), owner.getFirstName(), owner.getLastName(),
+				owner.getAddress(), owner.getCity(), owner.getTelephone(), petNames.get(owner.getId())));
+	}
+
+	/**
+	 * Retrieve a keyset window of {@link Owner}s, without their pets, whose last name
+	 * <i>starts</i> with the given name.
 	 * @param lastName Value to search for
-	 * @return a Collection of matching {@link Owner}s (or an empty Collection if none
-	 * found)
+	 * @param position the keyset position to continue from
+	 * @param limit the maximum number of owners in the window
+	 * @return a window of matching {@link Owner}s
+	 */
+	@Transactional(readOnly = true)
+	@EntityGraph(Owner.SUMMARY_GRAPH)
+	Window<Owner> findByLastNameStartingWithOrderByLastNameAscIdAsc(String lastName, ScrollPosition position,
+			Limit limit);
+
+	/**
+	 * Retrieve the {@link OwnerSummary summaries} of the given owners, in the order of the
+	 * given ids, e.g. as ranked by the {@link OwnerSearchIndex}. Ids of owners that do not
+	 * exist are skipped.
+	 * @param ids the ids of the owners
+	 * @return the summaries of the owners that were found
+	 */
+	@Transactional(readOnly = true)
+	default List<OwnerSummary> findSummariesByIdIn(List<Integer> ids) {
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+		Map<Integer, Owner> owners = findByIdIn(ids).stream()
+			.collect(Collectors.toMap(Owner::getId, Function.identity()));
+		Map<Integer, String> petNames = findPetNamesByOwnerIdIn(owners.keySet()).stream()
+			.collect(Collectors.toMap(PetNames::getOwnerId, PetNames::getPetNames));
+		return ids.stream()
+			.map(owners::get)
+			.filter(Objects::nonNull)
+			.map(owner -> new OwnerSummary(owner.getId(), owner.getFirstName(), owner.getLastName(),
+					owner.getAddress(), owner.getCity(), owner.getTelephone(), petNames.get(owner.getId())))
+			.toList();
+	}
+
+	/**
+	 * Retrieve the {@link Owner}s with the given ids, without their pets.
+	 * @param ids the ids of the owners
+	 * @return the owners that were found, in no particular order
+	 */
+	@Transactional(readOnly = true)
+	@EntityGraph(Owner.SUMMARY_GRAPH)
+	List<Owner> findByIdIn(Collection<Integer> ids);
+
+	/**
+	 * Retrieve the aggregated pet names of the given owners. Owners without pets are not
+	 * part of the result.
+	 * @param ownerIds the ids of the owners
+	 * @return the pet names of each owner, comma separated and sorted
+	 */
+	@Transactional(readOnly = true)
+	@Query("""
+			SELECT o.id AS ownerId, LISTAGG(p.name, ', ') WITHIN GROUP (ORDER BY p.name) AS petNames
+			FROM Owner o JOIN o.pets p
+			WHERE o.id IN :ownerIds
+			GROUP BY o.id
+			""")
+	Collection<PetNames> findPetNamesByOwnerIdIn(@Param("ownerIds") Collection<Integer> ownerIds);
+
+	/**
+	 * Count the {@link Owner}s of every distinct last name.
+	 * @return each last name with its number of owners, in no particular order
+	 */
+	@Transactional(readOnly = true)
+	@Query("SELECT o.lastName AS lastName, COUNT(o) AS owners FROM Owner o GROUP BY o.lastName")
+	Collection<LastNameCount> findLastNameCounts();
+
+	/**
+	 * Count the {@link Owner}s of the given last names, e.g. to correct counts that
+	 * changed while {@link #findLastNameCounts()} ran.
+	 * @param lastNames the last names to count
+	 * @return each of the last names that is still carried, with its number of owners
 	 */
-	Page<Owner> findByLastNameStartingWith(String lastName, Pageable pageable);
+	@Transactional(readOnly = true)
+	@Query("""
+			SELECT o.lastName AS lastName, COUNT(o) AS owners FROM Owner o
+			WHERE o.lastName IN :lastNames
+			GROUP BY o.lastName
+			""")
+	Collection<LastNameCount> findLastNameCountsIn(@Param("lastNames") Collection<String> lastNames);
 
 	/**
 	 * Retrieve an {@link Owner} from the data store by id.
@@ -31,12 +174,106 @@ public interface OwnerRepository extends JpaRepository<Owner, Integer> {
 	 * no {@link Owner} is found with the provided id, it will return an empty
 	 * {@link Optional}.
 	 * </p>
+	 * <p>
+	 * The owner aggregate is always read from the primary database, never from a read
+	 * replica, so it is shown as just saved and edited at its current version. The loads
+	 * therefore do not run in read-only transactions.
+	 * </p>
 	 * @param id the id to search for
 	 * @return an {@link Optional} containing the {@link Owner} if found, or an empty
 	 * {@link Optional} if not found.
 	 * @throws IllegalArgumentException if the id is null (assuming null is not a valid
 	 * input for id)
 	 */
+	@Transactional
+	@EntityGraph(Owner.SUMMARY_GRAPH)
 	Optional<Owner> findById(Integer id);
 
+	/**
+	 * Retrieve an {@link Owner} and its {@link Pet}s from the primary data store by id,
+	 * see {@link #findById(Integer)}. The visits of each pet are not loaded.
+	 * @param id the id to search for
+	 * @return an {@link Optional} containing the {@link Owner} if found, or an empty
+	 * {@link Optional} if not found.
+	 */
+	@EntityGraph(Owner.WITH_PETS_GRAPH)
+	Optional<Owner> findWithPetsById(Integer id);
+
+	/**
+	 * Retrieve an {@link Owner} with its {@link Pet}s and all of their {@link Visit}s
+	 * from the data store by id.
+	 * <p>
+	 * The visits are not part of the entity graph: joining them onto the pets list would
+	 * repeat every pet once per visit. They are initialized in a second, batched
+	 * statement within the same transaction instead. Both are read from the primary, see
+	 * {@link #findById(Integer)}.
+	 * </p>
+	 * @param id the id to search for
+	 * @return an {@link Optional} containing the {@link Owner} if found, or an empty
+	 * {@link Optional} if not found.
+	 */
+	@Transactional
+	default Optional<Owner> findWithPetsAndVisitsById(Integer id) {
+		Optional<Owner> owner = findWithPetsById(id);
+		owner.ifPresent(found -> found.getPets().forEach(pet -> Hibernate.initialize(pet.getVisits())));
+		return owner;
+	}
+
+	/**
+	 * Update the details of an {@link Owner}, but not its pets, with a single statement
+	 * that also checks and increments its version. Unlike a merge, it does not select the
+	 * owner again, so an edit form costs the one read of the owner it is bound to.
+	 * @param owner the owner with its new details and the version they were based on
+	 * @return the number of updated rows, {@code 0} if the owner was changed or deleted
+	 * since that version was read
+	 */
+	@Modifying
+	@Transactional
+	@Query("""
+			UPDATE Owner o SET o.firstName = :#{#owner.firstName}, o.lastName = :#{#owner.lastName},
+				o.address = :#{#owner.address}, o.city = :#{#owner.city}, o.telephone = :#{#owner.telephone},
+				o.version = o.version + 1
+			WHERE o.id = :#{#owner.id} AND o.version = :#{#owner.version}
+			""")
+	int updateDetails(@Param("owner") Owner owner);
+
+	/**
+	 * Update the details of a {@link Pet}, but not its visits, with a single statement
+	 * that also checks and increments its version.
+	 * @param pet the pet with its new details and the version they were based on
+	 * @return the number of updated rows, {@code 0} if the pet was changed or deleted
+	 * since that version was read
+	 * @see #updateDetails(Owner)
+	 */
+	@Modifying
+	@Transactional
+	@Query("""
+			UPDATE Pet p SET p.name = :#{#pet.name}, p.birthDate = :#{#pet.birthDate}, p.type = :#{#pet.type},
+				p.version = p.version + 1
+			WHERE p.id = :#{#pet.id} AND p.version = :#{#pet.version}
+			""")
+	int updatePetDetails(@Param("pet") Pet pet);
+
+	/**
+	 * Projection of the aggregated pet names of one owner.
+	 */
+	interface PetNames {
+
+		Integer getOwnerId();
+
+		String getPetNames();
+
+	}
+
+	/**
+	 * Projection of the number of owners carrying one last name.
+	 */
+	interface LastNameCount {
+
+		String getLastName();
+
+		long getOwners();
+
+	}
+
 }
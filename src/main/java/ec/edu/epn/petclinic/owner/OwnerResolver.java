@@ -0,0 +1,132 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Loads the {@link Owner} aggregate addressed by an owner-scoped request at most once per
+ * request.
+ * <p>
+ * Several {@code @ModelAttribute} methods of the owner controllers need the same owner
+ * (for example the owner and the pet of the pet form). The loaded owner is remembered in
+ * the current request attributes together with how much of the aggregate was fetched, so
+ * later lookups in the same request reuse it unless they need a larger part of the
+ * aggregate. Outside of a web request every lookup goes to the repository.
+ * </p>
+ * <p>
+ * Forms are bound to the loaded owner, so the last name it was stored with is remembered
+ * as well, see {@link #findStoredLastName(int)}.
+ * </p>
+ */
+@Component
+class OwnerResolver {
+
+	private static final String ATTRIBUTE_NAME = OwnerResolver.class.getName() + ".OWNERS";
+
+	private final OwnerRepository owners;
+
+	OwnerResolver(OwnerRepository owners) {
+		this.owners = owners;
+	}
+
+	/**
+	 * Return the owner with the given id without its pets.
+	 * @param ownerId the id of the owner
+	 * @return the owner
+	 * @throws IllegalArgumentException if no such owner exists
+	 */
+	Owner findOwner(int ownerId) {
+		return resolve(ownerId, Fetch.OWNER);
+	}
+
+	/**
+	 * Return the owner with the given id and its pets, without their visits.
+	 * @param ownerId the id of the owner
+	 * @return the owner
+	 * @throws IllegalArgumentException if no such owner exists
+	 */
+	Owner findOwnerWithPets(int ownerId) {
+		return resolve(ownerId, Fetch.PETS);
+	}
+
+	/**
+	 * Return the owner with the given id, its pets and their visits.
+	 * @param ownerId the id of the owner
+	 * @return the owner
+	 * @throws IllegalArgumentException if no such owner exists
+	 */
+	Owner findOwnerWithPetsAndVisits(int ownerId) {
+		return resolve(ownerId, Fetch.PETS_AND_VISITS);
+	}
+
+	/**
+	 * Return the last name the owner with the given id had when it was first loaded in
+	 * the current request, before a form was bound to it.
+	 * @param ownerId the id of the owner
+	 * @return the stored last name
+	 * @throws IllegalArgumentException if no such owner exists
+	 */
+	String findStoredLastName(int ownerId) {
+		Resolved cached = resolvedOwners().get(ownerId);
+		return cached != null ? cached.storedLastName() : resolve(ownerId, Fetch.OWNER).getLastName();
+	}
+
+	private Owner resolve(int ownerId, Fetch fetch) {
+		Map<Integer, Resolved> resolved = resolvedOwners();
+		Resolved cached = resolved.get(ownerId);
+		if (cached != null && cached.fetch().compareTo(fetch) >= 0) {
+			return cached.owner();
+		}
+		Owner owner = fetch.load(this.owners, ownerId)
+			.orElseThrow(() -> new IllegalArgumentException(
+					"Owner not found with id: " + ownerId + ". Please ensure the ID is correct "));
+		resolved.put(ownerId,
+				new Resolved(owner, fetch, (cached != null) ? cached.storedLastName() : owner.getLastName()));
+		return owner;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<Integer, Resolved> resolvedOwners() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes == null) {
+			return new HashMap<>();
+		}
+		Map<Integer, Resolved> resolved = (Map<Integer, Resolved>) attributes.getAttribute(ATTRIBUTE_NAME,
+				RequestAttributes.SCOPE_REQUEST);
+		if (resolved == null) {
+			resolved = new HashMap<>();
+			attributes.setAttribute(ATTRIBUTE_NAME, resolved, RequestAttributes.SCOPE_REQUEST);
+		}
+		return resolved;
+	}
+
+	/**
+	 * How much of the owner aggregate is loaded, from least to most.
+	 */
+	private enum Fetch {
+
+		OWNER(OwnerRepository::findById), PETS(OwnerRepository::findWithPetsById),
+		PETS_AND_VISITS(OwnerRepository::findWithPetsAndVisitsById);
+
+		private final BiFunction<OwnerRepository, Integer, Optional<Owner>> loader;
+
+		Fetch(BiFunction<OwnerRepository, Integer, Optional<Owner>> loader) {
+			this.loader = loader;
+		}
+
+		Optional<Owner> load(OwnerRepository owners, int ownerId) {
+			return this.loader.apply(owners, ownerId);
+		}
+
+	}
+
+	private record Resolved(Owner owner, Fetch fetch, String storedLastName) {
+	}
+
+}
@@ -0,0 +1,132 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Approximate number of {@link Owner}s per last name prefix, so the owner search can
+ * show page totals without running a count query on every request.
+ * <p>
+ * A lookup never blocks on the database: it answers with the last known count, if any,
+ * and refreshes missing or expired counts on the application task executor. Counts are
+ * therefore allowed to lag behind recent changes by up to the configured time to live.
+ * </p>
+ * <p>
+ * {@link #invalidate()} starts a new generation of counts; a refresh that started in an
+ * earlier generation may have counted before the change and is discarded.
+ * </p>
+ */
+@Component
+class OwnerSearchCounts {
+
+	/**
+	 * Prefixes come from user input, so the number of remembered counts is bounded.
+	 */
+	static final int MAX_ENTRIES = 1024;
+
+	private final Map<String, Count> counts = new ConcurrentHashMap<>();
+
+	private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+	private final AtomicLong generation = new AtomicLong();
+
+	private final OwnerRepository owners;
+
+	private final TaskExecutor taskExecutor;
+
+	private final Duration timeToLive;
+
+	private final Clock clock;
+
+	@Autowired
+	OwnerSearchCounts(OwnerRepository owners, TaskExecutor taskExecutor,
+			@Value("${petclinic.owners.search-count-ttl:PT1M}") Duration timeToLive) {
+		this(owners, taskExecutor, timeToLive, Clock.systemUTC());
+	}
+
+	OwnerSearchCounts(OwnerRepository owners, TaskExecutor taskExecutor, Duration timeToLive, Clock clock) {
+		this.owners = owners;
+		this.taskExecutor = taskExecutor;
+		this.timeToLive = timeToLive;
+		this.clock = clock;
+	}
+
+	/**
+	 * Return the last known number of owners whose last name starts with the given
+	 * prefix. A refresh is scheduled when the count is unknown or has expired.
+	 * @param lastName the last name prefix
+	 * @return the approximate count, or an empty result if none is known yet
+	 */
+	OptionalLong approximateCount(String lastName) {
+		Count count = this.counts.get(lastName);
+		if (count == null || count.isExpired(this.clock.instant(), this.timeToLive)) {
+			scheduleRefresh(lastName);
+		}
+		return count == null ? OptionalLong.empty() : OptionalLong.of(count.value());
+	}
+
+	/**
+	 * Forget all known counts, e.g. after an owner was added or renamed.
+	 */
+	void invalidate() {
+		this.generation.incrementAndGet();
+		this.counts.clear();
+	}
+
+	private void scheduleRefresh(String lastName) {
+		if (!this.refreshing.add(lastName)) {
+			// a refresh for this prefix is already pending
+			return;
+		}
+		try {
+			this.taskExecutor.execute(() -> refresh(lastName));
+		}
+		catch (TaskRejectedException ex) {
+			// executor saturated: keep serving the old count and retry on a later lookup
+			this.refreshing.remove(lastName);
+		}
+	}
+
+	private void refresh(String lastName) {
+		try {
+			long generation = this.generation.get();
+			Count count = new Count(this.owners.countByLastNameStartingWith(lastName), this.clock.instant());
+			if (this.generation.get() != generation) {
+				// invalidated while counting
+				return;
+			}
+			if (this.counts.size() >= MAX_ENTRIES && !this.counts.containsKey(lastName)) {
+				this.counts.clear();
+			}
+			this.counts.put(lastName, count);
+			if (this.generation.get() != generation) {
+				// invalidated right before the count was stored
+				this.counts.remove(lastName, count);
+			}
+		}
+		finally {
+			this.refreshing.remove(lastName);
+		}
+	}
+
+	private record Count(long value, Instant refreshedAt) {
+
+		boolean isExpired(Instant now, Duration timeToLive) {
+			return !this.refreshedAt.plus(timeToLive).isAfter(now);
+		}
+
+	}
+
+}
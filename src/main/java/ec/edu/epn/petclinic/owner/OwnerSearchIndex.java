@@ -0,0 +1,606 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.ngram.EdgeNGramTokenFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.QueryTimeoutImpl;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MultiTermQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopScoreDocCollectorManager;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-process full-text index of the {@link Owner}s, their {@link Pet}s and telephone
+ * numbers, backed by Apache Lucene.
+ * <p>
+ * Every word of a query must match the first name, last name or a pet name of an owner,
+ * either exactly, as a prefix or, for words of at least {@value #MIN_FUZZY_LENGTH}
+ * characters, within one or two edits. Exact matches rank above prefixes, prefixes above
+ * misspellings, and last names above first names and pet names. A query of only digits
+ * and separators, with at least {@value #MIN_TELEPHONE_DIGITS} digits, is a telephone
+ * number, matched by its first or its last digits. Case and accents are ignored. The
+ * search returns owner ids; callers load the owners from the {@link OwnerRepository}.
+ * </p>
+ * <p>
+ * Prefixes of names and telephone numbers are indexed as terms of their own, so every
+ * query is made of term lookups that Lucene can stop evaluating once the best
+ * {@code limit} owners are known. That does not help queries whose words are all common
+ * and that many owners match equally well; every search therefore has a time budget,
+ * {@code petclinic.owners.search-timeout}, after which it returns the best owners found
+ * so far. Such a result is marked as {@link Hits#truncated() truncated}, as better
+ * matches may exist, and counted by the {@code petclinic.owners.search.truncated} metric.
+ * </p>
+ * <p>
+ * The database stays the source of truth. The index is built once the application is
+ * ready, on the application task executor, reading the owners in id ranges of
+ * {@value #REBUILD_CHUNK_SIZE}; until then {@link #isReady()} is {@code false}. Writes
+ * that go through the owner and pet forms or the import are applied with
+ * {@link #update(Owner)} after they were saved and are visible to the next search. By
+ * default the index is held in memory; set {@code petclinic.owners.search-index-path} to
+ * keep it in a directory instead, which is recreated on every start.
+ * </p>
+ * <p>
+ * Held in memory, every file of the index lives on the heap, on top of the owners
+ * themselves. Most of it are the prefix terms: a telephone number adds up to 16 terms,
+ * most of them unique to its owner, and every name adds one posting per prefix. That is
+ * estimated at 100 to 200 bytes per owner, or 0.5 to 1 GB at 5 million owners; the
+ * actual size is logged after every rebuild and exported as the
+ * {@code petclinic.owners.search.index.size} gauge. Large indexes are better kept in a
+ * directory, which is memory-mapped outside the heap.
+ * </p>
+ */
+@Component
+class OwnerSearchIndex implements DisposableBean {
+
+	static final int MIN_FUZZY_LENGTH = 3;
+
+	static final int REBUILD_CHUNK_SIZE = 10_000;
+
+	static final int MIN_TELEPHONE_DIGITS = 3;
+
+	static final int MAX_PREFIX_LENGTH = 20;
+
+	private static final int MAX_FUZZY_EXPANSIONS = 50;
+
+	private static final Log logger = LogFactory.getLog(OwnerSearchIndex.class);
+
+	private static final String REBUILD_SQL = """
+			SELECT o.id, o.first_name, o.last_name, o.telephone, p.name
+			FROM owners o LEFT JOIN pets p ON p.owner_id = o.id
+			WHERE o.id > ? AND o.id <= ?
+			ORDER BY o.id
+			""";
+
+	private static final Pattern TELEPHONE = Pattern.compile("[\\d\\s()+./-]+");
+
+	private static final Pattern NON_DIGITS = Pattern.compile("\\D");
+
+	private static final String ID = "id";
+
+	private static final String FIRST_NAME = "firstName";
+
+	private static final String LAST_NAME = "lastName";
+
+	private static final String PETS = "pets";
+
+	private static final String PET_NAME = "petName";
+
+	/**
+	 * All names of an owner and its pets, for misspellings.
+	 */
+	private static final String NAMES = "names";
+
+	/**
+	 * Suffix of the fields that hold every prefix of the words of a name, so that prefix
+	 * matches are plain term lookups.
+	 */
+	private static final String PREFIXES = "Prefixes";
+
+	private static final String TELEPHONE_START = "telephoneStart";
+
+	private static final String TELEPHONE_END = "telephoneEnd";
+
+	/**
+	 * Lower cases and removes accents, so that "Núñez" matches "nunez". The prefix fields
+	 * are split into all prefixes of up to {@value #MAX_PREFIX_LENGTH} characters.
+	 */
+	static final Analyzer ANALYZER = new Analyzer(Analyzer.PER_FIELD_REUSE_STRATEGY) {
+
+		@Override
+		protected TokenStreamComponents createComponents(String fieldName) {
+			Tokenizer source = new StandardTokenizer();
+			TokenStream words = normalize(fieldName, source);
+			if (fieldName.endsWith(PREFIXES)) {
+				words = new EdgeNGramTokenFilter(words, 1, MAX_PREFIX_LENGTH, true);
+			}
+			return new TokenStreamComponents(source, words);
+		}
+
+		@Override
+		protected TokenStream normalize(String fieldName, TokenStream in) {
+			return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+		}
+
+	};
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TaskExecutor taskExecutor;
+
+	private final Directory directory;
+
+	private final IndexWriter writer;
+
+	private final SearcherManager searchers;
+
+	private final Duration timeout;
+
+	private final Counter truncatedSearches;
+
+	// held while writing to the index, which may wait on the disk; a virtual thread
+	// waiting inside a synchronized block would hold on to its carrier thread
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * Owners written while a rebuild is running; the rebuild must not overwrite them with
+	 * what it read before.
+	 */
+	private final Set<Integer> updatedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+	private boolean rebuilding;
+
+	private volatile boolean ready;
+
+	OwnerSearchIndex(JdbcTemplate jdbcTemplate, TaskExecutor taskExecutor, MeterRegistry registry,
+			@Value("${petclinic.owners.search-index-path:}") String path,
+			@Value("${petclinic.owners.search-timeout:8ms}") Duration timeout) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.taskExecutor = taskExecutor;
+		this.timeout = timeout;
+		this.truncatedSearches = Counter.builder("petclinic.owners.search.truncated")
+			.description("Owner searches that ran out of their time budget")
+			.register(registry);
+		Gauge.builder("petclinic.owners.search.index.size", this, OwnerSearchIndex::sizeInBytes)
+			.description("Size of the owner search index")
+			.baseUnit("bytes")
+			.register(registry);
+		try {
+			this.directory = StringUtils.hasText(path) ? FSDirectory.open(Path.of(path)) : new ByteBuffersDirectory();
+			IndexWriterConfig config = new IndexWriterConfig(ANALYZER).setOpenMode(IndexWriterConfig.OpenMode.CREATE)
+				.setRAMBufferSizeMB(64);
+			this.writer = new IndexWriter(this.directory, config);
+			this.searchers = new SearcherManager(this.writer, null);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Cannot open the owner search index", ex);
+		}
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	void scheduleRebuild() {
+		this.taskExecutor.execute(this::rebuild);
+	}
+
+	/**
+	 * Return whether the index holds all owners, that is whether the initial build has
+	 * completed.
+	 * @return {@code true} once searches cover all owners
+	 */
+	boolean isReady() {
+		return this.ready;
+	}
+
+	/**
+	 * Replace the content of the index with the owners of the database.
+	 */
+	void rebuild() {
+		long start = System.nanoTime();
+		this.lock.lock();
+		try {
+			this.rebuilding = true;
+			this.updatedDuringRebuild.clear();
+			run(this.writer::deleteAll);
+		}
+		finally {
+			this.lock.unlock();
+		}
+		try {
+			Integer maxId = this.jdbcTemplate.queryForObject("SELECT MAX(id) FROM owners", Integer.class);
+			int owners = 0;
+			for (int from = 0; maxId != null && from < maxId; from += REBUILD_CHUNK_SIZE) {
+				owners += rebuild(from, from + REBUILD_CHUNK_SIZE);
+			}
+			compact();
+			this.ready = true;
+			logger.info("Indexed " + owners + " owners in " + (System.nanoTime() - start) / 1_000_000 + " ms, "
+					+ sizeInBytes() / (1024 * 1024) + " MB");
+		}
+		finally {
+			this.lock.lock();
+			try {
+				this.rebuilding = false;
+				this.updatedDuringRebuild.clear();
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+	}
+
+	private int rebuild(int fromExclusive, int toInclusive) {
+		List<Owner> owners = new ArrayList<>();
+		this.jdbcTemplate.query(REBUILD_SQL, rs -> {
+			int id = rs.getInt(1);
+			Owner owner = owners.isEmpty() ? null : owners.get(owners.size() - 1);
+			if (owner == null || owner.getId() != id) {
+				owner = new Owner();
+				owner.setId(id);
+				owner.setFirstName(rs.getString(2));
+				owner.setLastName(rs.getString(3));
+				owner.setTelephone(rs.getString(4));
+				owners.add(owner);
+			}
+			String petName = rs.getString(5);
+			if (petName != null) {
+				Pet pet = new Pet();
+				pet.setName(petName);
+				owner.getPets().add(pet);
+			}
+		}, fromExclusive, toInclusive);
+		load(owners);
+		return owners.size();
+	}
+
+	/**
+	 * Add owners read in bulk, with their pets, without making them visible to searches
+	 * yet; {@link #compact()} does so once all of them are added. Owners updated since
+	 * the running rebuild started are skipped, as they were read before.
+	 * @param owners the owners to add
+	 */
+	void load(Collection<Owner> owners) {
+		this.lock.lock();
+		try {
+			for (Owner owner : owners) {
+				if (!this.updatedDuringRebuild.contains(owner.getId())) {
+					write(owner, petNames(owner));
+				}
+			}
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Return the size of the files of the index, which for an index held in memory is
+	 * the heap it takes.
+	 * @return the size in bytes
+	 */
+	long sizeInBytes() {
+		long size = 0;
+		try {
+			for (String file : this.directory.listAll()) {
+				try {
+					size += this.directory.fileLength(file);
+				}
+				catch (NoSuchFileException | FileNotFoundException ex) {
+					// deleted by a merge meanwhile
+				}
+			}
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return size;
+	}
+
+	/**
+	 * Merge the index into a single segment and make it visible to searches. Each search
+	 * visits every segment, so this is done once after bulk loading; later updates add
+	 * small segments that the merge policy folds in as usual.
+	 */
+	void compact() {
+		run(() -> this.writer.forceMerge(1));
+		run(this.searchers::maybeRefreshBlocking);
+	}
+
+	/**
+	 * Index the current state of a saved owner. If the pets of the owner were not loaded,
+	 * the pet names already in the index are kept.
+	 * @param owner the saved owner
+	 */
+	void update(Owner owner) {
+		update(List.of(owner));
+	}
+
+	/**
+	 * Index the current state of the given saved owners.
+	 * @param owners the saved owners
+	 * @see #update(Owner)
+	 */
+	void update(Collection<Owner> owners) {
+		this.lock.lock();
+		try {
+			for (Owner owner : owners) {
+				List<String> petNames = Hibernate.isInitialized(owner.getPets()) ? petNames(owner)
+						: indexedPetNames(owner.getId());
+				if (this.rebuilding) {
+					this.updatedDuringRebuild.add(owner.getId());
+				}
+				write(owner, petNames);
+			}
+		}
+		finally {
+			this.lock.unlock();
+		}
+		run(this.searchers::maybeRefreshBlocking);
+	}
+
+	/**
+	 * Return the ids of the owners that best match the given query, best match first.
+	 * Misspellings are only considered if exact and prefix matches yield fewer than
+	 * {@code limit} owners, which keeps common queries from expanding to similar terms.
+	 * @param query the words to search for, or a telephone number
+	 * @param limit the maximum number of ids to return
+	 * @return the matching owner ids, empty if nothing matches
+	 */
+	Hits search(String query, int limit) {
+		if (!StringUtils.hasText(query)) {
+			return Hits.NONE;
+		}
+		try {
+			IndexSearcher shared = this.searchers.acquire();
+			try {
+				// the time budget is per search, so it needs a searcher of its own
+				IndexSearcher searcher = new IndexSearcher(shared.getIndexReader());
+				searcher.setTimeout(new QueryTimeoutImpl(this.timeout.toMillis()));
+				String digits = NON_DIGITS.matcher(query).replaceAll("");
+				if (digits.length() >= MIN_TELEPHONE_DIGITS && TELEPHONE.matcher(query).matches()) {
+					Query telephone = new BooleanQuery.Builder()
+						.add(new BoostQuery(new TermQuery(new Term(TELEPHONE_START, digits)), 2), Occur.SHOULD)
+						.add(new TermQuery(new Term(TELEPHONE_END, digits)), Occur.SHOULD)
+						.build();
+					return hits(query, searcher, search(searcher, telephone, limit));
+				}
+				List<String> words = words(query);
+				if (words.isEmpty()) {
+					return Hits.NONE;
+				}
+				Set<Integer> ids = search(searcher, allWords(words, false), limit);
+				if (ids.size() < limit && !searcher.timedOut()
+						&& words.stream().anyMatch(word -> word.length() >= MIN_FUZZY_LENGTH)) {
+					for (Integer id : search(searcher, allWords(words, true), limit)) {
+						if (ids.size() == limit) {
+							break;
+						}
+						ids.add(id);
+					}
+				}
+				return hits(query, searcher, ids);
+			}
+			finally {
+				this.searchers.release(shared);
+			}
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private Hits hits(String query, IndexSearcher searcher, Set<Integer> ids) {
+		if (!searcher.timedOut()) {
+			return new Hits(List.copyOf(ids), false);
+		}
+		this.truncatedSearches.increment();
+		if (logger.isDebugEnabled()) {
+			logger.debug("Search for '" + query + "' took longer than " + this.timeout + ", returning "
+					+ ids.size() + " owners found so far");
+		}
+		return new Hits(List.copyOf(ids), true);
+	}
+
+	private static Set<Integer> search(IndexSearcher searcher, Query query, int limit) throws IOException {
+		// skip non-competitive owners as soon as the limit is reached, not after 1000 hits
+		ScoreDoc[] hits = searcher.search(query, new TopScoreDocCollectorManager(limit, limit)).scoreDocs;
+		List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+		Set<Integer> ids = new LinkedHashSet<>(hits.length * 2);
+		for (ScoreDoc hit : hits) {
+			LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(hit.doc, leaves));
+			NumericDocValues values = DocValues.getNumeric(leaf.reader(), ID);
+			values.advanceExact(hit.doc - leaf.docBase);
+			ids.add((int) values.longValue());
+		}
+		return ids;
+	}
+
+	private static Query allWords(List<String> words, boolean fuzzy) {
+		BooleanQuery.Builder all = new BooleanQuery.Builder();
+		for (String word : words) {
+			BooleanQuery.Builder any = new BooleanQuery.Builder();
+			addWord(any, LAST_NAME, word, 4);
+			addWord(any, FIRST_NAME, word, 2);
+			addWord(any, PETS, word, 1.5f);
+			if (fuzzy && word.length() >= MIN_FUZZY_LENGTH) {
+				// building the automaton dominates the cost of a fuzzy search, so
+				// misspellings are looked up once, in all names
+				int maxEdits = (word.length() < 6) ? 1 : 2;
+				any.add(new FuzzyQuery(new Term(NAMES, word), maxEdits, 1, MAX_FUZZY_EXPANSIONS, true,
+						new MultiTermQuery.TopTermsScoringBooleanQueryRewrite(MAX_FUZZY_EXPANSIONS)), Occur.SHOULD);
+			}
+			all.add(any.build(), Occur.MUST);
+		}
+		return all.build();
+	}
+
+	private static void addWord(BooleanQuery.Builder any, String field, String word, float boost) {
+		// an exact match also matches as a prefix, so it scores both
+		any.add(new BoostQuery(new TermQuery(new Term(field, word)), 2 * boost), Occur.SHOULD);
+		if (word.length() <= MAX_PREFIX_LENGTH) {
+			any.add(new BoostQuery(new TermQuery(new Term(field + PREFIXES, word)), boost), Occur.SHOULD);
+		}
+	}
+
+	private static List<String> words(String text) {
+		List<String> words = new ArrayList<>();
+		try (TokenStream tokens = ANALYZER.tokenStream(LAST_NAME, text)) {
+			CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+			tokens.reset();
+			while (tokens.incrementToken()) {
+				words.add(term.toString());
+			}
+			tokens.end();
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return words;
+	}
+
+	private void write(Owner owner, List<String> petNames) {
+		String id = owner.getId().toString();
+		Document document = new Document();
+		document.add(new StringField(ID, id, Field.Store.NO));
+		document.add(new NumericDocValuesField(ID, owner.getId()));
+		addName(document, FIRST_NAME, owner.getFirstName());
+		addName(document, LAST_NAME, owner.getLastName());
+		for (String petName : petNames) {
+			addName(document, PETS, petName);
+			document.add(new StoredField(PET_NAME, petName));
+		}
+		String digits = NON_DIGITS.matcher((owner.getTelephone() != null) ? owner.getTelephone() : "").replaceAll("");
+		for (int length = MIN_TELEPHONE_DIGITS; length <= digits.length(); length++) {
+			document.add(new StringField(TELEPHONE_START, digits.substring(0, length), Field.Store.NO));
+			document.add(new StringField(TELEPHONE_END, digits.substring(digits.length() - length), Field.Store.NO));
+		}
+		run(() -> this.writer.updateDocument(new Term(ID, id), document));
+	}
+
+	private static void addName(Document document, String field, String name) {
+		if (name != null) {
+			document.add(new TextField(field, name, Field.Store.NO));
+			document.add(new TextField(field + PREFIXES, name, Field.Store.NO));
+			document.add(new TextField(NAMES, name, Field.Store.NO));
+		}
+	}
+
+	private List<String> indexedPetNames(Integer id) {
+		try {
+			IndexSearcher searcher = this.searchers.acquire();
+			try {
+				ScoreDoc[] hits = searcher.search(new TermQuery(new Term(ID, id.toString())), 1).scoreDocs;
+				return hits.length == 0 ? List.of()
+						: List.of(searcher.storedFields().document(hits[0].doc).getValues(PET_NAME));
+			}
+			finally {
+				this.searchers.release(searcher);
+			}
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static List<String> petNames(Owner owner) {
+		List<String> names = new ArrayList<>(owner.getPets().size());
+		for (Pet pet : owner.getPets()) {
+			if (pet.getName() != null) {
+				names.add(pet.getName());
+			}
+		}
+		return names;
+	}
+
+	private static void run(IndexOperation operation) {
+		try {
+			operation.run();
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	@Override
+	public void destroy() throws IOException {
+		this.searchers.close();
+		this.writer.close();
+		this.directory.close();
+	}
+
+	/**
+	 * The result of a search.
+	 * @param ownerIds the ids of the matching owners, best match first
+	 * @param truncated whether the search ran out of its time budget, in which case
+	 * owners that match better than those returned may exist
+	 */
+	record Hits(List<Integer> ownerIds, boolean truncated) {
+
+		static final Hits NONE = new Hits(List.of(), false);
+
+	}
+
+	@FunctionalInterface
+	private interface IndexOperation {
+
+		void run() throws IOException;
+
+	}
+
+}
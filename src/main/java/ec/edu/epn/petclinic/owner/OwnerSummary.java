@@ -0,0 +1,21 @@
+
+package ec.edu.epn.petclinic.owner;
+
+/**
+ * Read-only view of an {@link Owner} as shown in the owner search results. Instances are
+ * built directly from a query result, so no {@link Owner} or {@link Pet} entity is loaded
+ * into the persistence context.
+ *
+ * @param id the owner id
+ * @param firstName the owner's first name
+ * @param lastName the owner's last name
+ * @param address the owner's address
+ * @param city the owner's city
+ * @param telephone the owner's telephone
+ * @param petNames the names of the owner's pets, comma separated and sorted, or
+ * {@code null} if the owner has no pets
+ */
+public record OwnerSummary(Integer id, String firstName, String lastName, String address, String city,
+		String telephone, String petNames) {
+
+}
@@ -0,0 +1,49 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published once owners, their pets or their visits were written, so that the data kept
+ * in memory about owners can follow once the change is committed, see
+ * {@link OwnerChangeListener}.
+ *
+ * @param owners the owners that were written, with their pets
+ * @param previousLastNames the last name each existing owner had before it was written,
+ * by owner id; owners missing from it were created
+ * @param searchable whether anything the owner search matches on may have changed
+ */
+record OwnersChangedEvent(List<Owner> owners, Map<Integer, String> previousLastNames, boolean searchable) {
+
+	/**
+	 * The given owners were created, e.g. by the owner form or an import.
+	 */
+	static OwnersChangedEvent created(Collection<Owner> owners) {
+		return new OwnersChangedEvent(List.copyOf(owners), Map.of(), true);
+	}
+
+	/**
+	 * The details of the given owner were edited.
+	 * @param owner the owner as saved
+	 * @param previousLastName the last name the owner had before
+	 */
+	static OwnersChangedEvent updated(Owner owner, String previousLastName) {
+		return new OwnersChangedEvent(List.of(owner), Map.of(owner.getId(), previousLastName), true);
+	}
+
+	/**
+	 * A pet of the given owner was added or edited.
+	 */
+	static OwnersChangedEvent petsChanged(Owner owner) {
+		return new OwnersChangedEvent(List.of(owner), Map.of(owner.getId(), owner.getLastName()), true);
+	}
+
+	/**
+	 * A visit was booked for a pet of the given owner; visits are not searched.
+	 */
+	static OwnersChangedEvent visitBooked(Owner owner) {
+		return new OwnersChangedEvent(List.of(owner), Map.of(owner.getId(), owner.getLastName()), false);
+	}
+
+}
@@ -6,6 +6,7 @@ import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.BatchSize;
 import org.springframework.format.annotation.DateTimeFormat;
 import ec.edu.epn.petclinic.model.NamedEntity;
 
@@ -18,6 +19,8 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OrderBy;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 
 /**
  * Simple business object representing a pet.
@@ -34,11 +37,27 @@ public class Pet extends NamedEntity {
 	@JoinColumn(name = "type_id")
 	private PetType type;
 
-	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	@JoinColumn(name = "pet_id")
 	@OrderBy("date ASC")
+	@BatchSize(size = 50)
 	private final Set<Visit> visits = new LinkedHashSet<>();
 
+	@Version
+	private Integer version;
+
+	@Transient
+	private PetIndex index;
+
+	@Override
+	public void setName(String name) {
+		String oldName = getName();
+		super.setName(name);
+		if (this.index != null) {
+			this.index.renamed(this, oldName);
+		}
+	}
+
 	public void setBirthDate(LocalDate birthDate) {
 		this.birthDate = birthDate;
 	}
@@ -55,6 +74,19 @@ public class Pet extends NamedEntity {
 		this.type = type;
 	}
 
+	/**
+	 * Return the version of this pet, incremented whenever the pet changes or a visit is
+	 * booked for it.
+	 * @return the version, {@code null} if the pet is new
+	 */
+	public Integer getVersion() {
+		return this.version;
+	}
+
+	public void setVersion(Integer version) {
+		this.version = version;
+	}
+
 	public Collection<Visit> getVisits() {
 		return this.visits;
 	}
@@ -63,4 +95,8 @@ public class Pet extends NamedEntity {
 		getVisits().add(visit);
 	}
 
+	void indexedBy(PetIndex index) {
+		this.index = index;
+	}
+
 }
@@ -4,8 +4,8 @@ package ec.edu.epn.petclinic.owner;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.Objects;
-import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.ModelMap;
 import org.springframework.util.Assert;
@@ -31,23 +31,29 @@ class PetController {
 
 	private final OwnerRepository owners;
 
-	private final PetTypeRepository types;
+	private final OwnerResolver ownerResolver;
 
-	public PetController(OwnerRepository owners, PetTypeRepository types) {
+	private final PetTypeRegistry types;
+
+	private final ApplicationEventPublisher events;
+
+	public PetController(OwnerRepository owners, OwnerResolver ownerResolver, PetTypeRegistry types,
+			ApplicationEventPublisher events) {
 		this.owners = owners;
+		this.ownerResolver = ownerResolver;
 		this.types = types;
+		this.events = events;
 	}
 
 	@ModelAttribute("types")
 	public Collection<PetType> populatePetTypes() {
-		return this.types.findPetTypes();
+		return this.types.findAll();
 	}
 
 	@ModelAttribute("owner")
-public Owner findOwner(@PathVariable("ownerId") int ownerId) {
-    return this.owners.findById(ownerId).orElseThrow(() -> 
-        new IllegalArgumentException("Owner not found with id: " + ownerId + ". Please ensure the ID is correct"));
-}
+	public Owner findOwner(@PathVariable("ownerId") int ownerId) {
+		return this.ownerResolver.findOwnerWithPets(ownerId);
+	}
 
 	@ModelAttribute("pet")
 	public Pet findPet(@PathVariable("ownerId") int ownerId,
@@ -57,15 +63,25 @@ public Owner findOwner(@PathVariable("ownerId") int ownerId) {
 			return new Pet();
 		}
 
-		Optional<Owner> optionalOwner = this.owners.findById(ownerId);
-		Owner owner = optionalOwner.orElseThrow(() -> new IllegalArgumentException(
-				"Owner not found with id: " + ownerId + ". Please ensure the ID is correct "));
-		return owner.getPet(petId);
+		// the owner is shared with findOwner(), so bind the form to a copy of its pet
+		Pet pet = this.ownerResolver.findOwnerWithPets(ownerId).getPet(petId);
+		return pet == null ? null : copyOf(pet);
+	}
+
+	private static Pet copyOf(Pet pet) {
+		Pet copy = new Pet();
+		copy.setId(pet.getId());
+		copy.setName(pet.getName());
+		copy.setBirthDate(pet.getBirthDate());
+		copy.setType(pet.getType());
+		copy.setVersion(pet.getVersion());
+		return copy;
 	}
 
 	@InitBinder("owner")
 	public void initOwnerBinder(WebDataBinder dataBinder) {
-		dataBinder.setDisallowedFields("id");
+		// the version field of the form is the one of the pet
+		dataBinder.setDisallowedFields("id", "version");
 	}
 
 	@InitBinder("pet")
@@ -98,6 +114,7 @@ public Owner findOwner(@PathVariable("ownerId") int ownerId) {
 
 		owner.addPet(pet);
 		this.owners.save(owner);
+		this.events.publishEvent(OwnersChangedEvent.petsChanged(owner));
 		redirectAttributes.addFlashAttribute("message", "New Pet has been Added");
 		return "redirect:/owners/{ownerId}";
 	}
@@ -107,8 +124,18 @@ public Owner findOwner(@PathVariable("ownerId") int ownerId) {
 		return VIEWS_PETS_CREATE_OR_UPDATE_FORM;
 	}
 
+	/**
+	 * Save the edited details of a pet, provided nobody else saved the pet since the form
+	 * was shown, see {@link OwnerController#processUpdateOwnerForm}.
+	 * @param owner the owner of the pet
+	 * @param pet the pet bound from the form, including the version it is based on
+	 * @param result the binding result of the form
+	 * @param model the model of the form, if it has to be shown again
+	 * @param redirectAttributes the flash attributes of the owner page
+	 * @return a redirect to the owner page, or the form if it has to be shown again
+	 */
 	@PostMapping("/pets/{petId}/edit")
-	public String processUpdateForm(Owner owner, @Valid Pet pet, BindingResult result,
+	public String processUpdateForm(Owner owner, @Valid Pet pet, BindingResult result, ModelMap model,
 			RedirectAttributes redirectAttributes) {
 
 		String petName = pet.getName();
@@ -130,7 +157,9 @@ public Owner findOwner(@PathVariable("ownerId") int ownerId) {
 			return VIEWS_PETS_CREATE_OR_UPDATE_FORM;
 		}
 
-		updatePetDetails(owner, pet);
+		if (!updatePetDetails(owner, pet)) {
+			return showConcurrentModification(owner, pet, result, model);
+		}
 		redirectAttributes.addFlashAttribute("message", "Pet details has been edited");
 		return "redirect:/owners/{ownerId}";
 	}
@@ -139,21 +168,42 @@ public Owner findOwner(@PathVariable("ownerId") int ownerId) {
 	 * Updates the pet details if it exists or adds a new pet to the owner.
 	 * @param owner The owner of the pet
 	 * @param pet The pet with updated details
+	 * @return {@code false} if the pet was changed by someone else since the version of
+	 * the given pet was read, in which case nothing is updated
 	 */
-	private void updatePetDetails(Owner owner, Pet pet) {
+	private boolean updatePetDetails(Owner owner, Pet pet) {
 		Integer id = pet.getId();
 		Assert.state(id != null, "'pet.getId()' must not be null");
 		Pet existingPet = owner.getPet(id);
 		if (existingPet != null) {
-			// Update existing pet's properties
+			// a single version-checked UPDATE instead of merging the owner and its pets
+			if (this.owners.updatePetDetails(pet) == 0) {
+				return false;
+			}
+			// Update existing pet's properties, as indexed once the change is published
 			existingPet.setName(pet.getName());
 			existingPet.setBirthDate(pet.getBirthDate());
 			existingPet.setType(pet.getType());
 		}
 		else {
 			owner.addPet(pet);
+			this.owners.save(owner);
 		}
-		this.owners.save(owner);
+		this.events.publishEvent(OwnersChangedEvent.petsChanged(owner));
+		return true;
+	}
+
+	private String showConcurrentModification(Owner owner, Pet pet, BindingResult result, ModelMap model) {
+		Pet current = this.owners.findWithPetsById(owner.getId())
+			.map(found -> found.getPet(pet.getId()))
+			.orElseThrow(() -> new IllegalArgumentException("Pet with id " + pet.getId() + " not found for owner with id "
+					+ owner.getId() + ". It may have been deleted while it was being edited."));
+		// keep the values entered, but based on the current version, so that submitting
+		// the form again deliberately overwrites the values saved in the meantime
+		pet.setVersion(current.getVersion());
+		model.put("currentPet", current);
+		result.reject("concurrentModification", "was changed by someone else");
+		return VIEWS_PETS_CREATE_OR_UPDATE_FORM;
 	}
 
 }
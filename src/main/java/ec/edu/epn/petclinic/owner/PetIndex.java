@@ -0,0 +1,117 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Index of the {@link Pet}s of one {@link Owner} by id and by case-insensitive name, so
+ * that {@link Owner#getPet(Integer)} and {@link Owner#getPet(String, boolean)} do not
+ * scan all pets on every call.
+ * <p>
+ * The index covers the pets list it was built from as long as that list keeps its size;
+ * {@link Owner} builds a new one otherwise. Pets report renames through
+ * {@link Pet#setName(String)}. Pets that are new when indexed are only indexed by id once
+ * they have one, which is checked when a lookup by id misses.
+ * </p>
+ */
+final class PetIndex {
+
+	private final List<Pet> pets;
+
+	private final Map<Integer, Pet> byId = new HashMap<>();
+
+	private final Map<String, List<Pet>> byName = new HashMap<>();
+
+	private final List<Pet> withoutId = new ArrayList<>();
+
+	private int size;
+
+	PetIndex(List<Pet> pets) {
+		this.pets = pets;
+		pets.forEach(this::add);
+	}
+
+	/**
+	 * Return whether this index still reflects the given pets list.
+	 * @param pets the current pets of the owner
+	 * @return {@code false} if the list was replaced, or pets were added or removed
+	 * without {@link #add(Pet)}
+	 */
+	boolean covers(List<Pet> pets) {
+		return this.pets == pets && this.size == pets.size();
+	}
+
+	/**
+	 * Index a pet that was just added to the pets list.
+	 * @param pet the added pet
+	 */
+	void add(Pet pet) {
+		this.size++;
+		if (pet.isNew()) {
+			this.withoutId.add(pet);
+		}
+		else {
+			this.byId.putIfAbsent(pet.getId(), pet);
+		}
+		if (pet.getName() != null) {
+			this.byName.computeIfAbsent(key(pet.getName()), name -> new ArrayList<>(1)).add(pet);
+		}
+		pet.indexedBy(this);
+	}
+
+	Pet get(Integer id) {
+		Pet pet = this.byId.get(id);
+		if (pet == null && !this.withoutId.isEmpty()) {
+			for (Iterator<Pet> it = this.withoutId.iterator(); it.hasNext();) {
+				Pet candidate = it.next();
+				if (!candidate.isNew()) {
+					it.remove();
+					this.byId.putIfAbsent(candidate.getId(), candidate);
+				}
+			}
+			pet = this.byId.get(id);
+		}
+		return pet;
+	}
+
+	Pet get(String name, boolean ignoreNew) {
+		if (name == null) {
+			return null;
+		}
+		List<Pet> named = this.byName.get(key(name));
+		if (named != null) {
+			for (Pet pet : named) {
+				if (!ignoreNew || !pet.isNew()) {
+					return pet;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Move a pet to its new name.
+	 * @param pet the renamed pet
+	 * @param oldName the name the pet was indexed under
+	 */
+	void renamed(Pet pet, String oldName) {
+		if (oldName != null) {
+			List<Pet> named = this.byName.get(key(oldName));
+			if (named != null) {
+				named.remove(pet);
+			}
+		}
+		if (pet.getName() != null) {
+			this.byName.computeIfAbsent(key(pet.getName()), name -> new ArrayList<>(1)).add(pet);
+		}
+	}
+
+	private static String key(String name) {
+		return name.toLowerCase(Locale.ROOT);
+	}
+
+}
@@ -4,11 +4,13 @@ package ec.edu.epn.petclinic.owner;
 import ec.edu.epn.petclinic.model.NamedEntity;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Table;
 
 
 @Entity
 @Table(name = "types")
+@EntityListeners(PetTypeRegistry.InvalidatingListener.class)
 public class PetType extends NamedEntity {
 
 }
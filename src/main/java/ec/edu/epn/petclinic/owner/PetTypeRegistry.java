@@ -0,0 +1,156 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * In-memory view of all {@link PetType}s, keyed by name and by id.
+ * <p>
+ * Pet types are reference data that is read on every pet form but hardly ever written,
+ * so they are loaded once when the application is ready and served from immutable maps
+ * afterwards. Writes through JPA invalidate the registry once their transaction
+ * completes (see {@link InvalidatingListener}); the next lookup then reloads it.
+ * </p>
+ */
+@Component
+public class PetTypeRegistry {
+
+	private final PetTypeRepository types;
+
+	// a lock rather than synchronized: on JDK 21 a virtual thread that blocks on JDBC
+	// inside a synchronized method pins its carrier thread
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private volatile Snapshot snapshot;
+
+	public PetTypeRegistry(PetTypeRepository types) {
+		this.types = types;
+	}
+
+	/**
+	 * Load the pet types as soon as the application is ready, so that the first request
+	 * does not pay for it.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void preload() {
+		snapshot();
+	}
+
+	/**
+	 * Return all pet types.
+	 * @return an immutable list of the pet types, ordered by name
+	 */
+	public List<PetType> findAll() {
+		return snapshot().ordered();
+	}
+
+	/**
+	 * Return the pet type with the given name.
+	 * @param name the name of the pet type, compared case-sensitively
+	 * @return the pet type, or an empty {@link Optional} if there is none
+	 */
+	public Optional<PetType> findByName(String name) {
+		return Optional.ofNullable(snapshot().byName().get(name));
+	}
+
+	/**
+	 * Return the pet type with the given id.
+	 * @param id the id of the pet type
+	 * @return the pet type, or an empty {@link Optional} if there is none
+	 */
+	public Optional<PetType> findById(Integer id) {
+		return Optional.ofNullable(snapshot().byId().get(id));
+	}
+
+	/**
+	 * Discard the loaded pet types; they are reloaded on the next lookup.
+	 */
+	public void invalidate() {
+		this.lock.lock();
+		try {
+			this.snapshot = null;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	private Snapshot snapshot() {
+		Snapshot current = this.snapshot;
+		return (current != null) ? current : load();
+	}
+
+	// guarded by the same lock as invalidate(), so a load that raced with a write cannot
+	// outlive it
+	private Snapshot load() {
+		this.lock.lock();
+		try {
+			if (this.snapshot == null) {
+				List<PetType> ordered = List.copyOf(this.types.findPetTypes());
+				this.snapshot = new Snapshot(ordered,
+						ordered.stream().collect(Collectors.toUnmodifiableMap(PetType::getName, Function.identity())),
+						ordered.stream().collect(Collectors.toUnmodifiableMap(PetType::getId, Function.identity())));
+			}
+			return this.snapshot;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	private record Snapshot(List<PetType> ordered, Map<String, PetType> byName, Map<Integer, PetType> byId) {
+	}
+
+	/**
+	 * JPA entity listener that invalidates the {@link PetTypeRegistry} after a
+	 * {@link PetType} was inserted, updated or deleted. Within a transaction the registry
+	 * is invalidated once the transaction completes, so that a concurrent reload cannot
+	 * pick up the state from before the commit.
+	 */
+	static class InvalidatingListener {
+
+		private final ObjectProvider<PetTypeRegistry> registry;
+
+		InvalidatingListener(ObjectProvider<PetTypeRegistry> registry) {
+			this.registry = registry;
+		}
+
+		@PostPersist
+		@PostUpdate
+		@PostRemove
+		void petTypeChanged(PetType petType) {
+			if (TransactionSynchronizationManager.isSynchronizationActive()) {
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+					@Override
+					public void afterCompletion(int status) {
+						invalidate();
+					}
+				});
+			}
+			else {
+				invalidate();
+			}
+		}
+
+		private void invalidate() {
+			this.registry.ifAvailable(PetTypeRegistry::invalidate);
+		}
+
+	}
+
+}
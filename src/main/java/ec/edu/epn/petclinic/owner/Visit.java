@@ -13,6 +13,10 @@ import jakarta.validation.constraints.NotBlank;
 
 /**
  * Simple JavaBean domain object representing a visit.
+ * <p>
+ * The visits of a {@link Pet} are written through {@link Pet#getVisits()}; the
+ * {@link #getPetId() pet id} is only mapped to query the visits of a pet directly.
+ * </p>
  */
 @Entity
 @Table(name = "visits")
@@ -25,6 +29,9 @@ public class Visit extends BaseEntity {
 	@NotBlank
 	private String description;
 
+	@Column(name = "pet_id", insertable = false, updatable = false)
+	private Integer petId;
+
 	/**
 	 * Creates a new instance of Visit for the current date
 	 */
@@ -48,4 +55,8 @@ public class Visit extends BaseEntity {
 		this.description = description;
 	}
 
+	public Integer getPetId() {
+		return this.petId;
+	}
+
 }
@@ -2,8 +2,9 @@
 package ec.edu.epn.petclinic.owner;
 
 import java.util.Map;
-import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.WebDataBinder;
@@ -19,10 +20,16 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 @Controller
 class VisitController {
 
-	private final OwnerRepository owners;
+	private final VisitRepository visits;
 
-	public VisitController(OwnerRepository owners) {
-		this.owners = owners;
+	private final OwnerResolver ownerResolver;
+
+	private final ApplicationEventPublisher events;
+
+	public VisitController(VisitRepository visits, OwnerResolver ownerResolver, ApplicationEventPublisher events) {
+		this.visits = visits;
+		this.ownerResolver = ownerResolver;
+		this.events = events;
 	}
 
 	@InitBinder
@@ -34,27 +41,32 @@ class VisitController {
 	 * Called before each and every @RequestMapping annotated method. 2 goals: - Make sure
 	 * we always have fresh data - Since we do not use the session scope, make sure that
 	 * Pet object always has an id (Even though id is not part of the form fields)
+	 * <p>
+	 * Only the form lists the previous visits of the pet, so they are loaded for a
+	 * {@code GET} alone; booking a visit just checks that the pet belongs to the owner.
+	 * </p>
 	 * @param petId
 	 * @return Pet
 	 */
 	@ModelAttribute("visit")
 	public Visit loadPetWithVisit(@PathVariable("ownerId") int ownerId, @PathVariable("petId") int petId,
-			Map<String, Object> model) {
-		Optional<Owner> optionalOwner = owners.findById(ownerId);
-		Owner owner = optionalOwner.orElseThrow(() -> new IllegalArgumentException(
-				"Owner not found with id: " + ownerId + ". Please ensure the ID is correct "));
+			HttpMethod method, Map<String, Object> model) {
+		Owner owner = HttpMethod.GET.equals(method) ? this.ownerResolver.findOwnerWithPetsAndVisits(ownerId)
+				: this.ownerResolver.findOwnerWithPets(ownerId);
+		putPet(owner, petId, model);
+
+		// not added to the pet: the visit is inserted on its own, never through the owner
+		return new Visit();
+	}
 
+	private static void putPet(Owner owner, int petId, Map<String, Object> model) {
 		Pet pet = owner.getPet(petId);
 		if (pet == null) {
 			throw new IllegalArgumentException(
-					"Pet with id " + petId + " not found for owner with id " + ownerId + ".");
+					"Pet with id " + petId + " not found for owner with id " + owner.getId() + ".");
 		}
 		model.put("pet", pet);
 		model.put("owner", owner);
-
-		Visit visit = new Visit();
-		pet.addVisit(visit);
-		return visit;
 	}
 
 	// Spring MVC calls method loadPetWithVisit(...) before initNewVisitForm is
@@ -65,16 +77,19 @@ class VisitController {
 	}
 
 	// Spring MVC calls method loadPetWithVisit(...) before processNewVisitForm is
-	// called
+	// called, which also checks that the pet belongs to the owner
 	@PostMapping("/owners/{ownerId}/pets/{petId}/visits/new")
-	public String processNewVisitForm(@ModelAttribute Owner owner, @PathVariable int petId, @Valid Visit visit,
-			BindingResult result, RedirectAttributes redirectAttributes) {
+	public String processNewVisitForm(@PathVariable int ownerId, @PathVariable int petId, @Valid Visit visit,
+			BindingResult result, Map<String, Object> model, RedirectAttributes redirectAttributes) {
 		if (result.hasErrors()) {
+			// the form is shown again, with the previous visits of the pet
+			putPet(this.ownerResolver.findOwnerWithPetsAndVisits(ownerId), petId, model);
 			return "pets/createOrUpdateVisitForm";
 		}
 
-		owner.addVisit(petId, visit);
-		this.owners.save(owner);
+		// the loaded owner is detached, insert the visit alone instead of merging the owner
+		this.visits.book(petId, visit.getDate(), visit.getDescription());
+		this.events.publishEvent(OwnersChangedEvent.visitBooked(this.ownerResolver.findOwnerWithPets(ownerId)));
 		redirectAttributes.addFlashAttribute("message", "Your visit has been booked");
 		return "redirect:/owners/{ownerId}";
 	}
@@ -0,0 +1,155 @@
+package ec.edu.epn.petclinic.owner;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import ec.edu.epn.petclinic.system.PrimaryReads;
+
+/**
+ * Repository class for <code>Visit</code> domain objects.
+ * <p>
+ * Visits belong to the {@link Owner} aggregate. New visits are written here instead,
+ * keyed by the id of their pet, so booking a visit does not merge the owner with all of
+ * its pets and visits; only the version of the pet is incremented. The visit history of
+ * a pet is read here as well, most recent first and a window at a time, so it does not
+ * have to be loaded as a whole.
+ * </p>
+ */
+public interface VisitRepository extends Repository<Visit, Integer> {
+
+	/**
+	 * Book a new visit of the given pet: the visit is inserted and the version of the pet
+	 * incremented, so pages showing the pet's visits are no longer considered current.
+	 * @param petId the id of the pet
+	 * @param date the date of the visit
+	 * @param description the description of the visit
+	 * @return the number of inserted visits
+	 */
+	@Transactional
+	default int book(int petId, LocalDate date, String description) {
+		incrementPetVersion(petId);
+		return insert(petId, date, description);
+	}
+
+	/**
+	 * Increment the version of the given pet without loading it.
+	 * @param petId the id of the pet
+	 * @return the number of updated rows
+	 */
+	@Modifying
+	@Transactional
+	@Query("UPDATE Pet p SET p.version = p.version + 1 WHERE p.id = :petId")
+	int incrementPetVersion(@Param("petId") int petId);
+
+	/**
+	 * Insert a new visit of the given pet with a single statement.
+	 * @param petId the id of the pet
+	 * @param date the date of the visit
+	 * @param description the description of the visit
+	 * @return the number of inserted rows
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "INSERT INTO visits (pet_id, visit_date, description) VALUES (:petId, :date, :description)",
+			nativeQuery = true)
+	int insert(@Param("petId") int petId, @Param("date") LocalDate date, @Param("description") String description);
+
+	/**
+	 * Retrieve the most recent visits of each of the given pets with a single statement.
+	 * They are read from the primary database, like the owner they are shown with, so a
+	 * visit just booked is among them, see {@link OwnerRepository#findById(Integer)}; the
+	 * transaction is still read-only, as nothing read is ever written back.
+	 * @param petIds the ids of the pets
+	 * @param count the maximum number of visits per pet
+	 * @return a window of the most recent visits of every given pet, by pet id
+	 */
+	@Transactional(readOnly = true)
+	default Map<Integer, Window<Visit>> findRecentByPetIdIn(Collection<Integer> petIds, int count) {
+		Map<Integer, List<Visit>> visits = petIds.isEmpty() ? Map.of()
+				: PrimaryReads.call(() -> findLatestByPetIdIn(petIds, count + 1))
+					.stream()
+					.collect(Collectors.groupingBy(Visit::getPetId));
+		Map<Integer, Window<Visit>> windows = new HashMap<>();
+		for (Integer petId : petIds) {
+			List<Visit> latest = visits.getOrDefault(petId, List.of());
+			List<Visit> content = latest.subList(0, Math.min(count, latest.size()));
+			windows.put(petId, Window.from(content, i -> position(content.get(i)), latest.size() > count));
+		}
+		return windows;
+	}
+
+	/**
+	 * Retrieve up to {@code count} visits of each of the given pets, latest first.
+	 * @param petIds the ids of the pets
+	 * @param count the maximum number of visits per pet
+	 * @return the visits, ordered by pet and then latest first
+	 */
+	@Query(value = """
+			SELECT id, pet_id, visit_date, description FROM (
+				SELECT v.id, v.pet_id, v.visit_date, v.description,
+					ROW_NUMBER() OVER (PARTITION BY v.pet_id ORDER BY v.visit_date DESC, v.id DESC) AS recency
+				FROM visits v WHERE v.pet_id IN (:petIds)
+			) recent
+			WHERE recency <= :count
+			ORDER BY pet_id, visit_date DESC, id DESC
+			""", nativeQuery = true)
+	List<Visit> findLatestByPetIdIn(@Param("petIds") Collection<Integer> petIds, @Param("count") int count);
+
+	/**
+	 * Retrieve a window of the visits of a pet, latest first, starting right after the
+	 * given keyset position.
+	 * <p>
+	 * The pet id leads the order, although it is fixed, so that the whole order runs in
+	 * one direction along the {@code (pet_id, visit_date)} index and can be read from it
+	 * instead of being sorted.
+	 * </p>
+	 * @param petId the id of the pet
+	 * @param position the keyset position over {@code petId}, {@code date} and
+	 * {@code id} to continue from, see {@link #position(int, LocalDate, int)}
+	 * @param limit the maximum number of visits in the window
+	 * @return a <code>Window</code> of <code>Visit</code>s
+	 */
+	@Transactional(readOnly = true)
+	Window<Visit> findByPetIdOrderByPetIdDescDateDescIdDesc(Integer petId, ScrollPosition position, Limit limit);
+
+	/**
+	 * Return the keyset position right after the given visit in the visit history of its
+	 * pet.
+	 * @param visit the last visit already shown
+	 * @return the position to continue from
+	 */
+	static ScrollPosition position(Visit visit) {
+		return position(visit.getPetId(), visit.getDate(), visit.getId());
+	}
+
+	/**
+	 * Return the keyset position right after the given visit in the visit history of a
+	 * pet.
+	 * @param petId the id of the pet
+	 * @param date the date of the last visit already shown
+	 * @param id the id of the last visit already shown
+	 * @return the position to continue from
+	 */
+	static ScrollPosition position(int petId, LocalDate date, int id) {
+		Map<String, Object> keys = new LinkedHashMap<>();
+		keys.put("petId", petId);
+		keys.put("date", date);
+		keys.put("id", id);
+		return ScrollPosition.forward(keys);
+	}
+
+}
@@ -0,0 +1,77 @@
+package ec.edu.epn.petclinic.system;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+/**
+ * Inserts rows with one JDBC batch statement and reads back their database generated
+ * ids, so that rows of a following batch can reference them. Used to write large
+ * volumes of owners and vets without going through the persistence context.
+ */
+public final class BatchInserts {
+
+	private BatchInserts() {
+	}
+
+	/**
+	 * Insert one row per element of the given list.
+	 * @param jdbcTemplate the template to run the batch with
+	 * @param sql the {@code INSERT} statement, whose table has a generated {@code id}
+	 * column
+	 * @param rows the elements to insert
+	 * @param setter sets the parameters of the statement for one element
+	 * @return the generated ids, in the order of the elements
+	 */
+	public static <T> List<Integer> insert(JdbcTemplate jdbcTemplate, String sql, List<T> rows,
+			RowSetter<T> setter) {
+		if (rows.isEmpty()) {
+			return List.of();
+		}
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+		jdbcTemplate.batchUpdate(con -> con.prepareStatement(sql, new String[] { "id" }),
+				new BatchPreparedStatementSetter() {
+
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						setter.setValues(ps, rows.get(i), i);
+					}
+
+					@Override
+					public int getBatchSize() {
+						return rows.size();
+					}
+
+				}, keyHolder);
+		List<Integer> ids = new ArrayList<>(rows.size());
+		for (Map<String, Object> key : keyHolder.getKeyList()) {
+			ids.add(((Number) key.values().iterator().next()).intValue());
+		}
+		return ids;
+	}
+
+	/**
+	 * Sets the parameters of an {@code INSERT} statement for one element.
+	 */
+	@FunctionalInterface
+	public interface RowSetter<T> {
+
+		/**
+		 * Set the parameters for the given element.
+		 * @param ps the statement
+		 * @param row the element to insert
+		 * @param index the index of the element in the list
+		 * @throws SQLException if a parameter cannot be set
+		 */
+		void setValues(PreparedStatement ps, T row, int index) throws SQLException;
+
+	}
+
+}
@@ -1,39 +1,54 @@
-
-
 package ec.edu.epn.petclinic.system;
 
-import org.springframework.boot.cache.autoconfigure.JCacheManagerCustomizer;
+import java.util.Map;
+
+import org.springframework.boot.cache.autoconfigure.CacheManagerCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 
-import javax.cache.configuration.MutableConfiguration;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 /**
- * Cache configuration intended for caches providing the JCache API. This configuration
- * creates the used cache for the application and enables statistics that become
- * accessible via JMX.
+ * Cache configuration based on Caffeine. Every cache listed under
+ * {@code petclinic.cache.specs} gets its own
+ * {@link com.github.benmanes.caffeine.cache.CaffeineSpec Caffeine specification}, e.g.
+ * {@code petclinic.cache.specs.vets=maximumSize=1,expireAfterWrite=10m,recordStats}.
+ * Caches that are not listed fall back to {@code spring.cache.caffeine.spec}.
+ * <p>
+ * {@code refreshAfterWrite} is rejected by Caffeine for caches without a loader, which
+ * is the case for all {@code @Cacheable} caches. Concurrent misses on the same key are
+ * instead collapsed with {@code @Cacheable(sync = true)}.
+ * <p>
+ * The cache interceptor runs just before the transaction interceptor, so cache hits do
+ * not open a transaction, and after the repository metrics, which time hits as well.
  */
 @Configuration(proxyBeanMethods = false)
-@EnableCaching
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+@EnableConfigurationProperties(CacheConfiguration.CacheSpecs.class)
 class CacheConfiguration {
 
 	@Bean
-	public JCacheManagerCustomizer petclinicCacheConfigurationCustomizer() {
-		return cm -> cm.createCache("vets", cacheConfiguration());
+	public CacheManagerCustomizer<CaffeineCacheManager> petclinicCacheConfigurationCustomizer(CacheSpecs cacheSpecs) {
+		return cacheManager -> cacheSpecs.specs()
+			.forEach((name, spec) -> cacheManager.registerCustomCache(name, Caffeine.from(spec).build()));
 	}
 
 	/**
-	 * Create a simple configuration that enable statistics via the JCache programmatic
-	 * configuration API.
-	 * <p>
-	 * Within the configuration object that is provided by the JCache API standard, there
-	 * is only a very limited set of configuration options. The really relevant
-	 * configuration options (like the size limit) must be set via a configuration
-	 * mechanism that is provided by the selected JCache implementation.
+	 * Caffeine specifications by cache name.
+	 * @param specs the specification of each cache
 	 */
-	private javax.cache.configuration.Configuration<Object, Object> cacheConfiguration() {
-		return new MutableConfiguration<>().setStatisticsEnabled(true);
+	@ConfigurationProperties("petclinic.cache")
+	record CacheSpecs(Map<String, String> specs) {
+
+		CacheSpecs {
+			specs = (specs != null) ? Map.copyOf(specs) : Map.of();
+		}
+
 	}
 
 }
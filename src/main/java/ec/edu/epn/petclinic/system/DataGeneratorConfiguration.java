@@ -0,0 +1,14 @@
+package ec.edu.epn.petclinic.system;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Makes the {@link DataGeneratorProperties} available to the generators of the feature
+ * packages.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(DataGeneratorProperties.class)
+class DataGeneratorConfiguration {
+
+}
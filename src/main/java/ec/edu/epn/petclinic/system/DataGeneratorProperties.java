@@ -0,0 +1,24 @@
+package ec.edu.epn.petclinic.system;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the synthetic data generators, which add data on top of the sample data
+ * at startup when {@code petclinic.generator.enabled=true}, e.g.
+ * {@code ./mvnw spring-boot:run -Dspring-boot.run.arguments="--petclinic.generator.enabled=true --petclinic.generator.owners=100000"}.
+ * @param enabled whether to generate data at startup
+ * @param seed the seed of the generated data, the same seed produces the same data
+ * @param owners the number of owners to add
+ * @param petsPerOwner the mean number of pets per added owner
+ * @param visitsPerPet the mean number of visits per added pet
+ * @param vets the number of vets to add
+ * @param specialties the number of specialties to add
+ * @param specialtiesPerVet the mean number of specialties per added vet
+ */
+@ConfigurationProperties("petclinic.generator")
+public record DataGeneratorProperties(boolean enabled, @DefaultValue("42") long seed, int owners,
+		@DefaultValue("1.5") double petsPerOwner, @DefaultValue("2") double visitsPerPet, int vets, int specialties,
+		@DefaultValue("1") double specialtiesPerVet) {
+
+}
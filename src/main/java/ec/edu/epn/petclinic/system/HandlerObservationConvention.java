@@ -0,0 +1,44 @@
+package ec.edu.epn.petclinic.system;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Adds the handler method, e.g. {@code OwnerController.processFindForm}, and the
+ * requested {@code page} to the {@code http.server.requests} observations.
+ */
+class HandlerObservationConvention extends DefaultServerRequestObservationConvention {
+
+	@Override
+	public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+		HttpServletRequest request = context.getCarrier();
+		return super.getLowCardinalityKeyValues(context).and(handler(request), page(request));
+	}
+
+	private KeyValue handler(HttpServletRequest request) {
+		if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+			return KeyValue.of("handler", handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName());
+		}
+		return KeyValue.of("handler", MetricTags.NONE);
+	}
+
+	private KeyValue page(HttpServletRequest request) {
+		String page = request.getParameter("page");
+		if (page == null) {
+			return KeyValue.of("page", MetricTags.NONE);
+		}
+		try {
+			return KeyValue.of("page", MetricTags.page(Integer.parseInt(page)));
+		}
+		catch (NumberFormatException ex) {
+			return KeyValue.of("page", "invalid");
+		}
+	}
+
+}
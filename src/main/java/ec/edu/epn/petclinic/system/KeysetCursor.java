@@ -0,0 +1,80 @@
+
+package ec.edu.epn.petclinic.system;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.util.StringUtils;
+
+/**
+ * Converts keyset {@link ScrollPosition}s over {@code (lastName, id)} into opaque URL
+ * tokens and back. Used by the listings that offer keyset pagination so that a page can
+ * be requested from the position of the last row already shown, without an
+ * {@code OFFSET}.
+ */
+public final class KeysetCursor {
+
+	private static final char SEPARATOR = ':';
+
+	private KeysetCursor() {
+	}
+
+	/**
+	 * Encode the given position as an opaque token.
+	 * @param position a keyset position whose keys are {@code lastName} and {@code id}
+	 * @return a URL-safe token
+	 */
+	public static String encode(ScrollPosition position) {
+		if (!(position instanceof KeysetScrollPosition keyset) || keyset.isInitial()) {
+			return "";
+		}
+		Map<String, Object> keys = keyset.getKeys();
+		String raw = keys.get("id") + String.valueOf(SEPARATOR) + keys.get("lastName");
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decode a token created by {@link #encode(ScrollPosition)}. An empty token stands for
+	 * the first page.
+	 * @param token the token from the request
+	 * @return the keyset position to continue from
+	 * @throws IllegalArgumentException if the token is malformed
+	 */
+	public static ScrollPosition decode(String token) {
+		if (!StringUtils.hasText(token)) {
+			return ScrollPosition.keyset();
+		}
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			int separator = raw.indexOf(SEPARATOR);
+			Map<String, Object> keys = new LinkedHashMap<>();
+			keys.put("lastName", raw.substring(separator + 1));
+			keys.put("id", Integer.valueOf(raw.substring(0, separator)));
+			return ScrollPosition.forward(keys);
+		}
+		catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+			throw new IllegalArgumentException("Invalid pagination cursor: " + token, ex);
+		}
+	}
+
+	/**
+	 * Decode a token like {@link #decode(String)}, but fall back to the first page if the
+	 * token is malformed, e.g. cut off or edited in the URL.
+	 * @param token the token from the request
+	 * @return the keyset position to continue from, initial if the token is empty or
+	 * malformed
+	 */
+	public static ScrollPosition decodeOrFirst(String token) {
+		try {
+			return decode(token);
+		}
+		catch (IllegalArgumentException ex) {
+			return ScrollPosition.keyset();
+		}
+	}
+
+}
@@ -0,0 +1,91 @@
+package ec.edu.epn.petclinic.system;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+
+/**
+ * Tag values shared by the PetClinic metrics. Page numbers and result sizes are put into
+ * a few buckets, so that every timer only has a small, fixed number of time series.
+ */
+final class MetricTags {
+
+	static final String NONE = "none";
+
+	private MetricTags() {
+	}
+
+	/**
+	 * Return the bucket of the given 1-based page number.
+	 * @param page the page number
+	 * @return one of {@code 1}, {@code 2}, {@code 3-10} or {@code 11+}
+	 */
+	static String page(int page) {
+		if (page <= 2) {
+			return String.valueOf(Math.max(page, 1));
+		}
+		return (page <= 10) ? "3-10" : "11+";
+	}
+
+	/**
+	 * Return the page requested through the given repository method arguments.
+	 * @param args the arguments of a repository method
+	 * @return the {@link #page(int) page bucket}, {@code unpaged}, {@code scroll} for
+	 * keyset scrolling or {@value #NONE}
+	 */
+	static String page(Object[] args) {
+		for (Object arg : args) {
+			if (arg instanceof Pageable pageable) {
+				return pageable.isPaged() ? page(pageable.getPageNumber() + 1) : "unpaged";
+			}
+			if (arg instanceof ScrollPosition) {
+				return "scroll";
+			}
+		}
+		return NONE;
+	}
+
+	/**
+	 * Return the bucket of the number of elements in a repository method result.
+	 * @param result the result of a repository method
+	 * @return one of {@code 0}, {@code 1}, {@code 2-10}, {@code 11-100} or {@code 101+},
+	 * or {@code n/a} for counts, flags and streams
+	 */
+	static String resultSize(Object result) {
+		long size;
+		if (result == null) {
+			size = 0;
+		}
+		else if (result instanceof Optional<?> optional) {
+			size = optional.isPresent() ? 1 : 0;
+		}
+		else if (result instanceof Slice<?> slice) {
+			size = slice.getNumberOfElements();
+		}
+		else if (result instanceof Window<?> window) {
+			size = window.size();
+		}
+		else if (result instanceof Collection<?> collection) {
+			size = collection.size();
+		}
+		else if (result instanceof Number || result instanceof Boolean || result instanceof Stream) {
+			return "n/a";
+		}
+		else {
+			size = 1;
+		}
+		if (size <= 1) {
+			return String.valueOf(size);
+		}
+		if (size <= 10) {
+			return "2-10";
+		}
+		return (size <= 100) ? "11-100" : "101+";
+	}
+
+}
@@ -0,0 +1,41 @@
+package ec.edu.epn.petclinic.system;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Domain level metrics, exported with all other metrics at {@code /actuator/prometheus}:
+ * <ul>
+ * <li>{@code petclinic.repository}: every repository call, see
+ * {@link RepositoryObservationAspect}</li>
+ * <li>{@code http.server.requests}: every request, additionally tagged with the handler
+ * method and page, see {@link HandlerObservationConvention}</li>
+ * <li>{@code cache.gets}: hits and misses of every cache that records its stats</li>
+ * <li>{@code petclinic.owners.search.truncated} and
+ * {@code petclinic.owners.search.index.size}: owner searches that ran out of their time
+ * budget and the size of the search index, see {@code OwnerSearchIndex}</li>
+ * </ul>
+ * Latency histograms, for percentiles across instances, are enabled in
+ * {@code application.properties}.
+ */
+@Configuration(proxyBeanMethods = false)
+class MetricsConfiguration {
+
+	@Bean
+	static RepositoryObservationAspect repositoryObservationAspect(ObservationRegistry registry) {
+		return new RepositoryObservationAspect(registry);
+	}
+
+	@Bean
+	static RepositoryObservationAspect.CacheMissMarker repositoryCacheMissMarker() {
+		return new RepositoryObservationAspect.CacheMissMarker();
+	}
+
+	@Bean
+	HandlerObservationConvention handlerObservationConvention() {
+		return new HandlerObservationConvention();
+	}
+
+}
@@ -0,0 +1,49 @@
+package ec.edu.epn.petclinic.system;
+
+import java.util.function.Supplier;
+
+/**
+ * Reads of a read-only transaction that must see what was just committed, so they are
+ * served by the primary database even if read replicas are configured, see
+ * {@link ReplicaRoutingConfiguration}. The transaction keeps the benefits of being
+ * read-only, e.g. no dirty checking of the entities it reads.
+ * <p>
+ * A transaction only fetches its connection with its first statement, so the reads must
+ * start the transaction or be its first statements; a transaction that already reads
+ * from a replica keeps doing so.
+ * </p>
+ */
+public final class PrimaryReads {
+
+	private static final ThreadLocal<Boolean> required = new ThreadLocal<>();
+
+	private PrimaryReads() {
+	}
+
+	/**
+	 * Run the given reads on the primary database.
+	 * @param reads the reads to run
+	 * @return the result of the reads
+	 */
+	public static <T> T call(Supplier<T> reads) {
+		boolean outermost = required.get() == null;
+		required.set(Boolean.TRUE);
+		try {
+			return reads.get();
+		}
+		finally {
+			if (outermost) {
+				required.remove();
+			}
+		}
+	}
+
+	/**
+	 * Return whether the current thread runs reads that must go to the primary database.
+	 * @return {@code true} within {@link #call(Supplier)}
+	 */
+	static boolean isRequired() {
+		return required.get() != null;
+	}
+
+}
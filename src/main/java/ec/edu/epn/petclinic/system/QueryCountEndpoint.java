@@ -0,0 +1,37 @@
+package ec.edu.epn.petclinic.system;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import ec.edu.epn.petclinic.system.QueryCountInterceptor.QueryCountStats;
+
+/**
+ * Actuator endpoint, {@code /actuator/querycounts}, with the number of SQL statements per
+ * endpoint as counted by the {@link QueryCountInterceptor}. A {@code DELETE} resets the
+ * statistics.
+ */
+@Component
+@Endpoint(id = "querycounts")
+class QueryCountEndpoint {
+
+	private final QueryCountInterceptor interceptor;
+
+	QueryCountEndpoint(QueryCountInterceptor interceptor) {
+		this.interceptor = interceptor;
+	}
+
+	@ReadOperation
+	public Map<String, QueryCountStats> queryCounts() {
+		return this.interceptor.statistics();
+	}
+
+	@DeleteOperation
+	public void reset() {
+		this.interceptor.reset();
+	}
+
+}
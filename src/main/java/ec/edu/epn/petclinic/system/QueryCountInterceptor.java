@@ -0,0 +1,127 @@
+package ec.edu.epn.petclinic.system;
+
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the SQL statements of every request with the {@link QueryCounter} and keeps
+ * statistics per endpoint, served by the {@link QueryCountEndpoint}.
+ * <p>
+ * With {@code petclinic.query-count.header=true}, e.g. in the {@code dev} profile, the
+ * count is also sent as the {@value #HEADER} response header. Headers must be set before
+ * the response is committed: for views and redirects this happens before rendering, for
+ * response bodies in {@link QueryCountResponseBodyAdvice}.
+ * </p>
+ */
+@Component
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+
+	/**
+	 * Response header holding the number of statements of the request.
+	 */
+	public static final String HEADER = "X-Query-Count";
+
+	private final Map<String, QueryCountStats> statistics = new ConcurrentHashMap<>();
+
+	private final boolean header;
+
+	QueryCountInterceptor(@Value("${petclinic.query-count.header:false}") boolean header) {
+		this.header = header;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		QueryCounter.start();
+		return true;
+	}
+
+	@Override
+	public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+			ModelAndView modelAndView) {
+		if (!response.isCommitted()) {
+			writeHeader(response);
+		}
+	}
+
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+			Object handler) {
+		record(request, QueryCounter.stop());
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		record(request, QueryCounter.stop());
+	}
+
+	/**
+	 * Return the statistics of every endpoint seen so far.
+	 * @return the statistics by method and path pattern, e.g. {@code GET /owners/{ownerId}}
+	 */
+	Map<String, QueryCountStats> statistics() {
+		return new TreeMap<>(this.statistics);
+	}
+
+	/**
+	 * Forget all statistics.
+	 */
+	void reset() {
+		this.statistics.clear();
+	}
+
+	void writeHeader(HttpServletResponse response) {
+		OptionalInt count = QueryCounter.current();
+		if (this.header && count.isPresent()) {
+			response.setIntHeader(HEADER, count.getAsInt());
+		}
+	}
+
+	void writeHeader(HttpHeaders headers) {
+		OptionalInt count = QueryCounter.current();
+		if (this.header && count.isPresent()) {
+			headers.set(HEADER, String.valueOf(count.getAsInt()));
+		}
+	}
+
+	private void record(HttpServletRequest request, int count) {
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		if (pattern != null) {
+			this.statistics.merge(request.getMethod() + " " + pattern, QueryCountStats.of(count),
+					QueryCountStats::add);
+		}
+	}
+
+	/**
+	 * Statement counts of one endpoint.
+	 * @param requests the number of requests
+	 * @param statements the number of statements of all requests
+	 * @param max the highest number of statements of a single request
+	 * @param last the number of statements of the last request
+	 */
+	record QueryCountStats(long requests, long statements, int max, int last) {
+
+		static QueryCountStats of(int count) {
+			return new QueryCountStats(1, count, count, count);
+		}
+
+		QueryCountStats add(QueryCountStats other) {
+			return new QueryCountStats(this.requests + other.requests, this.statements + other.statements,
+					Math.max(this.max, other.max), other.last);
+		}
+
+	}
+
+}
@@ -0,0 +1,37 @@
+package ec.edu.epn.petclinic.system;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Sends the {@link QueryCountInterceptor#HEADER query count header} with response
+ * bodies, which are written before {@code postHandle} runs.
+ */
+@ControllerAdvice
+class QueryCountResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+
+	private final QueryCountInterceptor interceptor;
+
+	QueryCountResponseBodyAdvice(QueryCountInterceptor interceptor) {
+		this.interceptor = interceptor;
+	}
+
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return true;
+	}
+
+	@Override
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+			Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+			ServerHttpResponse response) {
+		this.interceptor.writeHeader(response.getHeaders());
+		return body;
+	}
+
+}
@@ -0,0 +1,56 @@
+package ec.edu.epn.petclinic.system;
+
+import java.util.OptionalInt;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, e.g. to spot N+1
+ * queries. Registered through
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}; counting
+ * only happens between {@link #start()} and {@link #stop()}, which
+ * {@link QueryCountInterceptor} calls around every request.
+ * <p>
+ * Statements issued through plain JDBC, e.g. by a {@code JdbcTemplate}, are not counted.
+ * </p>
+ */
+public class QueryCounter implements StatementInspector {
+
+	private static final ThreadLocal<int[]> count = new ThreadLocal<>();
+
+	/**
+	 * Start counting on the current thread, from zero.
+	 */
+	public static void start() {
+		count.set(new int[1]);
+	}
+
+	/**
+	 * Return the number of statements counted on the current thread so far.
+	 * @return the count, or an empty result if counting was not started
+	 */
+	public static OptionalInt current() {
+		int[] current = count.get();
+		return (current != null) ? OptionalInt.of(current[0]) : OptionalInt.empty();
+	}
+
+	/**
+	 * Stop counting on the current thread.
+	 * @return the number of statements counted since {@link #start()}
+	 */
+	public static int stop() {
+		int counted = current().orElse(0);
+		count.remove();
+		return counted;
+	}
+
+	@Override
+	public String inspect(String sql) {
+		int[] current = count.get();
+		if (current != null) {
+			current[0]++;
+		}
+		return sql;
+	}
+
+}
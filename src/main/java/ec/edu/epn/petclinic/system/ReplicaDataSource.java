@@ -0,0 +1,169 @@
+package ec.edu.epn.petclinic.system;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * The data source of read-only transactions when read replicas are configured, see
+ * {@link ReplicaRoutingConfiguration}. Connections are handed out by the usable replicas
+ * in turn, or by the primary if no replica is usable.
+ * <p>
+ * A replica is usable if it answered its last check and lagged behind the primary by no
+ * more than the maximum lag. A lag query answering {@code NULL}, for a replica that does
+ * not replicate at the moment, makes it unusable: it no longer receives the changes of
+ * the primary, however small its last lag was. The replicas are checked in the
+ * background, so choosing a replica never waits for a check, and are not used before
+ * their first check. A replica that fails to hand out a connection is skipped until its
+ * next successful check.
+ * </p>
+ */
+class ReplicaDataSource extends AbstractDataSource implements InitializingBean, DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(ReplicaDataSource.class);
+
+	private final DataSource primary;
+
+	private final List<Replica> replicas;
+
+	private final String lagQuery;
+
+	private final Duration maxLag;
+
+	private final Duration checkInterval;
+
+	private final AtomicInteger next = new AtomicInteger();
+
+	private ScheduledExecutorService checker;
+
+	ReplicaDataSource(DataSource primary, List<DataSource> replicas, String lagQuery, Duration maxLag,
+			Duration checkInterval) {
+		this.primary = primary;
+		this.replicas = IntStream.range(0, replicas.size()).mapToObj(i -> new Replica(i, replicas.get(i))).toList();
+		this.lagQuery = lagQuery;
+		this.maxLag = maxLag;
+		this.checkInterval = checkInterval;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		this.checker = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "replica-check");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.checker.scheduleWithFixedDelay(this::checkReplicas, 0, this.checkInterval.toMillis(),
+				TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		this.checker.shutdownNow();
+		for (Replica replica : this.replicas) {
+			if (replica.dataSource instanceof AutoCloseable closeable) {
+				closeable.close();
+			}
+		}
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return connect(DataSource::getConnection);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return connect(dataSource -> dataSource.getConnection(username, password));
+	}
+
+	private Connection connect(ConnectionFactory factory) throws SQLException {
+		if (PrimaryReads.isRequired()) {
+			return factory.connect(this.primary);
+		}
+		int start = this.next.getAndIncrement();
+		for (int i = 0; i < this.replicas.size(); i++) {
+			Replica replica = this.replicas.get(Math.floorMod(start + i, this.replicas.size()));
+			if (replica.usable) {
+				try {
+					return factory.connect(replica.dataSource);
+				}
+				catch (SQLException ex) {
+					replica.usable = false;
+					logger.warn("Replica " + replica.index + " skipped until its next check: " + ex.getMessage());
+				}
+			}
+		}
+		return factory.connect(this.primary);
+	}
+
+	/**
+	 * Check every replica now and mark it usable or not.
+	 */
+	void checkReplicas() {
+		for (Replica replica : this.replicas) {
+			boolean usable = check(replica);
+			if (usable != replica.usable) {
+				logger.info("Replica " + replica.index + (usable ? " serves" : " no longer serves") + " reads");
+			}
+			replica.usable = usable;
+		}
+	}
+
+	private boolean check(Replica replica) {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(replica.dataSource);
+		try {
+			if (this.lagQuery == null) {
+				return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> connection
+					.isValid((int) Math.max(1, this.checkInterval.toSeconds()))));
+			}
+			Double lag = jdbcTemplate.queryForObject(this.lagQuery, Double.class);
+			return lag != null && lag * 1000 <= this.maxLag.toMillis();
+		}
+		catch (DataAccessException ex) {
+			if (replica.usable) {
+				logger.warn("Replica " + replica.index + " failed its check: " + ex.getMessage());
+			}
+			return false;
+		}
+	}
+
+	private static final class Replica {
+
+		private final int index;
+
+		private final DataSource dataSource;
+
+		private volatile boolean usable;
+
+		private Replica(int index, DataSource dataSource) {
+			this.index = index;
+			this.dataSource = dataSource;
+		}
+
+	}
+
+	@FunctionalInterface
+	private interface ConnectionFactory {
+
+		Connection connect(DataSource dataSource) throws SQLException;
+
+	}
+
+}
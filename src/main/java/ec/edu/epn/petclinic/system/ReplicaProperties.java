@@ -0,0 +1,30 @@
+package ec.edu.epn.petclinic.system;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Read replicas of the database, which serve the read-only transactions when
+ * {@code petclinic.datasource.replicas.urls} is set, see
+ * {@link ReplicaRoutingConfiguration}.
+ * @param urls the JDBC URLs of the replicas
+ * @param username the user of the replicas, by default the one of the primary
+ * @param password the password of the replicas, by default the one of the primary
+ * @param lagQuery a query returning how many seconds a replica lags behind the primary,
+ * or {@code NULL} if it does not replicate at the moment, or none to only check that the
+ * replica answers
+ * @param maxLag the largest lag at which a replica still serves reads
+ * @param checkInterval the time between two checks of the replicas
+ */
+@ConfigurationProperties("petclinic.datasource.replicas")
+record ReplicaProperties(List<String> urls, String username, String password, String lagQuery,
+		@DefaultValue("5s") Duration maxLag, @DefaultValue("2s") Duration checkInterval) {
+
+	ReplicaProperties {
+		urls = (urls != null) ? List.copyOf(urls) : List.of();
+	}
+
+}
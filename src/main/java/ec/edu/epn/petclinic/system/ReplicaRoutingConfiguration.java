@@ -0,0 +1,79 @@
+package ec.edu.epn.petclinic.system;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Sends read-only transactions to read replicas, configured with
+ * {@code petclinic.datasource.replicas.*}, see {@link ReplicaProperties}. All other
+ * statements, and all statements when no replica is configured, go to the primary
+ * configured with {@code spring.datasource.*}.
+ * <p>
+ * Repository reads run in read-only transactions, e.g. the owner search and the vet
+ * lists. The data source of the application is a {@link LazyConnectionDataSourceProxy}
+ * that only fetches a connection for the first statement of a transaction, once the
+ * transaction has marked its connection read-only: read-only connections come from the
+ * {@link ReplicaDataSource}, which falls back to the primary if every replica lags
+ * behind by more than {@code petclinic.datasource.replicas.max-lag}. A page read right
+ * after a change may therefore show the previous state for up to that long. Reads that
+ * must not, but need no read-write transaction, use {@link PrimaryReads}.
+ * </p>
+ * <p>
+ * The replica pools are configured like the primary pool, with
+ * {@code spring.datasource.hikari.*}, but only hand out read-only connections.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("!'${petclinic.datasource.replicas.urls:}'.isEmpty()")
+@EnableConfigurationProperties(ReplicaProperties.class)
+class ReplicaRoutingConfiguration {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("primary");
+		return dataSource;
+	}
+
+	@Bean
+	ReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource, ReplicaProperties properties) {
+		List<DataSource> replicas = new ArrayList<>();
+		for (String url : properties.urls()) {
+			HikariDataSource replica = new HikariDataSource();
+			primaryDataSource.copyStateTo(replica);
+			replica.setPoolName("replica-" + replicas.size());
+			replica.setJdbcUrl(url);
+			if (properties.username() != null) {
+				replica.setUsername(properties.username());
+				replica.setPassword(properties.password());
+			}
+			replica.setReadOnly(true);
+			replicas.add(replica);
+		}
+		return new ReplicaDataSource(primaryDataSource, replicas, properties.lagQuery(), properties.maxLag(),
+				properties.checkInterval());
+	}
+
+	@Bean
+	@Primary
+	LazyConnectionDataSourceProxy dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+		dataSource.setReadOnlyDataSource(replicaDataSource);
+		return dataSource;
+	}
+
+}
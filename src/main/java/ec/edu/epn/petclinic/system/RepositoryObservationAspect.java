@@ -0,0 +1,113 @@
+package ec.edu.epn.petclinic.system;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Observes every call of a Spring Data repository as {@value #NAME}, tagged with the
+ * repository, the method, the requested {@code page}, the {@code result.size} and, for
+ * {@link Cacheable} methods, whether the {@code cache} answered the call.
+ * <p>
+ * This aspect runs before the cache interceptor, so cache hits are timed as well. A call
+ * counts as a cache miss when it reached the {@link CacheMissMarker}, which runs after
+ * the cache interceptor. Methods returning a {@link java.util.stream.Stream} are only
+ * timed until the stream is returned.
+ * </p>
+ */
+@Aspect
+class RepositoryObservationAspect implements Ordered {
+
+	static final String NAME = "petclinic.repository";
+
+	private static final ThreadLocal<Invocation> currentInvocation = new ThreadLocal<>();
+
+	private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+	private final ObservationRegistry registry;
+
+	RepositoryObservationAspect(ObservationRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Around("target(org.springframework.data.repository.Repository)")
+	public Object observe(ProceedingJoinPoint joinPoint) throws Throwable {
+		Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+		boolean cacheable = AnnotatedElementUtils.hasAnnotation(method, Cacheable.class);
+		Observation observation = Observation.createNotStarted(NAME, this.registry)
+			.lowCardinalityKeyValue("repository", repositoryName(joinPoint.getTarget()))
+			.lowCardinalityKeyValue("method", method.getName())
+			.lowCardinalityKeyValue("page", MetricTags.page(joinPoint.getArgs()))
+			.start();
+		Invocation outer = currentInvocation.get();
+		Invocation invocation = new Invocation();
+		currentInvocation.set(invocation);
+		try (Observation.Scope scope = observation.openScope()) {
+			Object result = joinPoint.proceed();
+			observation.lowCardinalityKeyValue("result.size", MetricTags.resultSize(result));
+			return result;
+		}
+		catch (Throwable ex) {
+			observation.lowCardinalityKeyValue("result.size", MetricTags.NONE);
+			observation.error(ex);
+			throw ex;
+		}
+		finally {
+			currentInvocation.set(outer);
+			observation.lowCardinalityKeyValue("cache",
+					cacheable ? (invocation.reachedRepository ? "miss" : "hit") : MetricTags.NONE);
+			observation.stop();
+		}
+	}
+
+	private String repositoryName(Object repository) {
+		return this.repositoryNames.computeIfAbsent(repository.getClass(),
+				type -> AopProxyUtils.proxiedUserInterfaces(repository)[0].getSimpleName());
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+
+	private static final class Invocation {
+
+		private boolean reachedRepository;
+
+	}
+
+	/**
+	 * Marks the current call as having passed the cache interceptor.
+	 */
+	@Aspect
+	static class CacheMissMarker implements Ordered {
+
+		@Around("target(org.springframework.data.repository.Repository)")
+		public Object mark(ProceedingJoinPoint joinPoint) throws Throwable {
+			Invocation invocation = currentInvocation.get();
+			if (invocation != null) {
+				invocation.reachedRepository = true;
+			}
+			return joinPoint.proceed();
+		}
+
+		@Override
+		public int getOrder() {
+			return Ordered.LOWEST_PRECEDENCE;
+		}
+
+	}
+
+}
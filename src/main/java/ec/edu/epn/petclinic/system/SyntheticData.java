@@ -0,0 +1,142 @@
+package ec.edu.epn.petclinic.system;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.springframework.util.Assert;
+
+/**
+ * Seeded source of synthetic data, used to fill a database with realistic volumes for
+ * performance work. The same seed always produces the same sequence of values.
+ * <p>
+ * Real clinics are skewed: a few last names are shared by many owners, most owners have
+ * one or two pets while some have many, and a few pets account for most visits.
+ * {@link #zipf(List, double)} and {@link #geometric(double)} model those shapes.
+ * </p>
+ */
+public class SyntheticData {
+
+	/**
+	 * First names, in no particular order.
+	 */
+	public static final List<String> FIRST_NAMES = List.of("Ana", "Betty", "Carlos", "David", "Eduardo", "Elena",
+			"Fernando", "George", "Gabriela", "Harold", "Helen", "Isabel", "James", "Jean", "Jeff", "Jorge", "Linda",
+			"Lucia", "Maria", "Mateo", "Paula", "Peter", "Rafael", "Sharon", "Sofia", "Valentina");
+
+	/**
+	 * Last names, the most common first.
+	 */
+	public static final List<String> LAST_NAMES = List.of("Davis", "Garcia", "Smith", "Rodriquez", "Johnson",
+			"Gomez", "Martinez", "Brown", "Lopez", "Williams", "Perez", "Jones", "Sanchez", "Miller", "Torres",
+			"Davidson", "Ramirez", "Wilson", "Flores", "Moore", "Vega", "Taylor", "Castro", "Anderson", "Morales",
+			"Thomas", "Ortiz", "Jackson", "Romero", "White", "Herrera", "Harris", "Medina", "Martin", "Aguilar",
+			"Thompson", "Vargas", "Daniels", "Mendoza", "Clark", "Guerrero", "Lewis", "Salazar", "Black", "Coleman",
+			"Escobito", "Estaban", "Franklin", "McTavish", "Schroeder", "Zambrano");
+
+	private final Random random;
+
+	/**
+	 * Create a new source of synthetic data.
+	 * @param seed the seed of the underlying random number generator
+	 */
+	public SyntheticData(long seed) {
+		this.random = new Random(seed);
+	}
+
+	/**
+	 * Return a uniformly distributed value between 0 (inclusive) and the given bound
+	 * (exclusive).
+	 * @param bound the upper bound, must be positive
+	 * @return the next value
+	 */
+	public int nextInt(int bound) {
+		return this.random.nextInt(bound);
+	}
+
+	/**
+	 * Return one of the given values, each with the same probability.
+	 * @param values the values to pick from, must not be empty
+	 * @return the picked value
+	 */
+	public <T> T pick(List<T> values) {
+		return values.get(this.random.nextInt(values.size()));
+	}
+
+	/**
+	 * Return the given number of random digits.
+	 * @param count the number of digits
+	 * @return a string of {@code count} digits
+	 */
+	public String digits(int count) {
+		StringBuilder digits = new StringBuilder(count);
+		for (int i = 0; i < count; i++) {
+			digits.append((char) ('0' + this.random.nextInt(10)));
+		}
+		return digits.toString();
+	}
+
+	/**
+	 * Return a uniformly distributed date between the given dates, both inclusive.
+	 * @param from the earliest date
+	 * @param to the latest date, not before {@code from}
+	 * @return the next date
+	 */
+	public LocalDate date(LocalDate from, LocalDate to) {
+		long days = to.toEpochDay() - from.toEpochDay();
+		Assert.isTrue(days >= 0, "'to' must not be before 'from'");
+		return from.plusDays((long) (this.random.nextDouble() * (days + 1)));
+	}
+
+	/**
+	 * Return a geometrically distributed count with the given mean: each count is less
+	 * likely than the one before by a constant factor, so small counts are common and
+	 * large ones rare.
+	 * @param mean the mean of the distribution, not negative
+	 * @return the next count
+	 */
+	public int geometric(double mean) {
+		Assert.isTrue(mean >= 0, "'mean' must not be negative");
+		if (mean == 0) {
+			return 0;
+		}
+		double p = 1 / (mean + 1);
+		return (int) Math.floor(Math.log(1 - this.random.nextDouble()) / Math.log(1 - p));
+	}
+
+	/**
+	 * Return a supplier that picks from the given values following Zipf's law: the
+	 * {@code k}-th value is picked with a probability proportional to
+	 * {@code 1 / k^exponent}, so the first values dominate.
+	 * @param values the values, the most frequent first
+	 * @param exponent the skew, {@code 0} for a uniform distribution
+	 * @return a supplier of values, sharing this instance's random number generator
+	 */
+	public <T> Supplier<T> zipf(List<T> values, double exponent) {
+		Assert.notEmpty(values, "'values' must not be empty");
+		double[] cumulative = new double[values.size()];
+		double sum = 0;
+		for (int k = 0; k < cumulative.length; k++) {
+			sum += 1 / Math.pow(k + 1, exponent);
+			cumulative[k] = sum;
+		}
+		double total = sum;
+		return () -> {
+			double target = this.random.nextDouble() * total;
+			int low = 0;
+			int high = cumulative.length - 1;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (cumulative[middle] <= target) {
+					low = middle + 1;
+				}
+				else {
+					high = middle;
+				}
+			}
+			return values.get(low);
+		};
+	}
+
+}
@@ -23,6 +23,12 @@ import java.util.Locale;
 @SuppressWarnings("unused")
 public class WebConfiguration implements WebMvcConfigurer {
 
+	private final QueryCountInterceptor queryCountInterceptor;
+
+	public WebConfiguration(QueryCountInterceptor queryCountInterceptor) {
+		this.queryCountInterceptor = queryCountInterceptor;
+	}
+
 	/**
 	 * Uses session storage to remember the user’s language setting across requests.
 	 * Defaults to English if nothing is specified.
@@ -48,12 +54,14 @@ public class WebConfiguration implements WebMvcConfigurer {
 	}
 
 	/**
-	 * Registers the locale change interceptor so it can run on each request.
+	 * Registers the locale change interceptor so it can run on each request, and the
+	 * {@link QueryCountInterceptor} that counts the SQL statements of each request.
 	 * @param registry where interceptors are added
 	 */
 	@Override
 	public void addInterceptors(InterceptorRegistry registry) {
 		registry.addInterceptor(localeChangeInterceptor());
+		registry.addInterceptor(this.queryCountInterceptor);
 	}
 
 }
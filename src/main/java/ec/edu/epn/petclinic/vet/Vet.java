@@ -5,7 +5,8 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+
+import org.hibernate.annotations.BatchSize;
 
 import ec.edu.epn.petclinic.model.NamedEntity;
 import ec.edu.epn.petclinic.model.Person;
@@ -15,7 +16,9 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.PostLoad;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.xml.bind.annotation.XmlElement;
 
 /**
@@ -26,10 +29,19 @@ import jakarta.xml.bind.annotation.XmlElement;
 public class Vet extends Person {
 
 	@ManyToMany(fetch = FetchType.EAGER)
+	@BatchSize(size = 50)
 	@JoinTable(name = "vet_specialties", joinColumns = @JoinColumn(name = "vet_id"),
 			inverseJoinColumns = @JoinColumn(name = "specialty_id"))
 	private Set<Specialty> specialties;
 
+	/**
+	 * The specialties sorted by name, built on first use and dropped whenever the
+	 * specialties change. Vets are cached and rendered repeatedly, so this saves sorting
+	 * them again on every call.
+	 */
+	@Transient
+	private List<Specialty> sortedSpecialties;
+
 	protected Set<Specialty> getSpecialtiesInternal() {
 		if (this.specialties == null) {
 			this.specialties = new HashSet<>();
@@ -37,11 +49,18 @@ public class Vet extends Person {
 		return this.specialties;
 	}
 
+	/**
+	 * Return the specialties of this vet, sorted by name.
+	 * @return an unmodifiable list, the same instance until a specialty is added
+	 */
 	@XmlElement
 	public List<Specialty> getSpecialties() {
-		return getSpecialtiesInternal().stream()
-			.sorted(Comparator.comparing(NamedEntity::getName))
-			.collect(Collectors.toList());
+		List<Specialty> sorted = this.sortedSpecialties;
+		if (sorted == null) {
+			sorted = getSpecialtiesInternal().stream().sorted(Comparator.comparing(NamedEntity::getName)).toList();
+			this.sortedSpecialties = sorted;
+		}
+		return sorted;
 	}
 
 	public int getNrOfSpecialties() {
@@ -50,6 +69,12 @@ public class Vet extends Person {
 
 	public void addSpecialty(Specialty specialty) {
 		getSpecialtiesInternal().add(specialty);
+		this.sortedSpecialties = null;
+	}
+
+	@PostLoad
+	void clearSortedSpecialties() {
+		this.sortedSpecialties = null;
 	}
 
 }
@@ -2,15 +2,27 @@
 package ec.edu.epn.petclinic.vet;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import ec.edu.epn.petclinic.system.KeysetCursor;
 
 
 @Controller
@@ -18,12 +30,35 @@ class VetController {
 
 	private final VetRepository vetRepository;
 
-	public VetController(VetRepository vetRepository) {
+	private final VetExporter vetExporter;
+
+	private final VetRevision revision;
+
+	public VetController(VetRepository vetRepository, VetExporter vetExporter, VetRevision revision) {
 		this.vetRepository = vetRepository;
+		this.vetExporter = vetExporter;
+		this.revision = revision;
 	}
 
+	private static final int PAGE_SIZE = 5;
+
+	/**
+	 * Show a page of vets. A browser that already shows the current page, see
+	 * {@link VetRevision}, is answered with {@code 304 Not Modified} instead.
+	 */
 	@GetMapping("/vets.html")
-	public String showVetList(@RequestParam(defaultValue = "1") int page, Model model) {
+	public String showVetList(@RequestParam(defaultValue = "1") int page,
+			@RequestParam(required = false) String cursor, Model model, WebRequest request, Locale locale) {
+		if (request.checkNotModified(this.revision.eTag(locale.toLanguageTag()), this.revision.lastModified())) {
+			return null;
+		}
+		if (cursor != null) {
+			// keyset mode: continue after the last vet of the previous window, or start
+			// over at the first one if the cursor is malformed
+			Window<Vet> window = this.vetRepository
+				.findAllByOrderByLastNameAscIdAsc(KeysetCursor.decodeOrFirst(cursor), Limit.of(PAGE_SIZE));
+			return addKeysetModel(window, model);
+		}
 		// Here we are returning an object of type 'Vets' rather than a collection of Vet
 		// objects so it is simpler for Object-Xml mapping
 		Vets vets = new Vets();
@@ -41,14 +76,31 @@ class VetController {
 		return "vets/vetList";
 	}
 
+	private String addKeysetModel(Window<Vet> window, Model model) {
+		model.addAttribute("keyset", true);
+		model.addAttribute("nextCursor",
+				window.hasNext() ? KeysetCursor.encode(window.positionAt(window.size() - 1)) : null);
+		model.addAttribute("listVets", window.getContent());
+		return "vets/vetList";
+	}
+
 	private Page<Vet> findPaginated(int page) {
-		int pageSize = 5;
-		Pageable pageable = PageRequest.of(page - 1, pageSize);
+		Pageable pageable = PageRequest.of(page - 1, PAGE_SIZE);
 		return vetRepository.findAll(pageable);
 	}
 
+	/**
+	 * Return all vets as JSON or XML. A client that already has the current vets, see
+	 * {@link VetRevision}, is answered with {@code 304 Not Modified} instead.
+	 */
 	@GetMapping({ "/vets" })
-	public @ResponseBody Vets showResourcesVetList() {
+	public @ResponseBody Vets showResourcesVetList(ServletWebRequest request) {
+		// JSON and XML are served from the same URL, each is a representation of its own
+		String accept = Objects.toString(request.getHeader(HttpHeaders.ACCEPT), "");
+		request.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+		if (request.checkNotModified(this.revision.eTag(accept), this.revision.lastModified())) {
+			return null;
+		}
 		// Here we are returning an object of type 'Vets' rather than a collection of Vet
 		// objects so it is simpler for JSon/Object mapping
 		Vets vets = new Vets();
@@ -56,4 +108,22 @@ class VetController {
 		return vets;
 	}
 
+	/**
+	 * Stream all vets as newline delimited JSON while they are read from the database.
+	 * @return the streamed response
+	 */
+	@GetMapping(value = "/vets/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamVetsAsNdjson() {
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(this.vetExporter::writeNdjson);
+	}
+
+	/**
+	 * Stream all vets as an XML document while they are read from the database.
+	 * @return the streamed response
+	 */
+	@GetMapping(value = "/vets/stream", produces = MediaType.APPLICATION_XML_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamVetsAsXml() {
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_XML).body(this.vetExporter::writeXml);
+	}
+
 }
@@ -0,0 +1,158 @@
+package ec.edu.epn.petclinic.vet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Writes all {@link Vet}s to an {@link OutputStream} while they are read from the
+ * database, either as newline delimited JSON or as XML.
+ * <p>
+ * Vets are read with their specialties in one query and written one by one; every
+ * {@value #FLUSH_INTERVAL} vets the output is flushed to the client. The query runs in a
+ * {@link StatelessSession} on the connection of the surrounding read-only transaction,
+ * so no vet is kept in a persistence context and memory use does not grow with the
+ * number of vets.
+ * </p>
+ * <p>
+ * The rows are fetched from a cursor {@value #FETCH_SIZE} at a time. PostgreSQL does so
+ * because the transaction is not in auto-commit mode; MySQL Connector/J only with
+ * {@code useCursorFetch=true}, which the {@code mysql} profile sets. Other drivers may
+ * read the whole result at once.
+ * </p>
+ */
+@Component
+class VetExporter {
+
+	static final int FLUSH_INTERVAL = 100;
+
+	static final int FETCH_SIZE = 100;
+
+	/**
+	 * Ordered by vet first, so that the rows of the specialties of a vet follow each
+	 * other and the vet is complete once the next one starts.
+	 */
+	private static final String EXPORT_QUERY = "SELECT vet FROM Vet vet LEFT JOIN FETCH vet.specialties"
+			+ " ORDER BY vet.lastName, vet.id";
+
+	private final EntityManager entityManager;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final JsonMapper jsonMapper;
+
+	private final JAXBContext jaxbContext;
+
+	VetExporter(EntityManager entityManager, PlatformTransactionManager transactionManager, JsonMapper jsonMapper)
+			throws JAXBException {
+		this.entityManager = entityManager;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+		this.jsonMapper = jsonMapper;
+		this.jaxbContext = JAXBContext.newInstance(Vet.class);
+	}
+
+	/**
+	 * Write every vet as one JSON document per line, in the same shape as the entries of
+	 * {@code /vets}.
+	 * @param out the stream to write to
+	 * @throws IOException if writing fails
+	 */
+	void writeNdjson(OutputStream out) throws IOException {
+		export(out, vet -> {
+			out.write(this.jsonMapper.writeValueAsBytes(vet));
+			out.write('\n');
+		});
+	}
+
+	/**
+	 * Write every vet as a {@code vetList} element of a {@code vets} document, in the
+	 * same shape as the XML representation of {@code /vets}.
+	 * @param out the stream to write to
+	 * @throws IOException if writing fails
+	 */
+	void writeXml(OutputStream out) throws IOException {
+		try {
+			XMLStreamWriter xml = XMLOutputFactory.newFactory()
+				.createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+			Marshaller marshaller = this.jaxbContext.createMarshaller();
+			marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+			xml.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+			xml.writeStartElement("vets");
+			export(out, vet -> {
+				try {
+					marshaller.marshal(new JAXBElement<>(new QName("vetList"), Vet.class, vet), xml);
+					xml.flush();
+				}
+				catch (JAXBException | XMLStreamException ex) {
+					throw new IOException("Could not write vet " + vet.getId() + " as XML", ex);
+				}
+			});
+			xml.writeEndElement();
+			xml.writeEndDocument();
+			xml.flush();
+		}
+		catch (JAXBException | XMLStreamException ex) {
+			throw new IOException("Could not write vets as XML", ex);
+		}
+	}
+
+	private void export(OutputStream out, VetWriter writer) throws IOException {
+		try {
+			this.transactionTemplate.executeWithoutResult(status -> {
+				Session session = this.entityManager.unwrap(Session.class);
+				session.doWork(connection -> {
+					try (StatelessSession stateless = session.getSessionFactory().openStatelessSession(connection);
+							Stream<Vet> stream = stateless.createSelectionQuery(EXPORT_QUERY, Vet.class)
+								.setFetchSize(FETCH_SIZE)
+								.getResultStream()) {
+						int[] count = { 0 };
+						stream.forEach(vet -> {
+							try {
+								writer.write(vet);
+								if (++count[0] % FLUSH_INTERVAL == 0) {
+									out.flush();
+								}
+							}
+							catch (IOException ex) {
+								throw new UncheckedIOException(ex);
+							}
+						});
+					}
+				});
+			});
+		}
+		catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+		out.flush();
+	}
+
+	@FunctionalInterface
+	private interface VetWriter {
+
+		void write(Vet vet) throws IOException;
+
+	}
+
+}
@@ -0,0 +1,125 @@
+package ec.edu.epn.petclinic.vet;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ec.edu.epn.petclinic.system.BatchInserts;
+import ec.edu.epn.petclinic.system.DataGeneratorProperties;
+import ec.edu.epn.petclinic.system.SyntheticData;
+
+/**
+ * Adds synthetic specialties and vets at startup. See {@link DataGeneratorProperties}
+ * for the settings.
+ * <p>
+ * The number of specialties per vet is geometrically distributed and specialties are
+ * picked following Zipf's law, so the oldest specialties are the most common. Rows are
+ * written with JDBC batch statements, in chunks of {@value #CHUNK_SIZE} vets.
+ * </p>
+ */
+@Component
+@ConditionalOnBooleanProperty("petclinic.generator.enabled")
+@Order(1)
+class VetGenerator implements ApplicationRunner {
+
+	static final int CHUNK_SIZE = 1000;
+
+	private static final List<String> SPECIALTY_NAMES = List.of("cardiology", "dermatology", "oncology",
+			"neurology", "ophthalmology", "anesthesiology", "nutrition", "behavior", "emergency", "internal medicine",
+			"exotic animals", "orthopedics");
+
+	private static final Log logger = LogFactory.getLog(VetGenerator.class);
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final DataGeneratorProperties properties;
+
+	private final VetRevision revision;
+
+	VetGenerator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			DataGeneratorProperties properties, VetRevision revision) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.properties = properties;
+		this.revision = revision;
+	}
+
+	@Override
+	@CacheEvict(cacheNames = { "vets", "vetPages" }, allEntries = true)
+	public void run(ApplicationArguments args) {
+		if (this.properties.vets() > 0 || this.properties.specialties() > 0) {
+			long start = System.nanoTime();
+			generate(new SyntheticData(this.properties.seed() + 1), this.properties.specialties(),
+					this.properties.vets());
+			this.revision.increment();
+			logger.info("Generated " + this.properties.specialties() + " specialties and " + this.properties.vets()
+					+ " vets in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+		}
+	}
+
+	void generate(SyntheticData data, int specialtyCount, int vetCount) {
+		List<String> specialtyNames = new ArrayList<>(specialtyCount);
+		for (int i = 0; i < specialtyCount; i++) {
+			specialtyNames.add((i < SPECIALTY_NAMES.size()) ? SPECIALTY_NAMES.get(i) : "specialty " + (i + 1));
+		}
+		this.transactionTemplate.executeWithoutResult(status -> BatchInserts.insert(this.jdbcTemplate,
+				"INSERT INTO specialties (name) VALUES (?)", specialtyNames, (ps, name, i) -> ps.setString(1, name)));
+		List<Integer> specialtyIds = this.jdbcTemplate.queryForList("SELECT id FROM specialties ORDER BY id",
+				Integer.class);
+		Supplier<Integer> specialties = specialtyIds.isEmpty() ? null : data.zipf(specialtyIds, 1);
+		for (int generated = 0; generated < vetCount; generated += CHUNK_SIZE) {
+			List<String[]> names = new ArrayList<>();
+			List<Set<Integer>> vetSpecialties = new ArrayList<>();
+			for (int i = generated; i < Math.min(generated + CHUNK_SIZE, vetCount); i++) {
+				names.add(new String[] { data.pick(SyntheticData.FIRST_NAMES), data.pick(SyntheticData.LAST_NAMES) });
+				int count = (specialties != null)
+						? Math.min(data.geometric(this.properties.specialtiesPerVet()), specialtyIds.size()) : 0;
+				Set<Integer> picked = new LinkedHashSet<>();
+				while (picked.size() < count) {
+					picked.add(specialties.get());
+				}
+				vetSpecialties.add(picked);
+			}
+			this.transactionTemplate.executeWithoutResult(status -> insertVets(names, vetSpecialties));
+		}
+	}
+
+	private void insertVets(List<String[]> names, List<Set<Integer>> vetSpecialties) {
+		List<Integer> vetIds = BatchInserts.insert(this.jdbcTemplate,
+				"INSERT INTO vets (first_name, last_name) VALUES (?, ?)", names, (ps, name, i) -> {
+					ps.setString(1, name[0]);
+					ps.setString(2, name[1]);
+				});
+		List<int[]> links = new ArrayList<>();
+		for (int i = 0; i < vetIds.size(); i++) {
+			for (Integer specialtyId : vetSpecialties.get(i)) {
+				links.add(new int[] { vetIds.get(i), specialtyId });
+			}
+		}
+		if (links.isEmpty()) {
+			return;
+		}
+		this.jdbcTemplate.batchUpdate("INSERT INTO vet_specialties (vet_id, specialty_id) VALUES (?, ?)", links,
+				links.size(), (ps, link) -> {
+					ps.setInt(1, link[0]);
+					ps.setInt(2, link[1]);
+				});
+	}
+
+}
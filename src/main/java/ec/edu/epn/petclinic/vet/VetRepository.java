@@ -3,12 +3,23 @@ package ec.edu.epn.petclinic.vet;
 
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Repository class for <code>Vet</code> domain objects All method names are compliant
@@ -19,21 +30,72 @@ import java.util.Collection;
 public interface VetRepository extends Repository<Vet, Integer> {
 
 	/**
-	 * Retrieve all <code>Vet</code>s from the data store.
+	 * Retrieve all <code>Vet</code>s, with their specialties, from the data store in a
+	 * single statement.
 	 * @return a <code>Collection</code> of <code>Vet</code>s
 	 */
 	@Transactional(readOnly = true)
-	@Cacheable("vets")
+	@Cacheable(cacheNames = "vets", sync = true)
+	@EntityGraph(attributePaths = "specialties")
 	Collection<Vet> findAll() throws DataAccessException;
 
 	/**
 	 * Retrieve all <code>Vet</code>s from data store in Pages
+	 * <p>
+	 * Fetching the specialties together with a page of vets would make the database
+	 * paginate over the joined rows, so the page is read in two steps instead: first the
+	 * ids of the vets on the page, then those vets with their specialties, which are put
+	 * back in the order of the ids. A page costs the same number of statements whatever
+	 * its size.
+	 * <p>
+	 * The vets are ordered by the sort of the given page and then by id, so that pages
+	 * do not overlap or miss vets, also when the page is unsorted.
 	 * @param pageable
 	 * @return
 	 * @throws DataAccessException
 	 */
 	@Transactional(readOnly = true)
-	@Cacheable("vets")
-	Page<Vet> findAll(Pageable pageable) throws DataAccessException;
+	@Cacheable(cacheNames = "vetPages", sync = true)
+	default Page<Vet> findAll(Pageable pageable) throws DataAccessException {
+		Sort sort = pageable.getSort();
+		if (pageable.isPaged() && sort.getOrderFor("id") == null) {
+			pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort.and(Sort.by("id")));
+		}
+		Page<Integer> ids = findIds(pageable);
+		Map<Integer, Vet> vets = ids.isEmpty() ? Map.of()
+				: findByIdIn(ids.getContent()).stream().collect(Collectors.toMap(Vet::getId, Function.identity()));
+		return ids.map(vets::get);
+	}
+
+	/**
+	 * Retrieve a page of <code>Vet</code> ids, in the order of the sort of the page.
+	 * Callers must sort by a unique key, at least last, for the pages to be stable.
+	 * @param pageable the page to retrieve
+	 * @return a <code>Page</code> of ids
+	 * @throws DataAccessException
+	 */
+	@Query("SELECT vet.id FROM Vet vet")
+	Page<Integer> findIds(Pageable pageable) throws DataAccessException;
+
+	/**
+	 * Retrieve the <code>Vet</code>s with the given ids, with their specialties, in a
+	 * single statement.
+	 * @param ids the ids of the vets
+	 * @return the <code>Vet</code>s, in no particular order
+	 * @throws DataAccessException
+	 */
+	@EntityGraph(attributePaths = "specialties")
+	List<Vet> findByIdIn(Collection<Integer> ids) throws DataAccessException;
+
+	/**
+	 * Retrieve a window of <code>Vet</code>s ordered by last name and id, starting right
+	 * after the given keyset position. No count query is issued.
+	 * @param position the keyset position to continue from
+	 * @param limit the maximum number of vets in the window
+	 * @return a <code>Window</code> of <code>Vet</code>s
+	 * @throws DataAccessException
+	 */
+	@Transactional(readOnly = true)
+	Window<Vet> findAllByOrderByLastNameAscIdAsc(ScrollPosition position, Limit limit) throws DataAccessException;
 
 }
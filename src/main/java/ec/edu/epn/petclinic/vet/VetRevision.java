@@ -0,0 +1,68 @@
+package ec.edu.epn.petclinic.vet;
+
+import java.time.Clock;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Revision of all vets and their specialties, so the vet pages can be answered with
+ * {@code 304 Not Modified} from their entity tag or last modification date, without
+ * reading the vets or rendering the page.
+ * <p>
+ * Vets only change when the {@link VetGenerator} adds synthetic ones, which must
+ * {@link #increment() increment} the revision. The revision is the time of the last
+ * change, in whole seconds as used by the {@code Last-Modified} header, and starts at
+ * the time the application started: vets are not versioned in the database, so a
+ * restart never reuses the tag of an earlier run.
+ * </p>
+ */
+@Component
+class VetRevision {
+
+	private final Clock clock;
+
+	private final AtomicLong lastModified;
+
+	@Autowired
+	VetRevision() {
+		this(Clock.systemUTC());
+	}
+
+	VetRevision(Clock clock) {
+		this.clock = clock;
+		this.lastModified = new AtomicLong(now());
+	}
+
+	/**
+	 * Return the time the vets last changed.
+	 * @return the time in milliseconds since the epoch, in whole seconds
+	 */
+	long lastModified() {
+		return this.lastModified.get();
+	}
+
+	/**
+	 * Return the entity tag of one representation of the vets.
+	 * @param variant what else the representation depends on, e.g. the locale of a page
+	 * @return the entity tag
+	 */
+	String eTag(String variant) {
+		return "\"vets-" + lastModified() + "-" + Integer.toHexString(variant.hashCode()) + "\"";
+	}
+
+	/**
+	 * Record that the vets have changed.
+	 */
+	void increment() {
+		// at least one second later, so the Last-Modified header changes as well
+		this.lastModified.accumulateAndGet(now(), (current, now) -> Math.max(current + 1000, now));
+	}
+
+	private long now() {
+		return this.clock.instant().truncatedTo(ChronoUnit.SECONDS).toEpochMilli();
+	}
+
+}
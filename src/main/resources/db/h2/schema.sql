@@ -24,6 +24,7 @@ CREATE TABLE vet_specialties (
   vet_id       INTEGER NOT NULL,
   specialty_id INTEGER NOT NULL
 );
+CREATE UNIQUE INDEX vet_specialties_vet_id_specialty_id ON vet_specialties (vet_id, specialty_id);
 ALTER TABLE vet_specialties ADD CONSTRAINT fk_vet_specialties_vets FOREIGN KEY (vet_id) REFERENCES vets (id);
 ALTER TABLE vet_specialties ADD CONSTRAINT fk_vet_specialties_specialties FOREIGN KEY (specialty_id) REFERENCES specialties (id);
 
@@ -39,17 +40,20 @@ CREATE TABLE owners (
   last_name  VARCHAR_IGNORECASE(30),
   address    VARCHAR(255),
   city       VARCHAR(80),
-  telephone  VARCHAR(20)
+  telephone  VARCHAR(20),
+  version    INTEGER DEFAULT 0 NOT NULL
 );
-CREATE INDEX owners_last_name ON owners (last_name);
+CREATE INDEX owners_last_name_id ON owners (last_name, id);
 
 CREATE TABLE pets (
   id         INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   name       VARCHAR(30),
   birth_date DATE,
   type_id    INTEGER NOT NULL,
-  owner_id   INTEGER
+  owner_id   INTEGER,
+  version    INTEGER DEFAULT 0 NOT NULL
 );
+CREATE INDEX pets_owner_id ON pets (owner_id);
 ALTER TABLE pets ADD CONSTRAINT fk_pets_owners FOREIGN KEY (owner_id) REFERENCES owners (id);
 ALTER TABLE pets ADD CONSTRAINT fk_pets_types FOREIGN KEY (type_id) REFERENCES types (id);
 CREATE INDEX pets_name ON pets (name);
@@ -60,5 +64,9 @@ CREATE TABLE visits (
   visit_date  DATE,
   description VARCHAR(255)
 );
-ALTER TABLE visits ADD CONSTRAINT fk_visits_pets FOREIGN KEY (pet_id) REFERENCES pets (id);
+-- named, so that the foreign key uses it instead of an index of its own; H2 reads the
+-- visits of several pets for the window function through it
 CREATE INDEX visits_pet_id ON visits (pet_id);
+-- descending, as H2 reads an index in one direction only: serves the latest visits first
+CREATE INDEX visits_pet_id_visit_date ON visits (pet_id DESC, visit_date DESC, id DESC);
+ALTER TABLE visits ADD CONSTRAINT fk_visits_pets FOREIGN KEY (pet_id) REFERENCES pets (id);
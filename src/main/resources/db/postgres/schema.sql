@@ -1,15 +1,18 @@
+-- Indexes are named after PostgreSQL's default names, so that running this script again,
+-- as spring.sql.init.mode=always does, neither fails nor creates duplicates. Columns added
+-- later are added to existing tables as well.
 CREATE TABLE IF NOT EXISTS vets (
   id         INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   first_name TEXT,
   last_name  TEXT
 );
-CREATE INDEX ON vets (last_name);
+CREATE INDEX IF NOT EXISTS vets_last_name_idx ON vets (last_name);
 
 CREATE TABLE IF NOT EXISTS specialties (
   id   INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   name TEXT
 );
-CREATE INDEX ON specialties (name);
+CREATE INDEX IF NOT EXISTS specialties_name_idx ON specialties (name);
 
 CREATE TABLE IF NOT EXISTS vet_specialties (
   vet_id       INT NOT NULL REFERENCES vets (id),
@@ -21,7 +24,7 @@ CREATE TABLE IF NOT EXISTS types (
   id   INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   name TEXT
 );
-CREATE INDEX ON types (name);
+CREATE INDEX IF NOT EXISTS types_name_idx ON types (name);
 
 CREATE TABLE IF NOT EXISTS owners (
   id         INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -29,19 +32,25 @@ CREATE TABLE IF NOT EXISTS owners (
   last_name  TEXT,
   address    TEXT,
   city       TEXT,
-  telephone  TEXT
+  telephone  TEXT,
+  version    INT NOT NULL DEFAULT 0
 );
-CREATE INDEX ON owners (last_name);
+ALTER TABLE owners ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0;
+CREATE INDEX IF NOT EXISTS owners_last_name_id_idx ON owners (last_name, id);
+CREATE INDEX IF NOT EXISTS owners_last_name_pattern_idx ON owners (last_name text_pattern_ops);
+DROP INDEX IF EXISTS owners_last_name_idx;
 
 CREATE TABLE IF NOT EXISTS pets (
   id         INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   name       TEXT,
   birth_date DATE,
   type_id    INT NOT NULL REFERENCES types (id),
-  owner_id   INT REFERENCES owners (id)
+  owner_id   INT REFERENCES owners (id),
+  version    INT NOT NULL DEFAULT 0
 );
-CREATE INDEX ON pets (name);
-CREATE INDEX ON pets (owner_id);
+ALTER TABLE pets ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0;
+CREATE INDEX IF NOT EXISTS pets_name_idx ON pets (name);
+CREATE INDEX IF NOT EXISTS pets_owner_id_idx ON pets (owner_id);
 
 CREATE TABLE IF NOT EXISTS visits (
   id          INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -49,4 +58,5 @@ CREATE TABLE IF NOT EXISTS visits (
   visit_date  DATE,
   description TEXT
 );
-CREATE INDEX ON visits (pet_id);
+CREATE INDEX IF NOT EXISTS visits_pet_id_visit_date_idx ON visits (pet_id, visit_date);
+DROP INDEX IF EXISTS visits_pet_id_idx;
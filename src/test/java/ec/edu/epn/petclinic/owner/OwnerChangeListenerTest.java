@@ -0,0 +1,98 @@
+package ec.edu.epn.petclinic.owner;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas unitarias de la sincronización de los datos en memoria tras guardar owners.
+ */
+class OwnerChangeListenerTest {
+
+	private OwnerSearchIndex indice;
+
+	private OwnerLastNames apellidos;
+
+	private OwnerSearchCounts conteos;
+
+	private OwnerETags eTags;
+
+	private OwnerChangeListener listener;
+
+	@BeforeEach
+	void setUp() {
+		indice = mock(OwnerSearchIndex.class);
+		apellidos = mock(OwnerLastNames.class);
+		conteos = mock(OwnerSearchCounts.class);
+		eTags = mock(OwnerETags.class);
+		listener = new OwnerChangeListener(indice, apellidos, conteos, eTags);
+	}
+
+	@Test
+	@DisplayName("Debería indexar y contar los owners creados")
+	void ownersChanged_ShouldIndexAndCountCreatedOwners() {
+		// Arrange
+		List<Owner> creados = List.of(owner(1, "Vega"), owner(2, "Vera"));
+		// Act
+		listener.ownersChanged(OwnersChangedEvent.created(creados));
+		// Assert
+		verify(apellidos).add(creados);
+		verify(conteos).invalidate();
+		verify(indice).update(creados);
+		verifyNoInteractions(eTags);
+	}
+
+	@Test
+	@DisplayName("Debería mover el owner renombrado a su nuevo apellido")
+	void ownersChanged_ShouldRenameOwner_WhenLastNameChanged() {
+		// Arrange
+		Owner editado = owner(1, "Frankston");
+		// Act
+		listener.ownersChanged(OwnersChangedEvent.updated(editado, "Franklin"));
+		// Assert
+		verify(apellidos).rename("Franklin", "Frankston");
+		verify(conteos).invalidate();
+		verify(indice).update(List.of(editado));
+		verify(eTags).evict(1);
+	}
+
+	@Test
+	@DisplayName("Debería dejar apellidos y conteos como están cuando cambió una mascota")
+	void ownersChanged_ShouldKeepLastNames_WhenPetChanged() {
+		// Arrange
+		Owner owner = owner(1, "Franklin");
+		// Act
+		listener.ownersChanged(OwnersChangedEvent.petsChanged(owner));
+		// Assert
+		verify(apellidos, never()).rename(anyString(), anyString());
+		verifyNoInteractions(conteos);
+		verify(indice).update(List.of(owner));
+		verify(eTags).evict(1);
+	}
+
+	@Test
+	@DisplayName("Debería solo olvidar el ETag cuando se agendó una visita")
+	void ownersChanged_ShouldOnlyEvictETag_WhenVisitBooked() {
+		// Act
+		listener.ownersChanged(OwnersChangedEvent.visitBooked(owner(1, "Franklin")));
+		// Assert
+		verify(eTags).evict(1);
+		verifyNoInteractions(indice, apellidos, conteos);
+	}
+
+	private static Owner owner(int id, String lastName) {
+		Owner owner = new Owner();
+		owner.setId(id);
+		owner.setLastName(lastName);
+		return owner;
+	}
+
+}
@@ -1,16 +1,28 @@
 package ec.edu.epn.petclinic.owner;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 import jakarta.servlet.ServletException;
 
@@ -20,29 +32,58 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MockMvc;
 
 /**
  * Tests de integración del controlador de propietarios.
  */
-@WebMvcTest(OwnerController.class)
+@WebMvcTest({ OwnerController.class, OwnerDetailsController.class })
+@Import(OwnerResolver.class)
 @ActiveProfiles("test")
+@RecordApplicationEvents
 class OwnerControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ApplicationEvents eventos;
+
     @MockitoBean
     private OwnerRepository ownerRepository;
 
+    @MockitoBean
+    private OwnerSearchCounts searchCounts;
+
+    @MockitoBean
+    private VisitRepository visitRepository;
+
+    @MockitoBean
+    private OwnerSearchIndex searchIndex;
+
+    @MockitoBean
+    private OwnerLastNames lastNames;
+
+    @MockitoBean
+    private OwnerETags eTags;
+
     private Owner duenoPrimario;
     private Owner duenoSecundario;
+    private OwnerSummary resumenPrimario;
+    private OwnerSummary resumenSecundario;
 
     @BeforeEach
     void setUp() {
@@ -61,6 +102,11 @@ class OwnerControllerTest {
         duenoSecundario.setAddress("638 Cardinal Ave.");
         duenoSecundario.setCity("Sun Prairie");
         duenoSecundario.setTelephone("6085551749");
+
+        resumenPrimario = new OwnerSummary(1, "George", "Franklin", "110 W. Liberty St.", "Madison",
+                "6085551023", "Leo");
+        resumenSecundario = new OwnerSummary(2, "Betty", "Davis", "638 Cardinal Ave.", "Sun Prairie",
+                "6085551749", "Basil");
     }
 
     // formulario de alta
@@ -103,6 +149,10 @@ class OwnerControllerTest {
                     .andExpect(status().is3xxRedirection())
                     .andExpect(redirectedUrl("/owners/1"))
                     .andExpect(flash().attribute("message", "New Owner Created"));
+            assertThat(eventos.stream(OwnersChangedEvent.class)).singleElement().satisfies(evento -> {
+                assertThat(evento.owners()).extracting(Owner::getLastName).containsExactly("Doe");
+                assertThat(evento.previousLastNames()).isEmpty();
+            });
         }
 
         @Test
@@ -236,8 +286,8 @@ class OwnerControllerTest {
         @DisplayName("Debería redirigir a detalles cuando encuentra exactamente un owner")
         void processFindForm_ShouldRedirectToDetails_WhenSingleOwnerFound() throws Exception {
             // Arrange
-            Page<Owner> paginaUnica = new PageImpl<>(List.of(duenoPrimario));
-            when(ownerRepository.findByLastNameStartingWith(anyString(), any(Pageable.class)))
+            Slice<OwnerSummary> paginaUnica = new SliceImpl<>(List.of(resumenPrimario));
+            when(ownerRepository.findSummariesByLastNameStartingWith(anyString(), any(Pageable.class)))
                     .thenReturn(paginaUnica);
             // Act & Assert
             mockMvc.perform(get("/owners")
@@ -250,9 +300,10 @@ class OwnerControllerTest {
         @DisplayName("Debería mostrar lista cuando encuentra múltiples owners")
         void processFindForm_ShouldShowList_WhenMultipleOwnersFound() throws Exception {
             // Arrange
-            Page<Owner> paginaMultiple = new PageImpl<>(List.of(duenoPrimario, duenoSecundario));
-            when(ownerRepository.findByLastNameStartingWith(anyString(), any(Pageable.class)))
+            Slice<OwnerSummary> paginaMultiple = new SliceImpl<>(List.of(resumenPrimario, resumenSecundario));
+            when(ownerRepository.findSummariesByLastNameStartingWith(anyString(), any(Pageable.class)))
                     .thenReturn(paginaMultiple);
+            when(searchCounts.approximateCount("")).thenReturn(OptionalLong.of(2));
             // Act & Assert
             mockMvc.perform(get("/owners")
                     .param("lastName", ""))
@@ -268,8 +319,8 @@ class OwnerControllerTest {
         @DisplayName("Debería mostrar error cuando no encuentra owners")
         void processFindForm_ShouldShowError_WhenNoOwnersFound() throws Exception {
             // Arrange
-            Page<Owner> sinResultados = new PageImpl<>(List.of());
-            when(ownerRepository.findByLastNameStartingWith(anyString(), any(Pageable.class)))
+            Slice<OwnerSummary> sinResultados = new SliceImpl<>(List.of());
+            when(ownerRepository.findSummariesByLastNameStartingWith(anyString(), any(Pageable.class)))
                     .thenReturn(sinResultados);
             // Act & Assert
             mockMvc.perform(get("/owners")
@@ -283,8 +334,8 @@ class OwnerControllerTest {
         @DisplayName("Debería buscar todos los owners cuando lastName es vacío")
         void processFindForm_ShouldSearchAll_WhenLastNameEmpty() throws Exception {
             // Arrange
-            Page<Owner> todosLosDuenos = new PageImpl<>(List.of(duenoPrimario));
-            when(ownerRepository.findByLastNameStartingWith(anyString(), any(Pageable.class)))
+            Slice<OwnerSummary> todosLosDuenos = new SliceImpl<>(List.of(resumenPrimario));
+            when(ownerRepository.findSummariesByLastNameStartingWith(anyString(), any(Pageable.class)))
                     .thenReturn(todosLosDuenos);
             // Act & Assert
             mockMvc.perform(get("/owners")
@@ -296,13 +347,14 @@ class OwnerControllerTest {
         @DisplayName("Debería manejar paginación correctamente")
         void processFindForm_ShouldHandlePagination() throws Exception {
             // Arrange
-            Page<Owner> paginaConMetadata = new PageImpl<>(
-                    List.of(duenoPrimario, duenoSecundario),
+            Slice<OwnerSummary> paginaConMetadata = new SliceImpl<>(
+                    List.of(resumenPrimario, resumenSecundario),
                     PageRequest.of(0, 5),
-                    10);
+                    true);
             // Act & Assert
-            when(ownerRepository.findByLastNameStartingWith(anyString(), any(Pageable.class)))
+            when(ownerRepository.findSummariesByLastNameStartingWith(anyString(), any(Pageable.class)))
                     .thenReturn(paginaConMetadata);
+            when(searchCounts.approximateCount("")).thenReturn(OptionalLong.of(10));
 
             mockMvc.perform(get("/owners")
                     .param("page", "1")
@@ -318,8 +370,8 @@ class OwnerControllerTest {
         @DisplayName("Debería usar página 1 por defecto")
         void processFindForm_ShouldUseDefaultPage() throws Exception {
             // Arrange
-            Page<Owner> paginaDefault = new PageImpl<>(List.of(duenoPrimario, duenoSecundario));
-            when(ownerRepository.findByLastNameStartingWith(anyString(), any(Pageable.class)))
+            Slice<OwnerSummary> paginaDefault = new SliceImpl<>(List.of(resumenPrimario, resumenSecundario));
+            when(ownerRepository.findSummariesByLastNameStartingWith(anyString(), any(Pageable.class)))
                     .thenReturn(paginaDefault);
             // Act & Assert
             mockMvc.perform(get("/owners")
@@ -327,6 +379,217 @@ class OwnerControllerTest {
                     .andExpect(status().isOk())
                     .andExpect(model().attribute("currentPage", 1));
         }
+
+        @Test
+        @DisplayName("Debería omitir totales mientras el conteo aproximado no se conoce")
+        void processFindForm_ShouldOmitTotals_WhenCountUnknown() throws Exception {
+            // Arrange
+            Slice<OwnerSummary> primeraPagina = new SliceImpl<>(
+                    List.of(resumenPrimario, resumenSecundario),
+                    PageRequest.of(0, 5),
+                    true);
+            when(ownerRepository.findSummariesByLastNameStartingWith(anyString(), any(Pageable.class)))
+                    .thenReturn(primeraPagina);
+            when(searchCounts.approximateCount("")).thenReturn(OptionalLong.empty());
+            // Act & Assert
+            mockMvc.perform(get("/owners")
+                    .param("lastName", ""))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("owners/ownersList"))
+                    .andExpect(model().attribute("hasNext", true))
+                    .andExpect(model().attributeDoesNotExist("totalPages", "totalItems"))
+                    .andExpect(content().string(org.hamcrest.Matchers.containsString("/owners?page=2")));
+        }
+
+        @Test
+        @DisplayName("Debería ajustar el total de páginas a la última página leída")
+        void processFindForm_ShouldClampTotalPages_WhenCountIsStale() throws Exception {
+            // Arrange
+            Slice<OwnerSummary> ultimaPagina = new SliceImpl<>(
+                    List.of(resumenPrimario, resumenSecundario),
+                    PageRequest.of(1, 5),
+                    false);
+            when(ownerRepository.findSummariesByLastNameStartingWith(anyString(), any(Pageable.class)))
+                    .thenReturn(ultimaPagina);
+            when(searchCounts.approximateCount("")).thenReturn(OptionalLong.of(30));
+            // Act & Assert
+            mockMvc.perform(get("/owners")
+                    .param("page", "2")
+                    .param("lastName", ""))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attribute("hasNext", false))
+                    .andExpect(model().attribute("totalPages", 2));
+        }
+    }
+
+    // búsqueda con paginación por keyset
+
+    @Nested
+    @DisplayName("GET /owners?cursor= - Búsqueda con paginación por keyset")
+    class ProcessKeysetFindFormTests {
+
+        @Test
+        @DisplayName("Debería mostrar lista con cursor siguiente y sin totales")
+        void processFindForm_ShouldShowListWithNextCursor_WhenKeysetMode() throws Exception {
+            // Arrange
+            Window<OwnerSummary> ventana = Window.from(List.of(resumenSecundario, resumenPrimario),
+                    indice -> ScrollPosition.forward(Map.of("lastName", "Franklin", "id", 1)), true);
+            when(ownerRepository.findSummariesByLastNameStartingWith(anyString(), any(ScrollPosition.class),
+                    any(Limit.class))).thenReturn(ventana);
+            // Act & Assert
+            mockMvc.perform(get("/owners")
+                    .param("lastName", "")
+                    .param("cursor", ""))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("owners/ownersList"))
+                    .andExpect(model().attribute("keyset", true))
+                    .andExpect(model().attributeExists("nextCursor"))
+                    .andExpect(model().attributeDoesNotExist("totalPages"))
+                    .andExpect(content().string(org.hamcrest.Matchers.containsString("cursor=")));
+        }
+
+        @Test
+        @DisplayName("Debería redirigir a detalles cuando la primera ventana tiene un solo owner")
+        void processFindForm_ShouldRedirect_WhenKeysetModeFindsSingleOwner() throws Exception {
+            // Arrange
+            Window<OwnerSummary> ventana = Window.from(List.of(resumenPrimario),
+                    indice -> ScrollPosition.keyset(), false);
+            when(ownerRepository.findSummariesByLastNameStartingWith(anyString(), any(ScrollPosition.class),
+                    any(Limit.class))).thenReturn(ventana);
+            // Act & Assert
+            mockMvc.perform(get("/owners")
+                    .param("lastName", "Franklin")
+                    .param("cursor", ""))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(redirectedUrl("/owners/1"));
+        }
+
+        @Test
+        @DisplayName("Debería mostrar la primera ventana cuando el cursor es inválido")
+        void processFindForm_ShouldShowFirstWindow_WhenCursorMalformed() throws Exception {
+            // Arrange
+            Window<OwnerSummary> ventana = Window.from(List.of(resumenSecundario, resumenPrimario),
+                    indice -> ScrollPosition.forward(Map.of("lastName", "Franklin", "id", 1)), false);
+            when(ownerRepository.findSummariesByLastNameStartingWith(anyString(), any(ScrollPosition.class),
+                    any(Limit.class))).thenReturn(ventana);
+            // Act & Assert
+            mockMvc.perform(get("/owners")
+                    .param("lastName", "")
+                    .param("cursor", "%%%"))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("owners/ownersList"))
+                    .andExpect(model().attribute("listOwners", List.of(resumenSecundario, resumenPrimario)));
+            verify(ownerRepository).findSummariesByLastNameStartingWith(eq(""), argThat(ScrollPosition::isInitial),
+                    any(Limit.class));
+        }
+    }
+
+    // sugerencias de apellidos
+
+    @Nested
+    @DisplayName("GET /owners/lastNames - Sugerencias de apellidos")
+    class SuggestLastNamesTests {
+
+        @Test
+        @DisplayName("Debería devolver en JSON los apellidos que empiezan con el prefijo")
+        void suggestLastNames_ShouldReturnMatchingNamesAsJson() throws Exception {
+            // Arrange
+            when(lastNames.startingWith("dav", 10)).thenReturn(List.of(new OwnerLastNames.LastName("Davidson", 1),
+                    new OwnerLastNames.LastName("Davis", 2)));
+            // Act & Assert
+            mockMvc.perform(get("/owners/lastNames").param("prefix", "dav"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith("application/json"))
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[1].lastName").value("Davis"))
+                    .andExpect(jsonPath("$[1].owners").value(2));
+            verifyNoInteractions(ownerRepository);
+        }
+    }
+
+    // búsqueda de texto completo
+
+    @Nested
+    @DisplayName("GET /owners/search - Búsqueda por nombre, mascota o teléfono")
+    class ProcessSearchFormTests {
+
+        @Test
+        @DisplayName("Debería mostrar los owners en el orden del índice")
+        void processSearchForm_ShouldShowOwnersInRankOrder() throws Exception {
+            // Arrange
+            when(searchIndex.isReady()).thenReturn(true);
+            when(searchIndex.search(eq("dav"), any(Integer.class)))
+                    .thenReturn(new OwnerSearchIndex.Hits(List.of(2, 1), false));
+            when(ownerRepository.findSummariesByIdIn(List.of(2, 1)))
+                    .thenReturn(List.of(resumenSecundario, resumenPrimario));
+            // Act & Assert
+            mockMvc.perform(get("/owners/search").param("q", "dav"))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("owners/ownersList"))
+                    .andExpect(model().attribute("listOwners", List.of(resumenSecundario, resumenPrimario)))
+                    .andExpect(model().attributeDoesNotExist("currentPage", "keyset"));
+        }
+
+        @Test
+        @DisplayName("Debería redirigir a detalles cuando solo un owner coincide")
+        void processSearchForm_ShouldRedirect_WhenSingleOwnerMatches() throws Exception {
+            // Arrange
+            when(searchIndex.isReady()).thenReturn(true);
+            when(searchIndex.search(eq("6085551023"), any(Integer.class)))
+                    .thenReturn(new OwnerSearchIndex.Hits(List.of(1), false));
+            when(ownerRepository.findSummariesByIdIn(List.of(1))).thenReturn(List.of(resumenPrimario));
+            // Act & Assert
+            mockMvc.perform(get("/owners/search").param("q", "6085551023"))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(redirectedUrl("/owners/1"));
+        }
+
+        @Test
+        @DisplayName("Debería mostrar el owner y avisar cuando la búsqueda se cortó por tiempo")
+        void processSearchForm_ShouldShowListAndWarn_WhenSearchTruncated() throws Exception {
+            // Arrange
+            when(searchIndex.isReady()).thenReturn(true);
+            when(searchIndex.search(eq("dav"), any(Integer.class)))
+                    .thenReturn(new OwnerSearchIndex.Hits(List.of(1), true));
+            when(ownerRepository.findSummariesByIdIn(List.of(1))).thenReturn(List.of(resumenPrimario));
+            // Act & Assert
+            mockMvc.perform(get("/owners/search").param("q", "dav"))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("owners/ownersList"))
+                    .andExpect(model().attribute("searchTruncated", true))
+                    .andExpect(model().attribute("listOwners", List.of(resumenPrimario)));
+        }
+
+        @Test
+        @DisplayName("Debería volver al formulario cuando nada coincide")
+        void processSearchForm_ShouldReturnFindForm_WhenNothingMatches() throws Exception {
+            // Arrange
+            when(searchIndex.isReady()).thenReturn(true);
+            when(searchIndex.search(eq("zzz"), any(Integer.class)))
+                    .thenReturn(new OwnerSearchIndex.Hits(List.of(), false));
+            when(ownerRepository.findSummariesByIdIn(List.of())).thenReturn(List.of());
+            // Act & Assert
+            mockMvc.perform(get("/owners/search").param("q", "zzz"))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("owners/findOwners"))
+                    .andExpect(model().attribute("queryNotFound", true))
+                    .andExpect(content().string(containsString("value=\"zzz\"")));
+        }
+
+        @Test
+        @DisplayName("Debería buscar por prefijo del apellido mientras el índice se construye")
+        void processSearchForm_ShouldFallBackToLastNamePrefix_WhenIndexNotReady() throws Exception {
+            // Arrange
+            when(searchIndex.isReady()).thenReturn(false);
+            Slice<OwnerSummary> resultados = new SliceImpl<>(List.of(resumenSecundario, resumenPrimario));
+            when(ownerRepository.findSummariesByLastNameStartingWith(eq("Da"), any(Pageable.class)))
+                    .thenReturn(resultados);
+            // Act & Assert
+            mockMvc.perform(get("/owners/search").param("q", " Da "))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("owners/ownersList"));
+            verify(searchIndex, never()).search(anyString(), any(Integer.class));
+        }
     }
 
     // visualización de detalles
@@ -339,6 +602,7 @@ class OwnerControllerTest {
         void showOwner_ShouldShowDetails_WhenOwnerExists() throws Exception {
             // Arrange
             when(ownerRepository.findById(1)).thenReturn(Optional.of(duenoPrimario));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(duenoPrimario));
             // Act & Assert
             mockMvc.perform(get("/owners/{ownerId}", 1))
                     .andExpect(status().isOk())
@@ -346,6 +610,78 @@ class OwnerControllerTest {
                     .andExpect(model().attributeExists("owner"));
         }
 
+        @Test
+        @DisplayName("Debería mostrar solo las visitas recientes y un enlace a las anteriores")
+        void showOwner_ShouldShowRecentVisitsAndMoreLink() throws Exception {
+            // Arrange
+            Pet mascota = mascotaConId(7);
+            duenoPrimario.getPets().add(mascota);
+            Visit reciente = visita(11, LocalDate.of(2024, 5, 2), "vacuna anual");
+            when(ownerRepository.findById(1)).thenReturn(Optional.of(duenoPrimario));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(duenoPrimario));
+            when(visitRepository.findRecentByPetIdIn(List.of(7), 10))
+                    .thenReturn(Map.of(7, Window.from(List.of(reciente), i -> ScrollPosition.keyset(), true)));
+            // Act & Assert
+            mockMvc.perform(get("/owners/{ownerId}", 1))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(containsString("vacuna anual")))
+                    .andExpect(content().string(
+                            containsString("/owners/1/pets/7/visits?before=2024-05-02&amp;beforeId=11")));
+            verify(ownerRepository, never()).findWithPetsAndVisitsById(any());
+        }
+
+        @Test
+        @DisplayName("Debería responder 304 sin consultar cuando la etiqueta en cache coincide")
+        void showOwner_ShouldReturnNotModifiedWithoutQueries_WhenCachedETagMatches() throws Exception {
+            // Arrange
+            when(eTags.find(eq(1), any(Locale.class))).thenReturn("\"owner-1-0.0-en\"");
+            // Act & Assert
+            mockMvc.perform(get("/owners/{ownerId}", 1).header(HttpHeaders.IF_NONE_MATCH, "\"owner-1-0.0-en\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+            verifyNoInteractions(ownerRepository, visitRepository);
+        }
+
+        @Test
+        @DisplayName("Debería responder 304 sin leer visitas cuando la etiqueta calculada coincide")
+        void showOwner_ShouldReturnNotModifiedWithoutVisits_WhenComputedETagMatches() throws Exception {
+            // Arrange
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(duenoPrimario));
+            when(eTags.compute(eq(duenoPrimario), any(Locale.class))).thenReturn("\"owner-1-3.0-en\"");
+            // Act & Assert
+            mockMvc.perform(get("/owners/{ownerId}", 1).header(HttpHeaders.IF_NONE_MATCH, "\"owner-1-3.0-en\""))
+                    .andExpect(status().isNotModified());
+            verifyNoInteractions(visitRepository);
+        }
+
+        @Test
+        @DisplayName("Debería mostrar la página con su ETag cuando cambió")
+        void showOwner_ShouldRenderWithETag_WhenModified() throws Exception {
+            // Arrange
+            when(eTags.find(eq(1), any(Locale.class))).thenReturn("\"owner-1-3.0-en\"");
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(duenoPrimario));
+            when(eTags.compute(eq(duenoPrimario), any(Locale.class))).thenReturn("\"owner-1-3.0-en\"");
+            // Act & Assert
+            mockMvc.perform(get("/owners/{ownerId}", 1).header(HttpHeaders.IF_NONE_MATCH, "\"owner-1-2.0-en\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"owner-1-3.0-en\""))
+                    .andExpect(view().name("owners/ownerDetails"));
+        }
+
+        @Test
+        @DisplayName("Debería mostrar siempre la página cuando trae un mensaje flash")
+        void showOwner_ShouldRender_WhenFlashMessagePresent() throws Exception {
+            // Arrange
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(duenoPrimario));
+            when(eTags.compute(eq(duenoPrimario), any(Locale.class))).thenReturn("\"owner-1-3.0-en\"");
+            // Act & Assert
+            mockMvc.perform(get("/owners/{ownerId}", 1).header(HttpHeaders.IF_NONE_MATCH, "\"owner-1-3.0-en\"")
+                    .flashAttr("message", "Owner Values Updated"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(containsString("Owner Values Updated")));
+            verify(eTags, never()).find(any(Integer.class), any(Locale.class));
+        }
+
         @Test
         @DisplayName("Debería lanzar excepción cuando owner no existe")
         void showOwner_ShouldThrowException_WhenOwnerNotFound()  {
@@ -357,6 +693,86 @@ class OwnerControllerTest {
             assertInstanceOf(IllegalArgumentException.class, errorCapturado.getCause());
         }
     }
+    // historial de visitas
+
+    @Nested
+    @DisplayName("GET /owners/{ownerId}/pets/{petId}/visits - Visitas anteriores")
+    class ShowVisitsTests {
+
+        @Test
+        @DisplayName("Debería retornar las filas de las visitas anteriores a la indicada")
+        void showVisits_ShouldRenderOlderVisits() throws Exception {
+            // Arrange
+            duenoPrimario.getPets().add(mascotaConId(7));
+            Visit anterior = visita(3, LocalDate.of(2013, 1, 1), "rabies shot");
+            when(ownerRepository.findById(1)).thenReturn(Optional.of(duenoPrimario));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(duenoPrimario));
+            when(visitRepository.findByPetIdOrderByPetIdDescDateDescIdDesc(eq(7), any(ScrollPosition.class), eq(Limit.of(10))))
+                    .thenReturn(Window.from(List.of(anterior), i -> ScrollPosition.keyset(), false));
+            // Act & Assert
+            mockMvc.perform(get("/owners/{ownerId}/pets/{petId}/visits", 1, 7)
+                    .param("before", "2013-01-04")
+                    .param("beforeId", "4"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attributeExists("window"))
+                    .andExpect(content().string(containsString("rabies shot")))
+                    .andExpect(content().string(not(containsString("more-visits"))));
+            verify(visitRepository).findByPetIdOrderByPetIdDescDateDescIdDesc(7,
+                    ScrollPosition.forward(Map.of("petId", 7, "date", LocalDate.of(2013, 1, 4), "id", 4)), Limit.of(10));
+        }
+
+        @Test
+        @DisplayName("Debería enlazar las visitas más antiguas cuando hay más")
+        void showVisits_ShouldLinkNextWindow_WhenHasNext() throws Exception {
+            // Arrange
+            duenoPrimario.getPets().add(mascotaConId(7));
+            Visit anterior = visita(3, LocalDate.of(2013, 1, 1), "rabies shot");
+            when(ownerRepository.findById(1)).thenReturn(Optional.of(duenoPrimario));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(duenoPrimario));
+            when(visitRepository.findByPetIdOrderByPetIdDescDateDescIdDesc(eq(7), any(ScrollPosition.class), eq(Limit.of(10))))
+                    .thenReturn(Window.from(List.of(anterior), i -> ScrollPosition.keyset(), true));
+            // Act & Assert
+            mockMvc.perform(get("/owners/{ownerId}/pets/{petId}/visits", 1, 7)
+                    .param("before", "2013-01-04")
+                    .param("beforeId", "4"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attribute("ownerId", 1))
+                    .andExpect(content().string(containsString("more-visits")))
+                    .andExpect(content().string(
+                            containsString("/owners/1/pets/7/visits?before=2013-01-01&amp;beforeId=3")));
+        }
+
+        @Test
+        @DisplayName("Debería lanzar excepción cuando la mascota no es del owner")
+        void showVisits_ShouldThrowException_WhenPetNotOwned() {
+            // Arrange
+            when(ownerRepository.findById(1)).thenReturn(Optional.of(duenoPrimario));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(duenoPrimario));
+            // Act & Assert
+            ServletException error = assertThrows(ServletException.class,
+                    () -> mockMvc.perform(get("/owners/{ownerId}/pets/{petId}/visits", 1, 7)
+                            .param("before", "2013-01-04")
+                            .param("beforeId", "4")));
+            assertInstanceOf(IllegalArgumentException.class, error.getCause());
+            verifyNoInteractions(visitRepository);
+        }
+    }
+
+    private static Pet mascotaConId(int id) {
+        Pet mascota = new Pet();
+        mascota.setId(id);
+        mascota.setName("Samantha");
+        return mascota;
+    }
+
+    private static Visit visita(int id, LocalDate fecha, String descripcion) {
+        Visit visita = new Visit();
+        visita.setId(id);
+        visita.setDate(fecha);
+        visita.setDescription(descripcion);
+        return visita;
+    }
+
     // formulario de edición
 
     @Nested
@@ -398,17 +814,57 @@ class OwnerControllerTest {
         void processUpdateForm_ShouldUpdateAndRedirect_WhenValidData() throws Exception {
             // Arrange
             when(ownerRepository.findById(1)).thenReturn(Optional.of(duenoPrimario));
-            when(ownerRepository.save(any(Owner.class))).thenReturn(duenoPrimario);
+            when(ownerRepository.updateDetails(any(Owner.class))).thenReturn(1);
             // Act & Assert
             mockMvc.perform(post("/owners/{ownerId}/edit", 1)
+                    .param("version", "2")
                     .param("firstName", "George")
-                    .param("lastName", "Franklin")
+                    .param("lastName", "Frankston")
                     .param("address", "Updated Address")
                     .param("city", "Madison")
                     .param("telephone", "6085551023"))
                     .andExpect(status().is3xxRedirection())
                     .andExpect(redirectedUrl("/owners/1"))
                     .andExpect(flash().attribute("message", "Owner Values Updated"));
+            verify(ownerRepository).updateDetails(argThat(owner -> owner.getVersion() == 2));
+            verify(ownerRepository, never()).save(any(Owner.class));
+            assertThat(eventos.stream(OwnersChangedEvent.class)).singleElement().satisfies(evento -> {
+                assertThat(evento.owners()).extracting(Owner::getLastName).containsExactly("Frankston");
+                assertThat(evento.previousLastNames()).containsExactly(Map.entry(1, "Franklin"));
+            });
+        }
+
+        @Test
+        @DisplayName("Debería mostrar de nuevo el formulario con los valores guardados cuando otro usuario cambió el owner")
+        void processUpdateForm_ShouldShowSavedValues_WhenOwnerChangedMeanwhile() throws Exception {
+            // Arrange
+            Owner guardado = new Owner();
+            guardado.setId(1);
+            guardado.setFirstName("Jorge");
+            guardado.setLastName("Franklin");
+            guardado.setAddress("110 W. Liberty St.");
+            guardado.setCity("Madison");
+            guardado.setTelephone("6085551023");
+            guardado.setVersion(3);
+            when(ownerRepository.findById(1)).thenReturn(Optional.of(duenoPrimario))
+                    .thenReturn(Optional.of(guardado));
+            when(ownerRepository.updateDetails(any(Owner.class))).thenReturn(0);
+            // Act & Assert
+            mockMvc.perform(post("/owners/{ownerId}/edit", 1)
+                    .param("version", "2")
+                    .param("firstName", "George")
+                    .param("lastName", "Frankston")
+                    .param("address", "110 W. Liberty St.")
+                    .param("city", "Madison")
+                    .param("telephone", "6085551023"))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("owners/createOrUpdateOwnerForm"))
+                    .andExpect(model().attributeErrorCount("owner", 1))
+                    .andExpect(model().attribute("currentOwner", guardado))
+                    .andExpect(content().string(containsString("Jorge Franklin")))
+                    .andExpect(content().string(containsString("value=\"Frankston\"")))
+                    .andExpect(content().string(containsString("name=\"version\" value=\"3\"")));
+            assertThat(eventos.stream(OwnersChangedEvent.class)).isEmpty();
         }
 
         @Test
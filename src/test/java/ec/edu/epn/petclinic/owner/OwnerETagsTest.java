@@ -0,0 +1,82 @@
+package ec.edu.epn.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Locale;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+/**
+ * Pruebas unitarias de las etiquetas de entidad de la página de un owner.
+ */
+class OwnerETagsTest {
+
+	private OwnerETags etiquetas;
+
+	private Owner owner;
+
+	@BeforeEach
+	void setUp() {
+		etiquetas = new OwnerETags(new ConcurrentMapCacheManager(OwnerETags.CACHE_NAME));
+		owner = new Owner();
+		owner.setId(6);
+		owner.setVersion(2);
+		owner.getPets().add(mascota(7, 1));
+		owner.getPets().add(mascota(8, 3));
+	}
+
+	@Test
+	@DisplayName("Debería recordar la etiqueta calculada hasta que se desaloje")
+	void compute_ShouldRememberETagUntilEvicted() {
+		// Assert
+		assertThat(etiquetas.find(6, Locale.ENGLISH)).isNull();
+		// Act
+		String etiqueta = etiquetas.compute(owner, Locale.ENGLISH);
+		// Assert
+		assertThat(etiqueta).isEqualTo("\"owner-6-2.4-en\"");
+		assertThat(etiquetas.find(6, Locale.ENGLISH)).isEqualTo(etiqueta);
+		assertThat(etiquetas.find(6, Locale.forLanguageTag("es"))).isEqualTo("\"owner-6-2.4-es\"");
+		// Act
+		etiquetas.evict(6);
+		// Assert
+		assertThat(etiquetas.find(6, Locale.ENGLISH)).isNull();
+	}
+
+	@Test
+	@DisplayName("Debería cambiar la etiqueta cuando cambia el owner o alguna de sus mascotas")
+	void compute_ShouldChange_WhenOwnerOrPetVersionChanges() {
+		// Arrange
+		String antes = etiquetas.compute(owner, Locale.ENGLISH);
+		// Act
+		owner.getPets().get(0).setVersion(2);
+		String despuesDeMascota = etiquetas.compute(owner, Locale.ENGLISH);
+		owner.setVersion(3);
+		String despuesDeOwner = etiquetas.compute(owner, Locale.ENGLISH);
+		// Assert
+		assertThat(antes).isNotEqualTo(despuesDeMascota);
+		assertThat(despuesDeMascota).isNotEqualTo(despuesDeOwner);
+	}
+
+	@Test
+	@DisplayName("Debería tratar como cero la versión nula del owner o de una mascota")
+	void compute_ShouldTreatNullVersionsAsZero() {
+		// Arrange
+		owner.setVersion(null);
+		owner.getPets().get(1).setVersion(null);
+		// Act
+		String etiqueta = etiquetas.compute(owner, Locale.ENGLISH);
+		// Assert
+		assertThat(etiqueta).isEqualTo("\"owner-6-0.1-en\"");
+	}
+
+	private static Pet mascota(int id, int version) {
+		Pet pet = new Pet();
+		pet.setId(id);
+		pet.setVersion(version);
+		return pet;
+	}
+
+}
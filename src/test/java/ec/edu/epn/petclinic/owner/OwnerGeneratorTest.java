@@ -0,0 +1,95 @@
+package ec.edu.epn.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.autoconfigure.JdbcTemplateAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import ec.edu.epn.petclinic.system.DataGeneratorProperties;
+import ec.edu.epn.petclinic.system.SyntheticData;
+
+/**
+ * Tests de integración del generador de owners sintéticos.
+ */
+@DataJpaTest(properties = "petclinic.generator.enabled=true")
+@Import({ OwnerGenerator.class, OwnerBatchWriter.class, PetTypeRegistry.class })
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+@EnableConfigurationProperties(DataGeneratorProperties.class)
+@ActiveProfiles("test")
+class OwnerGeneratorTest {
+
+    private static final String OWNERS_GENERADOS = "SELECT first_name, last_name, address, city, telephone"
+            + " FROM owners WHERE id > ? ORDER BY id";
+
+    @Autowired
+    private OwnerGenerator ownerGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private OwnerSearchCounts searchCounts;
+
+    @Test
+    @DisplayName("generate - La misma semilla debería generar los mismos owners")
+    void generate_WithSameSeed_ShouldGenerateSameOwners() {
+        // Arrange
+        int ultimoId = ultimoId("owners");
+        // Act
+        ownerGenerator.generate(new SyntheticData(1), 20);
+        int mitad = ultimoId("owners");
+        ownerGenerator.generate(new SyntheticData(1), 20);
+        // Assert
+        List<Map<String, Object>> primeros = jdbcTemplate.queryForList(OWNERS_GENERADOS, ultimoId);
+        List<Map<String, Object>> segundos = jdbcTemplate.queryForList(OWNERS_GENERADOS, mitad);
+        assertThat(primeros).hasSize(40);
+        assertThat(primeros.subList(0, 20)).isEqualTo(segundos);
+    }
+
+    @Test
+    @DisplayName("generate - Debería generar owners con distribuciones sesgadas y datos válidos")
+    void generate_ShouldGenerateSkewedAndValidData() {
+        // Arrange
+        int ultimoOwner = ultimoId("owners");
+        int ultimaMascota = ultimoId("pets");
+        // Act
+        ownerGenerator.generate(new SyntheticData(42), 1_000);
+        // Assert
+        Integer owners = contar("SELECT COUNT(*) FROM owners WHERE id > ?", ultimoOwner);
+        Integer davis = contar("SELECT COUNT(*) FROM owners WHERE id > ? AND last_name = 'Davis'", ultimoOwner);
+        Integer zambrano = contar("SELECT COUNT(*) FROM owners WHERE id > ? AND last_name = 'Zambrano'",
+                ultimoOwner);
+        Integer mascotas = contar("SELECT COUNT(*) FROM pets WHERE id > ?", ultimaMascota);
+        assertThat(owners).isEqualTo(1_000);
+        assertThat(davis).isGreaterThan(zambrano * 10);
+        assertThat(mascotas).isBetween(1_300, 1_700);
+        assertThat(contar("SELECT COUNT(*) FROM (SELECT owner_id, name FROM pets WHERE id > ?"
+                + " GROUP BY owner_id, name HAVING COUNT(*) > 1)", ultimaMascota)).isZero();
+        assertThat(contar("SELECT COUNT(*) FROM visits v JOIN pets p ON p.id = v.pet_id"
+                + " WHERE p.id > ? AND (v.visit_date < p.birth_date OR v.visit_date > DATE '2025-12-31')",
+                ultimaMascota)).isZero();
+        assertThat(contar("SELECT COUNT(*) FROM owners WHERE id > ? AND NOT REGEXP_LIKE(telephone, '^[0-9]{10}$')",
+                ultimoOwner)).isZero();
+    }
+
+    private int ultimoId(String tabla) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + tabla, Integer.class);
+    }
+
+    private Integer contar(String sql, Object... argumentos) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, argumentos);
+    }
+
+}
@@ -0,0 +1,63 @@
+package ec.edu.epn.petclinic.owner;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.io.InputStream;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import ec.edu.epn.petclinic.owner.OwnerImporter.ImportResult;
+import ec.edu.epn.petclinic.owner.OwnerImporter.LineError;
+
+/**
+ * Tests de integración del endpoint de importación masiva de owners.
+ */
+@WebMvcTest(OwnerImportController.class)
+@ActiveProfiles("test")
+class OwnerImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private OwnerImporter ownerImporter;
+
+    @Test
+    @DisplayName("POST /owners/import - Debería retornar el resultado de la importación")
+    void importOwners_ShouldReturnImportResult() throws Exception {
+        // Arrange
+        when(ownerImporter.importNdjson(any(InputStream.class)))
+                .thenReturn(new ImportResult(2, 3, 4, 1, List.of(new LineError(3, "malformed JSON"))));
+        // Act & Assert
+        mockMvc.perform(post("/owners/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{}\n{}\n{\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.owners").value(2))
+                .andExpect(jsonPath("$.pets").value(3))
+                .andExpect(jsonPath("$.visits").value(4))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+    }
+
+    @Test
+    @DisplayName("POST /owners/import - Debería rechazar contenido que no es NDJSON")
+    void importOwners_ShouldRejectOtherContentTypes() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/owners/import")
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("owners"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+}
@@ -0,0 +1,137 @@
+package ec.edu.epn.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jackson.autoconfigure.JacksonAutoConfiguration;
+import org.springframework.boot.jdbc.autoconfigure.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.validation.autoconfigure.ValidationAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import ec.edu.epn.petclinic.owner.OwnerImporter.ImportResult;
+
+/**
+ * Tests de integración de la importación masiva de owners.
+ */
+@DataJpaTest
+@Import({ OwnerImporter.class, OwnerBatchWriter.class, PetTypeRegistry.class })
+@ImportAutoConfiguration({ JacksonAutoConfiguration.class, JdbcTemplateAutoConfiguration.class,
+        ValidationAutoConfiguration.class })
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class OwnerImporterTest {
+
+    private static final String OWNER_VALIDO = """
+            {"firstName":"Ana","lastName":"Vega","address":"Av. Amazonas 12","city":"Quito","telephone":"0991234567",\
+            "pets":[{"name":"Luna","birthDate":"2020-01-31","type":"cat",\
+            "visits":[{"date":"2024-03-01","description":"vacuna"},{"date":"2024-05-01","description":"control"}]},\
+            {"name":"Rocky","birthDate":"2019-06-15","type":"dog"}]}""";
+
+    @Autowired
+    private OwnerImporter ownerImporter;
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private ApplicationEvents eventos;
+
+    @Test
+    @DisplayName("importNdjson - Debería insertar owners con mascotas y visitas")
+    void importNdjson_ShouldInsertOwnersWithPetsAndVisits() throws Exception {
+        // Arrange
+        String entrada = OWNER_VALIDO + "\n"
+                + OWNER_VALIDO.replace("\"Ana\"", "\"Luis\"").replace("\"Vega\"", "\"Vera\"") + "\n";
+        // Act
+        ImportResult resultado = importar(entrada);
+        // Assert
+        assertThat(eventos.stream(OwnersChangedEvent.class)).singleElement().satisfies(evento -> {
+            assertThat(evento.owners()).extracting(Owner::getLastName).containsExactly("Vega", "Vera");
+            assertThat(evento.owners()).allMatch(owner -> owner.getId() != null);
+            assertThat(evento.previousLastNames()).isEmpty();
+        });
+        assertThat(resultado.owners()).isEqualTo(2);
+        assertThat(resultado.pets()).isEqualTo(4);
+        assertThat(resultado.visits()).isEqualTo(4);
+        assertThat(resultado.rejected()).isZero();
+        OwnerSummary importado = ownerRepository.findSummariesByLastNameStartingWith("Vega", PageRequest.of(0, 5))
+                .getContent().get(0);
+        Owner completo = ownerRepository.findWithPetsAndVisitsById(importado.id()).orElseThrow();
+        assertThat(completo.getPets()).extracting(Pet::getName).containsExactly("Luna", "Rocky");
+        assertThat(completo.getPet("Luna").getType().getName()).isEqualTo("cat");
+        assertThat(completo.getPet("Luna").getVisits()).extracting(Visit::getDescription)
+                .containsExactly("vacuna", "control");
+    }
+
+    @Test
+    @DisplayName("importNdjson - Debería rechazar líneas inválidas y continuar")
+    void importNdjson_ShouldRejectInvalidLinesAndContinue() throws Exception {
+        // Arrange
+        String entrada = String.join("\n",
+                OWNER_VALIDO.replace("0991234567", "123"),
+                "{no es json",
+                "",
+                OWNER_VALIDO.replace("\"type\":\"dog\"", "\"type\":\"dragon\""),
+                OWNER_VALIDO.replace("\"Rocky\"", "\"Luna\""),
+                OWNER_VALIDO.replace("\"description\":\"vacuna\"", "\"description\":\"\""),
+                OWNER_VALIDO);
+        // Act
+        ImportResult resultado = importar(entrada);
+        // Assert
+        assertThat(resultado.owners()).isEqualTo(1);
+        assertThat(resultado.rejected()).isEqualTo(5);
+        assertThat(resultado.errors()).extracting(OwnerImporter.LineError::line).containsExactly(1, 2, 4, 5, 6);
+        assertThat(resultado.errors().get(0).message()).startsWith("telephone:");
+        assertThat(resultado.errors().get(1).message()).startsWith("malformed JSON");
+        assertThat(resultado.errors().get(2).message()).isEqualTo("pets[1].type: unknown dragon");
+        assertThat(resultado.errors().get(3).message()).isEqualTo("pets[1].name: duplicate");
+        assertThat(resultado.errors().get(4).message()).startsWith("pets[0].visits[0].description:");
+    }
+
+    @Test
+    @DisplayName("importNdjson - Debería aplicar PetValidator a las mascotas")
+    void importNdjson_ShouldApplyPetValidator() throws Exception {
+        // Arrange
+        String entrada = OWNER_VALIDO.replace("\"birthDate\":\"2020-01-31\",", "");
+        // Act
+        ImportResult resultado = importar(entrada);
+        // Assert
+        assertThat(resultado.owners()).isZero();
+        assertThat(resultado.errors()).singleElement()
+                .satisfies(error -> assertThat(error.message()).isEqualTo("pets[0].birthDate: required"));
+    }
+
+    @Test
+    @DisplayName("importNdjson - Debería escribir en varios lotes cuando la entrada supera el tamaño de lote")
+    void importNdjson_ShouldWriteSeveralChunks() throws Exception {
+        // Arrange
+        StringBuilder entrada = new StringBuilder();
+        int total = OwnerImporter.CHUNK_SIZE + 3;
+        for (int i = 0; i < total; i++) {
+            entrada.append(OWNER_VALIDO.replace("\"Vega\"", "\"Lote" + i + "\"")).append('\n');
+        }
+        long antes = ownerRepository.count();
+        // Act
+        ImportResult resultado = importar(entrada.toString());
+        // Assert
+        assertThat(resultado.owners()).isEqualTo(total);
+        assertThat(ownerRepository.count()).isEqualTo(antes + total);
+        assertThat(ownerRepository.countByLastNameStartingWith("Lote")).isEqualTo(total);
+    }
+
+    private ImportResult importar(String entrada) throws Exception {
+        return ownerImporter.importNdjson(new ByteArrayInputStream(entrada.getBytes(StandardCharsets.UTF_8)));
+    }
+}
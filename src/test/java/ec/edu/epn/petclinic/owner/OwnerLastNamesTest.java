@@ -0,0 +1,161 @@
+package ec.edu.epn.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import ec.edu.epn.petclinic.owner.OwnerLastNames.LastName;
+
+/**
+ * Pruebas unitarias de los apellidos en memoria usados para sugerir apellidos.
+ */
+class OwnerLastNamesTest {
+
+	private OwnerRepository ownerRepository;
+
+	private OwnerLastNames apellidos;
+
+	@BeforeEach
+	void setUp() {
+		ownerRepository = mock(OwnerRepository.class);
+		when(ownerRepository.findLastNameCounts()).thenReturn(List.of(conteo("Davis", 2), conteo("Davidson", 1),
+				conteo("Coleman", 1), conteo("Escobito", 1), conteo("davila", 1)));
+		apellidos = new OwnerLastNames(ownerRepository, new SyncTaskExecutor());
+	}
+
+	@Test
+	@DisplayName("Debería sugerir en orden alfabético los apellidos que empiezan con el prefijo, sin importar mayúsculas")
+	void startingWith_ShouldReturnMatchingNamesInOrder() {
+		// Arrange
+		apellidos.scheduleLoad();
+		// Act
+		List<LastName> sugeridos = apellidos.startingWith(" dav", 10);
+		// Assert
+		assertThat(sugeridos).containsExactly(new LastName("Davidson", 1), new LastName("davila", 1),
+				new LastName("Davis", 2));
+	}
+
+	@Test
+	@DisplayName("Debería limitar las sugerencias y no sugerir nada sin prefijo")
+	void startingWith_ShouldApplyLimit_AndIgnoreBlankPrefix() {
+		// Arrange
+		apellidos.load();
+		// Act & Assert
+		assertThat(apellidos.startingWith("DAV", 2)).extracting(LastName::lastName)
+			.containsExactly("Davidson", "davila");
+		assertThat(apellidos.startingWith("  ", 10)).isEmpty();
+		assertThat(apellidos.startingWith("Zapata", 10)).isEmpty();
+	}
+
+	@Test
+	@DisplayName("Debería sugerir todas las variantes de mayúsculas del apellido escrito completo")
+	void startingWith_ShouldIncludeCaseVariants_WhenPrefixIsWholeName() {
+		// Arrange
+		when(ownerRepository.findLastNameCounts())
+			.thenReturn(List.of(conteo("Davis", 2), conteo("davis", 1), conteo("DAVIS", 1), conteo("Davison", 1)));
+		apellidos.load();
+		// Act & Assert
+		assertThat(apellidos.startingWith("davis", 10)).extracting(LastName::lastName)
+			.containsExactly("DAVIS", "Davis", "davis", "Davison");
+		assertThat(apellidos.startingWith("dAvIs", 10)).extracting(LastName::lastName)
+			.containsExactly("DAVIS", "Davis", "davis", "Davison");
+	}
+
+	@Test
+	@DisplayName("Debería contar owners nuevos y renombrados, y olvidar apellidos sin owners")
+	void addAndRename_ShouldUpdateCounts() {
+		// Arrange
+		apellidos.load();
+		Owner nuevo = new Owner();
+		nuevo.setLastName("Davis");
+		// Act
+		apellidos.add(List.of(nuevo));
+		apellidos.rename("Coleman", "Colmenares");
+		apellidos.rename(null, "Zapata");
+		apellidos.rename("Escobito", "Escobito");
+		// Assert
+		assertThat(apellidos.startingWith("Davis", 10)).containsExactly(new LastName("Davis", 3));
+		assertThat(apellidos.startingWith("Col", 10)).containsExactly(new LastName("Colmenares", 1));
+		assertThat(apellidos.startingWith("Zap", 10)).containsExactly(new LastName("Zapata", 1));
+		assertThat(apellidos.startingWith("Esc", 10)).containsExactly(new LastName("Escobito", 1));
+	}
+
+	@Test
+	@DisplayName("Debería conservar los cambios hechos mientras se cargan los apellidos")
+	void load_ShouldApplyChangesMadeWhileLoading() {
+		// Arrange
+		when(ownerRepository.findLastNameCounts()).thenAnswer(invocacion -> {
+			apellidos.rename("Coleman", "Colmenares");
+			return List.of(conteo("Coleman", 1));
+		});
+		when(ownerRepository.findLastNameCountsIn(Set.of("Coleman", "Colmenares")))
+			.thenReturn(List.of(conteo("Colmenares", 1)));
+		// Act
+		apellidos.load();
+		// Assert
+		assertThat(apellidos.startingWith("Col", 10)).containsExactly(new LastName("Colmenares", 1));
+	}
+
+	@Test
+	@DisplayName("Debería no descontar dos veces un cambio que la carga ya vio")
+	void load_ShouldNotApplyChangeTwice_WhenSnapshotAlreadyHasIt() {
+		// Arrange
+		when(ownerRepository.findLastNameCounts()).thenAnswer(invocacion -> {
+			apellidos.rename("Coleman", "Colmenares");
+			return List.of(conteo("Coleman", 1), conteo("Colmenares", 1));
+		});
+		when(ownerRepository.findLastNameCountsIn(Set.of("Coleman", "Colmenares")))
+			.thenReturn(List.of(conteo("Coleman", 1), conteo("Colmenares", 1)));
+		// Act
+		apellidos.load();
+		// Assert
+		assertThat(apellidos.startingWith("Col", 10)).containsExactly(new LastName("Coleman", 1),
+				new LastName("Colmenares", 1));
+	}
+
+	@Test
+	@DisplayName("Debería contar de nuevo los apellidos cambiados mientras se contaban de nuevo")
+	void load_ShouldRecountAgain_WhenNamesChangeDuringRecount() {
+		// Arrange
+		when(ownerRepository.findLastNameCounts()).thenAnswer(invocacion -> {
+			apellidos.rename(null, "Zapata");
+			return List.of(conteo("Coleman", 1));
+		});
+		when(ownerRepository.findLastNameCountsIn(Set.of("Zapata"))).thenAnswer(invocacion -> {
+			apellidos.rename("Coleman", "Zapata");
+			return List.of(conteo("Zapata", 1));
+		});
+		when(ownerRepository.findLastNameCountsIn(Set.of("Coleman", "Zapata")))
+			.thenReturn(List.of(conteo("Zapata", 2)));
+		// Act
+		apellidos.load();
+		// Assert
+		assertThat(apellidos.startingWith("Col", 10)).isEmpty();
+		assertThat(apellidos.startingWith("Zap", 10)).containsExactly(new LastName("Zapata", 2));
+	}
+
+	private static OwnerRepository.LastNameCount conteo(String apellido, long owners) {
+		return new OwnerRepository.LastNameCount() {
+
+			@Override
+			public String getLastName() {
+				return apellido;
+			}
+
+			@Override
+			public long getOwners() {
+				return owners;
+			}
+
+		};
+	}
+
+}
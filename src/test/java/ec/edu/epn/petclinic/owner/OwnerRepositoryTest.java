@@ -2,15 +2,27 @@ package ec.edu.epn.petclinic.owner;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import jakarta.persistence.Persistence;
+import jakarta.persistence.PersistenceUtil;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.test.context.ActiveProfiles;
 
 /**
@@ -53,77 +65,61 @@ class OwnerRepositoryTest {
     // -Búsqueda por apellido
 
     @Test
-    @DisplayName("findByLastNameStartingWith - Debería retornar owners que empiecen con 'Davis'")
-    void findByLastNameStartingWith_ShouldReturnOwners_WhenLastNameMatches() {
+    @DisplayName("findSummariesByLastNameStartingWith - Debería retornar owners que empiecen con 'Davis'")
+    void findSummariesByLastNameStartingWith_ShouldReturnOwners_WhenLastNameMatches() {
         // Arrange
         String apellido = "Davis";
         Pageable paginacion = PageRequest.of(0, 10);
         // Act
-        Page<Owner> ownersDavis = ownerRepository.findByLastNameStartingWith(apellido, paginacion);
+        Slice<OwnerSummary> ownersDavis = ownerRepository.findSummariesByLastNameStartingWith(apellido, paginacion);
         // Assert
         assertThat(ownersDavis.getContent()).hasSize(2);
         assertThat(ownersDavis.getContent())
-                .extracting(Owner::getLastName)
+                .extracting(OwnerSummary::lastName)
                 .containsOnly("Davis");
     }
 
     @Test
-    @DisplayName("findByLastNameStartingWith - Debería retornar owners con apellido parcial 'Dav'")
-    void findByLastNameStartingWith_ShouldReturnOwners_WhenPartialLastNameMatches() {
+    @DisplayName("findSummariesByLastNameStartingWith - Debería retornar owners con apellido parcial 'Dav'")
+    void findSummariesByLastNameStartingWith_ShouldReturnOwners_WhenPartialLastNameMatches() {
         // Arrange
         String apellidoParcial = "Dav";
         Pageable paginacion = PageRequest.of(0, 10);
         // Act
-        Page<Owner> coincidencias = ownerRepository.findByLastNameStartingWith(apellidoParcial, paginacion);
+        Slice<OwnerSummary> coincidencias = ownerRepository.findSummariesByLastNameStartingWith(apellidoParcial,
+                paginacion);
         // Assert
         assertThat(coincidencias.getContent()).hasSize(2);
         assertThat(coincidencias.getContent())
-                .extracting(Owner::getLastName)
+                .extracting(OwnerSummary::lastName)
                 .allMatch(nombre -> nombre.startsWith("Dav"));
     }
 
     @Test
-    @DisplayName("findByLastNameStartingWith - Debería retornar lista vacía cuando no hay coincidencias")
-    void findByLastNameStartingWith_ShouldReturnEmpty_WhenNoMatch() {
+    @DisplayName("findSummariesByLastNameStartingWith - Debería retornar lista vacía cuando no hay coincidencias")
+    void findSummariesByLastNameStartingWith_ShouldReturnEmpty_WhenNoMatch() {
         // Arrange
         String apellidoRaro = "Zzz";
         Pageable paginacion = PageRequest.of(0, 10);
         // Act
-        Page<Owner> sinCoincidencias = ownerRepository.findByLastNameStartingWith(apellidoRaro, paginacion);
+        Slice<OwnerSummary> sinCoincidencias = ownerRepository.findSummariesByLastNameStartingWith(apellidoRaro,
+                paginacion);
         // Assert
         assertThat(sinCoincidencias.getContent()).isEmpty();
-        assertThat(sinCoincidencias.getTotalElements()).isZero();
+        assertThat(sinCoincidencias.hasNext()).isFalse();
     }
 
     @Test
-    @DisplayName("findByLastNameStartingWith - Debería retornar todos los owners con string vacío")
-    void findByLastNameStartingWith_ShouldReturnAllOwners_WhenEmptyString() {
+    @DisplayName("findSummariesByLastNameStartingWith - Debería retornar todos los owners con string vacío")
+    void findSummariesByLastNameStartingWith_ShouldReturnAllOwners_WhenEmptyString() {
         // Arrange
         Pageable paginacion = PageRequest.of(0, 20);
         // Act
-        Page<Owner> todos = ownerRepository.findByLastNameStartingWith("", paginacion);
+        Slice<OwnerSummary> todos = ownerRepository.findSummariesByLastNameStartingWith("", paginacion);
         // Assert
         assertThat(todos.getContent()).hasSize(10);
     }
 
-    // Paginación
-
-    @Test
-    @DisplayName("findByLastNameStartingWith - Debería paginar correctamente")
-    void findByLastNameStartingWith_ShouldPaginateCorrectly() {
-        // Arrange
-        Pageable paginaUno = PageRequest.of(0, 5);
-        Pageable paginaDos = PageRequest.of(1, 5);
-        // Act
-        Page<Owner> primeraPagina = ownerRepository.findByLastNameStartingWith("", paginaUno);
-        Page<Owner> segundaPagina = ownerRepository.findByLastNameStartingWith("", paginaDos);
-        // Assert
-        assertThat(primeraPagina.getContent()).hasSize(5);
-        assertThat(segundaPagina.getContent()).hasSize(5);
-        assertThat(primeraPagina.getTotalElements()).isEqualTo(10);
-        assertThat(primeraPagina.getTotalPages()).isEqualTo(2);
-    }
-
     // Persistencia de nuevos owners
 
     @Test
@@ -163,6 +159,24 @@ class OwnerRepositoryTest {
         assertThat(actualizado.getFirstName()).isNotEqualTo(nombreOriginal);
     }
 
+    @Test
+    @DisplayName("save - Debería incrementar la versión del Owner o de la mascota que cambió")
+    void save_ShouldIncrementVersion_OfChangedOwnerOrPet() {
+        // Arrange
+        Owner owner = ownerRepository.findWithPetsById(6).orElseThrow();
+        Pet mascota = owner.getPet(7);
+        assertThat(owner.getVersion()).isZero();
+        // Act
+        owner.setCity("Quito");
+        ownerRepository.saveAndFlush(owner);
+        mascota.setName("Samy");
+        ownerRepository.saveAndFlush(owner);
+        // Assert
+        assertThat(owner.getVersion()).isEqualTo(1);
+        assertThat(mascota.getVersion()).isEqualTo(1);
+        assertThat(owner.getPet(8).getVersion()).isZero();
+    }
+
     // Relación Owner-Pet
 
     @Test
@@ -197,4 +211,238 @@ class OwnerRepositoryTest {
         assertThat(recuperado).isPresent();
         assertThat(recuperado.get().getPets()).isEmpty();
     }
+
+    // Grafos de entidad
+
+    @Test
+    @DisplayName("findById - No debería cargar las mascotas (grafo owner-summary)")
+    void findById_ShouldNotLoadPets() {
+        // Arrange
+        PersistenceUtil persistencia = Persistence.getPersistenceUtil();
+        // Act
+        Owner resumen = ownerRepository.findById(6).orElseThrow();
+        // Assert
+        assertThat(persistencia.isLoaded(resumen, "pets")).isFalse();
+    }
+
+    @Test
+    @DisplayName("findWithPetsById - Debería cargar mascotas sin sus visitas")
+    void findWithPetsById_ShouldLoadPetsWithoutVisits() {
+        // Arrange
+        PersistenceUtil persistencia = Persistence.getPersistenceUtil();
+        // Act
+        Owner conMascotas = ownerRepository.findWithPetsById(6).orElseThrow();
+        // Assert
+        assertThat(persistencia.isLoaded(conMascotas, "pets")).isTrue();
+        assertThat(conMascotas.getPets()).hasSize(2);
+        assertThat(conMascotas.getPets())
+                .allSatisfy(mascota -> assertThat(persistencia.isLoaded(mascota, "visits")).isFalse());
+    }
+
+    @Test
+    @DisplayName("findWithPetsAndVisitsById - Debería cargar mascotas y visitas sin duplicados")
+    void findWithPetsAndVisitsById_ShouldLoadWholeAggregate() {
+        // Arrange
+        PersistenceUtil persistencia = Persistence.getPersistenceUtil();
+        // Act
+        Owner completo = ownerRepository.findWithPetsAndVisitsById(6).orElseThrow();
+        // Assert
+        assertThat(completo.getPets())
+                .extracting(Pet::getName)
+                .containsExactly("Max", "Samantha");
+        assertThat(completo.getPets())
+                .allSatisfy(mascota -> {
+                    assertThat(persistencia.isLoaded(mascota, "visits")).isTrue();
+                    assertThat(mascota.getVisits()).hasSize(2);
+                });
+    }
+
+    // Proyección para resultados de búsqueda
+
+    @Test
+    @DisplayName("findSummariesByLastNameStartingWith - Debería agregar los nombres de mascotas ordenados")
+    void findSummariesByLastNameStartingWith_ShouldAggregatePetNames() {
+        // Arrange
+        Pageable paginacion = PageRequest.of(0, 10);
+        // Act
+        Slice<OwnerSummary> resumenes = ownerRepository.findSummariesByLastNameStartingWith("Coleman", paginacion);
+        // Assert
+        assertThat(resumenes.getContent()).hasSize(1);
+        OwnerSummary coleman = resumenes.getContent().get(0);
+        assertThat(coleman.id()).isEqualTo(6);
+        assertThat(coleman.firstName()).isEqualTo("Jean");
+        assertThat(coleman.city()).isEqualTo("Monona");
+        assertThat(coleman.petNames()).isEqualTo("Max, Samantha");
+    }
+
+    @Test
+    @DisplayName("findSummariesByLastNameStartingWith - Debería paginar owners, no mascotas")
+    void findSummariesByLastNameStartingWith_ShouldSliceOwners() {
+        // Arrange
+        Pageable paginaUno = PageRequest.of(0, 5);
+        Pageable paginaDos = PageRequest.of(1, 5);
+        // Act
+        Slice<OwnerSummary> primeraPagina = ownerRepository.findSummariesByLastNameStartingWith("", paginaUno);
+        Slice<OwnerSummary> segundaPagina = ownerRepository.findSummariesByLastNameStartingWith("", paginaDos);
+        // Assert
+        assertThat(primeraPagina.getContent()).hasSize(5);
+        assertThat(primeraPagina.hasNext()).isTrue();
+        assertThat(segundaPagina.getContent()).hasSize(5);
+        assertThat(segundaPagina.hasNext()).isFalse();
+        List<OwnerSummary> todos = new ArrayList<>(primeraPagina.getContent());
+        todos.addAll(segundaPagina.getContent());
+        assertThat(todos).extracting(OwnerSummary::id).doesNotHaveDuplicates();
+        assertThat(todos).extracting(OwnerSummary::lastName).isSorted();
+    }
+
+    @Test
+    @DisplayName("countByLastNameStartingWith - Debería contar owners por prefijo de apellido")
+    void countByLastNameStartingWith_ShouldCountOwnersByPrefix() {
+        // Act & Assert
+        assertThat(ownerRepository.countByLastNameStartingWith("")).isEqualTo(10);
+        assertThat(ownerRepository.countByLastNameStartingWith("Davis")).isEqualTo(2);
+        assertThat(ownerRepository.countByLastNameStartingWith("Zz")).isZero();
+    }
+
+    @Test
+    @DisplayName("findSummariesByLastNameStartingWith - Debería retornar petNames nulo si no tiene mascotas")
+    void findSummariesByLastNameStartingWith_ShouldReturnNullPetNames_WhenNoPets() {
+        // Arrange
+        Owner sinMascotas = new Owner();
+        sinMascotas.setFirstName("Patricia");
+        sinMascotas.setLastName("Vega");
+        sinMascotas.setAddress("Calle Los Cedros 45");
+        sinMascotas.setCity("Guayaquil");
+        sinMascotas.setTelephone("0987654321");
+        ownerRepository.save(sinMascotas);
+        // Act
+        Slice<OwnerSummary> resumenes = ownerRepository.findSummariesByLastNameStartingWith("Vega",
+                PageRequest.of(0, 5));
+        // Assert
+        assertThat(resumenes.getContent()).singleElement()
+                .satisfies(resumen -> assertThat(resumen.petNames()).isNull());
+    }
+
+    // Paginación por keyset
+
+    @Test
+    @DisplayName("findSummariesByLastNameStartingWith(ScrollPosition) - Debería recorrer owners por apellido e id")
+    void findSummariesByLastNameStartingWith_ShouldScrollByLastNameAndId() {
+        // Act
+        Window<OwnerSummary> primeraVentana = ownerRepository.findSummariesByLastNameStartingWith("",
+                ScrollPosition.keyset(), Limit.of(5));
+        Window<OwnerSummary> segundaVentana = ownerRepository.findSummariesByLastNameStartingWith("",
+                primeraVentana.positionAt(primeraVentana.size() - 1), Limit.of(5));
+        // Assert
+        assertThat(primeraVentana.getContent())
+                .extracting(OwnerSummary::lastName)
+                .containsExactly("Black", "Coleman", "Davis", "Davis", "Escobito");
+        assertThat(primeraVentana.getContent())
+                .extracting(OwnerSummary::id)
+                .startsWith(7, 6, 2, 4);
+        assertThat(primeraVentana.hasNext()).isTrue();
+        assertThat(segundaVentana.getContent())
+                .extracting(OwnerSummary::lastName)
+                .containsExactly("Estaban", "Franklin", "McTavish", "Rodriquez", "Schroeder");
+        assertThat(segundaVentana.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("findSummariesByLastNameStartingWith(ScrollPosition) - Debería incluir los nombres de mascotas")
+    void findSummariesByLastNameStartingWith_ShouldIncludePetNamesInWindow() {
+        // Act
+        Window<OwnerSummary> ventana = ownerRepository.findSummariesByLastNameStartingWith("Coleman",
+                ScrollPosition.keyset(), Limit.of(5));
+        // Assert
+        assertThat(ventana.getContent()).singleElement()
+                .satisfies(resumen -> assertThat(resumen.petNames()).isEqualTo("Max, Samantha"));
+        assertThat(ventana.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("findLastNameCounts - Debería contar owners por apellido")
+    void findLastNameCounts_ShouldCountOwnersPerLastName() {
+        // Act
+        Map<String, Long> conteos = ownerRepository.findLastNameCounts().stream()
+                .collect(Collectors.toMap(OwnerRepository.LastNameCount::getLastName,
+                        OwnerRepository.LastNameCount::getOwners));
+        // Assert
+        assertThat(conteos).hasSize(9).containsEntry("Davis", 2L).containsEntry("Franklin", 1L);
+    }
+
+    @Test
+    @DisplayName("findLastNameCountsIn - Debería contar solo los apellidos pedidos que aún existen")
+    void findLastNameCountsIn_ShouldCountRequestedLastNames() {
+        // Act
+        Map<String, Long> conteos = ownerRepository.findLastNameCountsIn(Set.of("Davis", "Franklin", "Zapata"))
+                .stream()
+                .collect(Collectors.toMap(OwnerRepository.LastNameCount::getLastName,
+                        OwnerRepository.LastNameCount::getOwners));
+        // Assert
+        assertThat(conteos).containsOnly(Map.entry("Davis", 2L), Map.entry("Franklin", 1L));
+    }
+
+    // Actualización con control de versión
+
+    @Test
+    @DisplayName("updateDetails - Debería actualizar el Owner e incrementar su versión")
+    void updateDetails_ShouldUpdateOwnerAndIncrementVersion() {
+        // Arrange
+        Owner editado = ownerEditado(0);
+        // Act
+        int actualizados = ownerRepository.updateDetails(editado);
+        // Assert
+        Owner guardado = ownerRepository.findById(1).orElseThrow();
+        assertThat(actualizados).isEqualTo(1);
+        assertThat(guardado.getCity()).isEqualTo("Quito");
+        assertThat(guardado.getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("updateDetails - No debería actualizar cuando el Owner cambió desde que se leyó")
+    void updateDetails_ShouldNotUpdate_WhenVersionIsStale() {
+        // Act
+        int actualizados = ownerRepository.updateDetails(ownerEditado(3));
+        // Assert
+        Owner guardado = ownerRepository.findById(1).orElseThrow();
+        assertThat(actualizados).isZero();
+        assertThat(guardado.getCity()).isEqualTo("Madison");
+        assertThat(guardado.getVersion()).isZero();
+    }
+
+    @Test
+    @DisplayName("updatePetDetails - Debería actualizar solo la mascota cuando su versión coincide")
+    void updatePetDetails_ShouldUpdatePet_OnlyWhenVersionMatches() {
+        // Arrange
+        PetType gato = new PetType();
+        gato.setId(1);
+        Pet editada = new Pet();
+        editada.setId(7);
+        editada.setName("Samy");
+        editada.setBirthDate(LocalDate.of(2012, 9, 4));
+        editada.setType(gato);
+        editada.setVersion(0);
+        // Act
+        int primera = ownerRepository.updatePetDetails(editada);
+        int repetida = ownerRepository.updatePetDetails(editada);
+        // Assert
+        Owner owner = ownerRepository.findWithPetsById(6).orElseThrow();
+        assertThat(primera).isEqualTo(1);
+        assertThat(repetida).isZero();
+        assertThat(owner.getPet(7).getName()).isEqualTo("Samy");
+        assertThat(owner.getPet(7).getVersion()).isEqualTo(1);
+        assertThat(owner.getVersion()).isZero();
+    }
+
+    private static Owner ownerEditado(int version) {
+        Owner owner = new Owner();
+        owner.setId(1);
+        owner.setFirstName("George");
+        owner.setLastName("Franklin");
+        owner.setAddress("110 W. Liberty St.");
+        owner.setCity("Quito");
+        owner.setTelephone("6085551023");
+        owner.setVersion(version);
+        return owner;
+    }
 }
@@ -0,0 +1,123 @@
+package ec.edu.epn.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Pruebas unitarias de la resolución de owners por request.
+ */
+class OwnerResolverTest {
+
+	private OwnerRepository ownerRepository;
+
+	private OwnerResolver ownerResolver;
+
+	private Owner owner;
+
+	@BeforeEach
+	void setUp() {
+		owner = new Owner();
+		owner.setId(1);
+		owner.setLastName("Franklin");
+		ownerRepository = mock(OwnerRepository.class);
+		when(ownerRepository.findById(1)).thenReturn(Optional.of(owner));
+		when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(owner));
+		when(ownerRepository.findWithPetsAndVisitsById(1)).thenReturn(Optional.of(owner));
+		ownerResolver = new OwnerResolver(ownerRepository);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	@DisplayName("Debería cargar el owner una sola vez dentro del mismo request")
+	void findOwnerWithPets_ShouldLoadOncePerRequest() {
+		// Act
+		Owner primero = ownerResolver.findOwnerWithPets(1);
+		Owner segundo = ownerResolver.findOwnerWithPets(1);
+		// Assert
+		assertThat(segundo).isSameAs(primero);
+		verify(ownerRepository, times(1)).findWithPetsById(1);
+	}
+
+	@Test
+	@DisplayName("Debería reutilizar un agregado más completo para consultas menores")
+	void findOwner_ShouldReuseLargerAggregate() {
+		// Act
+		ownerResolver.findOwnerWithPetsAndVisits(1);
+		ownerResolver.findOwnerWithPets(1);
+		ownerResolver.findOwner(1);
+		// Assert
+		verify(ownerRepository, times(1)).findWithPetsAndVisitsById(1);
+		verify(ownerRepository, never()).findWithPetsById(anyInt());
+		verify(ownerRepository, never()).findById(anyInt());
+	}
+
+	@Test
+	@DisplayName("Debería recordar el apellido guardado aunque el formulario lo cambie")
+	void findStoredLastName_ShouldReturnLastNameBeforeBinding() {
+		// Arrange
+		Owner cargado = ownerResolver.findOwner(1);
+		cargado.setLastName("Frankston");
+		// Act
+		String apellido = ownerResolver.findStoredLastName(1);
+		// Assert
+		assertThat(apellido).isEqualTo("Franklin");
+		verify(ownerRepository, times(1)).findById(1);
+	}
+
+	@Test
+	@DisplayName("Debería recargar cuando se pide una parte mayor del agregado")
+	void findOwnerWithPets_ShouldReload_WhenOnlyOwnerWasLoaded() {
+		// Act
+		ownerResolver.findOwner(1);
+		ownerResolver.findOwnerWithPets(1);
+		ownerResolver.findOwnerWithPets(1);
+		// Assert
+		verify(ownerRepository, times(1)).findById(1);
+		verify(ownerRepository, times(1)).findWithPetsById(1);
+	}
+
+	@Test
+	@DisplayName("Debería consultar el repositorio en cada llamada fuera de un request")
+	void findOwnerWithPets_ShouldNotCache_OutsideRequest() {
+		// Arrange
+		RequestContextHolder.resetRequestAttributes();
+		// Act
+		ownerResolver.findOwnerWithPets(1);
+		ownerResolver.findOwnerWithPets(1);
+		// Assert
+		verify(ownerRepository, times(2)).findWithPetsById(1);
+	}
+
+	@Test
+	@DisplayName("Debería lanzar excepción cuando el owner no existe")
+	void findOwner_ShouldThrowException_WhenOwnerNotFound() {
+		// Arrange
+		when(ownerRepository.findById(999)).thenReturn(Optional.empty());
+		// Act & Assert
+		IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+				() -> ownerResolver.findOwner(999));
+		assertThat(error.getMessage()).contains("999");
+	}
+
+}
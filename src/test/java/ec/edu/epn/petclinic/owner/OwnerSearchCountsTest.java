@@ -0,0 +1,139 @@
+package ec.edu.epn.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+/**
+ * Pruebas unitarias del conteo aproximado de owners por prefijo de apellido.
+ */
+class OwnerSearchCountsTest {
+
+	private final Clock reloj = Clock.fixed(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+	private OwnerRepository ownerRepository;
+
+	@BeforeEach
+	void setUp() {
+		ownerRepository = mock(OwnerRepository.class);
+		when(ownerRepository.countByLastNameStartingWith("Davis")).thenReturn(2L);
+	}
+
+	@Test
+	@DisplayName("Debería responder vacío la primera vez y el conteo después del refresco")
+	void approximateCount_ShouldBeEmptyUntilRefreshed() {
+		// Arrange
+		TaskExecutor pendiente = mock(TaskExecutor.class);
+		OwnerSearchCounts conteos = new OwnerSearchCounts(ownerRepository, pendiente, Duration.ofMinutes(1), reloj);
+		OwnerSearchCounts conteosSincronos = new OwnerSearchCounts(ownerRepository, new SyncTaskExecutor(),
+				Duration.ofMinutes(1), reloj);
+		// Act
+		OptionalLong sinRefrescar = conteos.approximateCount("Davis");
+		conteosSincronos.approximateCount("Davis");
+		OptionalLong refrescado = conteosSincronos.approximateCount("Davis");
+		// Assert
+		assertThat(sinRefrescar).isEmpty();
+		verify(pendiente).execute(any(Runnable.class));
+		assertThat(refrescado).hasValue(2L);
+		verify(ownerRepository, times(1)).countByLastNameStartingWith("Davis");
+	}
+
+	@Test
+	@DisplayName("Debería programar un solo refresco por prefijo mientras esté pendiente")
+	void approximateCount_ShouldNotScheduleDuplicateRefreshes() {
+		// Arrange
+		TaskExecutor pendiente = mock(TaskExecutor.class);
+		OwnerSearchCounts conteos = new OwnerSearchCounts(ownerRepository, pendiente, Duration.ofMinutes(1), reloj);
+		// Act
+		conteos.approximateCount("Davis");
+		conteos.approximateCount("Davis");
+		// Assert
+		verify(pendiente, times(1)).execute(any(Runnable.class));
+	}
+
+	@Test
+	@DisplayName("Debería seguir respondiendo el conteo anterior mientras refresca uno vencido")
+	void approximateCount_ShouldServeExpiredCountWhileRefreshing() {
+		// Arrange
+		OwnerSearchCounts conteos = new OwnerSearchCounts(ownerRepository, new SyncTaskExecutor(), Duration.ZERO,
+				reloj);
+		conteos.approximateCount("Davis");
+		when(ownerRepository.countByLastNameStartingWith("Davis")).thenReturn(3L);
+		// Act
+		OptionalLong vencido = conteos.approximateCount("Davis");
+		OptionalLong actualizado = conteos.approximateCount("Davis");
+		// Assert
+		assertThat(vencido).hasValue(2L);
+		assertThat(actualizado).hasValue(3L);
+	}
+
+	@Test
+	@DisplayName("Debería olvidar los conteos al invalidar")
+	void invalidate_ShouldForgetCounts() {
+		// Arrange
+		OwnerSearchCounts conteos = new OwnerSearchCounts(ownerRepository, new SyncTaskExecutor(),
+				Duration.ofMinutes(1), reloj);
+		conteos.approximateCount("Davis");
+		assertThat(conteos.approximateCount("Davis")).hasValue(2L);
+		// Act
+		conteos.invalidate();
+		// Assert
+		assertThat(conteos.approximateCount("Davis")).isEmpty();
+		verify(ownerRepository, times(2)).countByLastNameStartingWith("Davis");
+	}
+
+	@Test
+	@DisplayName("Debería descartar un refresco que empezó antes de invalidar")
+	void invalidate_ShouldDiscardRefreshStartedBefore() {
+		// Arrange
+		List<Runnable> pendientes = new ArrayList<>();
+		OwnerSearchCounts conteos = new OwnerSearchCounts(ownerRepository, pendientes::add, Duration.ofMinutes(1),
+				reloj);
+		when(ownerRepository.countByLastNameStartingWith("Davis")).thenAnswer(invocacion -> {
+			conteos.invalidate();
+			return 2L;
+		});
+		conteos.approximateCount("Davis");
+		// Act
+		pendientes.remove(0).run();
+		// Assert
+		assertThat(conteos.approximateCount("Davis")).isEmpty();
+		assertThat(pendientes).hasSize(1);
+	}
+
+	@Test
+	@DisplayName("Debería reintentar en una consulta posterior si el executor rechaza el refresco")
+	void approximateCount_ShouldRetry_WhenExecutorRejects() {
+		// Arrange
+		TaskExecutor saturado = mock(TaskExecutor.class);
+		doThrow(new TaskRejectedException("saturado")).when(saturado).execute(any(Runnable.class));
+		OwnerSearchCounts conteos = new OwnerSearchCounts(ownerRepository, saturado, Duration.ofMinutes(1), reloj);
+		// Act
+		conteos.approximateCount("Davis");
+		conteos.approximateCount("Davis");
+		// Assert
+		verify(saturado, times(2)).execute(any(Runnable.class));
+		verify(ownerRepository, never()).countByLastNameStartingWith("Davis");
+	}
+
+}
@@ -0,0 +1,198 @@
+package ec.edu.epn.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.autoconfigure.JdbcTemplateAutoConfiguration;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Tests de integración del índice de búsqueda de owners sobre los datos de ejemplo.
+ */
+@DataJpaTest
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+@ActiveProfiles("test")
+class OwnerSearchIndexTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private SimpleMeterRegistry registry;
+
+    private OwnerSearchIndex indice;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        indice = new OwnerSearchIndex(jdbcTemplate, new SyncTaskExecutor(), registry, "", Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        indice.destroy();
+    }
+
+    @Test
+    @DisplayName("isReady - Debería estar listo solo después de construir el índice")
+    void isReady_ShouldBeTrueAfterRebuild() {
+        // Assert
+        assertThat(indice.isReady()).isFalse();
+        // Act
+        indice.scheduleRebuild();
+        // Assert
+        assertThat(indice.isReady()).isTrue();
+    }
+
+    @Test
+    @DisplayName("search - Debería encontrar por prefijo y ordenar apellidos antes que nombres")
+    void search_ShouldMatchPrefixAndRankLastNamesFirst() {
+        // Arrange
+        indice.rebuild();
+        // Act
+        List<Integer> ids = indice.search("dav", 10).ownerIds();
+        // Assert
+        assertThat(ids).hasSize(3);
+        assertThat(ids.subList(0, 2)).containsExactlyInAnyOrder(2, 4);
+        assertThat(ids.get(2)).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("search - Debería tolerar errores de escritura")
+    void search_ShouldMatchMisspelledNames() {
+        // Arrange
+        indice.rebuild();
+        // Act & Assert
+        assertThat(indice.search("Frankiln", 10).ownerIds()).containsExactly(1);
+        assertThat(indice.search("escobitto", 10).ownerIds()).containsExactly(8);
+        assertThat(indice.search("Rodríquez", 10).ownerIds()).containsExactly(3);
+    }
+
+    @Test
+    @DisplayName("search - Debería ordenar coincidencias exactas antes que aproximadas")
+    void search_ShouldRankExactMatchesFirst() {
+        // Arrange
+        indice.rebuild();
+        // Act
+        List<Integer> ids = indice.search("Davis", 10).ownerIds();
+        // Assert
+        assertThat(ids.subList(0, 2)).containsExactlyInAnyOrder(2, 4);
+    }
+
+    @Test
+    @DisplayName("search - Debería encontrar por nombre de mascota y exigir todas las palabras")
+    void search_ShouldMatchPetNamesAndRequireAllWords() {
+        // Arrange
+        indice.rebuild();
+        // Act & Assert
+        assertThat(indice.search("samantha", 10).ownerIds()).containsExactly(6);
+        assertThat(indice.search("jean coleman", 10).ownerIds()).containsExactly(6);
+        assertThat(indice.search("jean franklin", 10).ownerIds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("search - Debería encontrar por teléfono, completo o por sus últimos dígitos")
+    void search_ShouldMatchTelephoneNumbers() {
+        // Arrange
+        indice.rebuild();
+        // Act & Assert
+        assertThat(indice.search("(608) 555-1023", 10).ownerIds()).containsExactly(1);
+        assertThat(indice.search("1749", 10).ownerIds()).containsExactly(2);
+        assertThat(indice.search("608555", 20).ownerIds()).hasSize(10);
+        assertThat(indice.search("608555", 3).ownerIds()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("search - Debería devolver vacío cuando la consulta no tiene palabras")
+    void search_ShouldReturnEmpty_WhenQueryBlank() {
+        // Arrange
+        indice.rebuild();
+        // Act & Assert
+        assertThat(indice.search("  ", 10).ownerIds()).isEmpty();
+        assertThat(indice.search("--", 10).ownerIds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("search - Debería marcar y contar el resultado cuando se agota el tiempo")
+    void search_ShouldFlagAndCountTruncatedResult_WhenTimeoutExceeded() throws Exception {
+        // Arrange
+        indice.destroy();
+        indice = new OwnerSearchIndex(jdbcTemplate, new SyncTaskExecutor(), registry, "", Duration.ZERO);
+        indice.rebuild();
+        // Act
+        OwnerSearchIndex.Hits hits = indice.search("davis", 10);
+        // Assert
+        assertThat(hits.truncated()).isTrue();
+        assertThat(registry.get("petclinic.owners.search.truncated").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("search - Debería no marcar el resultado cuando termina a tiempo")
+    void search_ShouldNotFlagResult_WhenWithinTimeout() {
+        // Arrange
+        indice.rebuild();
+        // Act
+        OwnerSearchIndex.Hits hits = indice.search("davis", 10);
+        // Assert
+        assertThat(hits.truncated()).isFalse();
+        assertThat(registry.get("petclinic.owners.search.truncated").counter().count()).isZero();
+        assertThat(registry.get("petclinic.owners.search.index.size").gauge().value()).isPositive();
+    }
+
+    @Test
+    @DisplayName("update - Debería reflejar cambios y conservar mascotas no cargadas")
+    void update_ShouldReindexOwnerAndKeepPetNames_WhenPetsNotLoaded() {
+        // Arrange
+        indice.rebuild();
+        Owner owner = ownerRepository.findById(6).orElseThrow();
+        entityManager.detach(owner);
+        owner.setLastName("Colmenares");
+        // Act
+        indice.update(owner);
+        // Assert
+        assertThat(indice.search("colmenares", 10).ownerIds()).containsExactly(6);
+        assertThat(indice.search("coleman", 10).ownerIds()).isEmpty();
+        assertThat(indice.search("samantha", 10).ownerIds()).containsExactly(6);
+    }
+
+    @Test
+    @DisplayName("update - Debería indexar owners nuevos con sus mascotas")
+    void update_ShouldIndexNewOwnerWithPets() {
+        // Arrange
+        indice.rebuild();
+        Owner owner = new Owner();
+        owner.setId(100);
+        owner.setFirstName("Ana");
+        owner.setLastName("Núñez");
+        owner.setTelephone("0991234567");
+        Pet mascota = new Pet();
+        mascota.setName("Pelusa");
+        owner.addPet(mascota);
+        // Act
+        indice.update(owner);
+        // Assert
+        assertThat(indice.search("nunez", 10).ownerIds()).containsExactly(100);
+        assertThat(indice.search("pelusa", 10).ownerIds()).containsExactly(100);
+        assertThat(indice.search("099123", 10).ownerIds()).containsExactly(100);
+    }
+
+}
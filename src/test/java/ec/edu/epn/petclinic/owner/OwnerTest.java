@@ -384,4 +384,85 @@ class OwnerTest {
 		}
 	}
 
+	@Nested
+	@DisplayName("Índice de mascotas - Consistencia de búsquedas")
+	class PetIndexTests {
+
+		@Test
+		@DisplayName("Debería encontrar por ID una mascota que recibió su ID después de agregarse")
+		void getPet_ShouldFindById_WhenIdAssignedAfterAdd() {
+			// Arrange
+			Pet mascota = new Pet();
+			mascota.setName("Max");
+			owner.addPet(mascota);
+			assertThat(owner.getPet(7)).isNull();
+			// Act
+			mascota.setId(7);
+			// Assert
+			assertThat(owner.getPet(7)).isSameAs(mascota);
+			assertThat(owner.getPet("max", true)).isSameAs(mascota);
+		}
+
+		@Test
+		@DisplayName("Debería encontrar una mascota por su nuevo nombre tras renombrarla")
+		void getPet_ShouldFindByNewName_WhenPetRenamed() {
+			// Arrange
+			Pet mascota = new Pet();
+			mascota.setName("Max");
+			owner.addPet(mascota);
+			assertThat(owner.getPet("Max")).isSameAs(mascota);
+			// Act
+			mascota.setName("Rocky");
+			// Assert
+			assertThat(owner.getPet("Max")).isNull();
+			assertThat(owner.getPet("ROCKY")).isSameAs(mascota);
+		}
+
+		@Test
+		@DisplayName("Debería ver mascotas agregadas directamente a la lista")
+		void getPet_ShouldSeePetsAddedToList() {
+			// Arrange
+			Pet max = new Pet();
+			max.setName("Max");
+			owner.addPet(max);
+			assertThat(owner.getPet("Bella")).isNull();
+			Pet bella = new Pet();
+			bella.setId(3);
+			bella.setName("Bella");
+			// Act
+			owner.getPets().add(bella);
+			// Assert
+			assertThat(owner.getPet("bella")).isSameAs(bella);
+			assertThat(owner.getPet(3)).isSameAs(bella);
+		}
+
+		@Test
+		@DisplayName("Debería retornar la primera mascota con el nombre cuando hay repetidos")
+		void getPet_ShouldReturnFirstPet_WhenNameRepeated() {
+			// Arrange
+			Pet existente = new Pet();
+			existente.setId(1);
+			existente.setName("Max");
+			owner.getPets().add(existente);
+			Pet nueva = new Pet();
+			nueva.setName("max");
+			owner.addPet(nueva);
+			// Act & Assert
+			assertThat(owner.getPet("MAX")).isSameAs(existente);
+			assertThat(owner.getPet("MAX", true)).isSameAs(existente);
+		}
+
+		@Test
+		@DisplayName("Debería retornar null al buscar un ID o nombre nulo")
+		void getPet_ShouldReturnNull_WhenKeyIsNull() {
+			// Arrange
+			Pet mascota = new Pet();
+			mascota.setId(1);
+			owner.getPets().add(mascota);
+			// Act & Assert
+			assertThat(owner.getPet((Integer) null)).isNull();
+			assertThat(owner.getPet((String) null)).isNull();
+		}
+	}
+
 }
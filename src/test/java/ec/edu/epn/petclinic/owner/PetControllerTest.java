@@ -1,11 +1,18 @@
 package ec.edu.epn.petclinic.owner;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -24,25 +31,34 @@ import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MockMvc;
 
 /**
  * Validación del controlador de mascotas con MockMvc.
  */
 @WebMvcTest(PetController.class)
-@Import(PetTypeFormatter.class)
+@Import({ PetTypeFormatter.class, PetTypeRegistry.class, OwnerResolver.class })
 @ActiveProfiles("test")
+@RecordApplicationEvents
 class PetControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ApplicationEvents eventos;
+
     @MockitoBean
     private OwnerRepository ownerRepository;
 
     @MockitoBean
     private PetTypeRepository petTypeRepository;
 
+    @Autowired
+    private PetTypeRegistry petTypeRegistry;
+
     private Owner propietarioBase;
     private Pet animalExistente;
     private PetType tipoPerro;
@@ -69,6 +85,8 @@ class PetControllerTest {
         animalExistente.setName("Leo");
         animalExistente.setBirthDate(LocalDate.of(2020, 5, 15));
         animalExistente.setType(tipoFelino);
+        // el registro es compartido entre tests: se recarga desde el mock de cada test
+        petTypeRegistry.invalidate();
     }
 
     // alta de nueva mascota
@@ -81,7 +99,7 @@ class PetControllerTest {
         @DisplayName("Debería mostrar formulario de creación de mascota")
         void initCreationForm_ShouldShowPetCreationForm() throws Exception {
             // Arrange
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietarioBase));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietarioBase));
             when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoPerro, tipoFelino));
             // Act & Assert
             mockMvc.perform(get("/owners/{ownerId}/pets/new", 1))
@@ -96,7 +114,7 @@ class PetControllerTest {
         @DisplayName("Debería lanzar excepción cuando owner no existe")
         void initCreationForm_ShouldThrowException_WhenOwnerNotFound()  {
             // Arrange
-            when(ownerRepository.findById(999)).thenReturn(Optional.empty());
+            when(ownerRepository.findWithPetsById(999)).thenReturn(Optional.empty());
             // Act & Assert
             ServletException fallo = assertThrows(ServletException.class,
                     () -> mockMvc.perform(get("/owners/{ownerId}/pets/new", 999)));
@@ -114,7 +132,7 @@ class PetControllerTest {
         @DisplayName("Debería crear mascota y redirigir cuando datos son válidos")
         void processCreationForm_ShouldCreateAndRedirect_WhenValidData() throws Exception {
             // Arrange
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietarioBase));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietarioBase));
             when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoPerro, tipoFelino));
             when(ownerRepository.save(any(Owner.class))).thenReturn(propietarioBase);
             // Act & Assert
@@ -125,13 +143,15 @@ class PetControllerTest {
                     .andExpect(status().is3xxRedirection())
                     .andExpect(redirectedUrl("/owners/1"))
                     .andExpect(flash().attribute("message", "New Pet has been Added"));
+            assertThat(eventos.stream(OwnersChangedEvent.class))
+                    .containsExactly(OwnersChangedEvent.petsChanged(propietarioBase));
         }
 
         @Test
         @DisplayName("Debería mostrar errores cuando name está vacío")
         void processCreationForm_ShouldShowErrors_WhenNameEmpty() throws Exception {
             // Arrange
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietarioBase));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietarioBase));
             when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoPerro, tipoFelino));
             // Act & Assert
             mockMvc.perform(post("/owners/{ownerId}/pets/new", 1)
@@ -147,7 +167,7 @@ class PetControllerTest {
         @DisplayName("Debería mostrar errores cuando birthDate es null")
         void processCreationForm_ShouldShowErrors_WhenBirthDateNull() throws Exception {
             // Arrange
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietarioBase));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietarioBase));
             when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoPerro, tipoFelino));
             // Act & Assert
             mockMvc.perform(post("/owners/{ownerId}/pets/new", 1)
@@ -162,7 +182,7 @@ class PetControllerTest {
         @DisplayName("Debería mostrar errores cuando birthDate está en el futuro")
         void processCreationForm_ShouldShowErrors_WhenBirthDateInFuture() throws Exception {
             // Arrange
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietarioBase));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietarioBase));
             when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoPerro, tipoFelino));
             // Act
             String fechaFutura = LocalDate.now().plusDays(30).toString();
@@ -180,7 +200,7 @@ class PetControllerTest {
         @DisplayName("Debería mostrar errores cuando type es null para pet nuevo")
         void processCreationForm_ShouldShowErrors_WhenTypeNull() throws Exception {
             // Arrange
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietarioBase));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietarioBase));
             when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoPerro, tipoFelino));
             // Act & Assert
             mockMvc.perform(post("/owners/{ownerId}/pets/new", 1)
@@ -200,7 +220,7 @@ class PetControllerTest {
             propietarioBase.addPet(mascotaPrevia);
             mascotaPrevia.setId(10);
             // Act
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietarioBase));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietarioBase));
             when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoPerro, tipoFelino));
             // Assert
             mockMvc.perform(post("/owners/{ownerId}/pets/new", 1)
@@ -224,7 +244,7 @@ class PetControllerTest {
         void initUpdateForm_ShouldShowEditFormWithPetData() throws Exception {
             // Arrange
             propietarioBase.getPets().add(animalExistente);
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietarioBase));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietarioBase));
             when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoPerro, tipoFelino));
             // Act & Assert
             mockMvc.perform(get("/owners/{ownerId}/pets/{petId}/edit", 1, 1))
@@ -247,17 +267,137 @@ class PetControllerTest {
         void processUpdateForm_ShouldUpdateAndRedirect_WhenValidData() throws Exception {
             // Arrange
             propietarioBase.getPets().add(animalExistente);
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietarioBase));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietarioBase));
             when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoPerro, tipoFelino));
-            when(ownerRepository.save(any(Owner.class))).thenReturn(propietarioBase);
+            when(ownerRepository.updatePetDetails(any(Pet.class))).thenReturn(1);
             // Act & Assert
             mockMvc.perform(post("/owners/{ownerId}/pets/{petId}/edit", 1, 1)
+                    .param("version", "4")
                     .param("name", "Leo Updated")
                     .param("birthDate", "2020-05-15")
                     .param("type", "cat"))
                     .andExpect(status().is3xxRedirection())
                     .andExpect(redirectedUrl("/owners/1"))
                     .andExpect(flash().attribute("message", "Pet details has been edited"));
+            verify(ownerRepository).updatePetDetails(argThat(pet -> pet.getId() == 1 && pet.getVersion() == 4));
+            verify(ownerRepository, never()).save(any(Owner.class));
+            assertThat(eventos.stream(OwnersChangedEvent.class))
+                    .containsExactly(OwnersChangedEvent.petsChanged(propietarioBase));
+        }
+
+        @Test
+        @DisplayName("Debería aplicar la versión del formulario solo a la mascota y no al owner")
+        void processUpdateForm_ShouldNotBindPetVersionToOwner() throws Exception {
+            // Arrange
+            propietarioBase.setVersion(2);
+            propietarioBase.getPets().add(animalExistente);
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietarioBase));
+            when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoPerro, tipoFelino));
+            when(ownerRepository.updatePetDetails(any(Pet.class))).thenReturn(1);
+            // Act
+            mockMvc.perform(post("/owners/{ownerId}/pets/{petId}/edit", 1, 1)
+                    .param("version", "4")
+                    .param("name", "Leo Updated")
+                    .param("birthDate", "2020-05-15")
+                    .param("type", "cat"))
+                    .andExpect(status().is3xxRedirection());
+            // Assert
+            verify(ownerRepository).updatePetDetails(argThat(pet -> pet.getVersion() == 4));
+            assertEquals(2, propietarioBase.getVersion());
+        }
+
+        @Test
+        @DisplayName("Debería mostrar de nuevo el formulario con los valores guardados cuando otro usuario cambió la mascota")
+        void processUpdateForm_ShouldShowSavedValues_WhenPetChangedMeanwhile() throws Exception {
+            // Arrange
+            animalExistente.setVersion(4);
+            propietarioBase.getPets().add(animalExistente);
+            Pet guardada = new Pet();
+            guardada.setId(1);
+            guardada.setName("Leonidas");
+            guardada.setBirthDate(LocalDate.of(2020, 5, 15));
+            guardada.setType(tipoFelino);
+            guardada.setVersion(5);
+            Owner recargado = new Owner();
+            recargado.setId(1);
+            recargado.getPets().add(guardada);
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietarioBase))
+                    .thenReturn(Optional.of(recargado));
+            when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoPerro, tipoFelino));
+            when(ownerRepository.updatePetDetails(any(Pet.class))).thenReturn(0);
+            // Act & Assert
+            mockMvc.perform(post("/owners/{ownerId}/pets/{petId}/edit", 1, 1)
+                    .param("version", "4")
+                    .param("name", "Leo Updated")
+                    .param("birthDate", "2020-05-15")
+                    .param("type", "cat"))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("pets/createOrUpdatePetForm"))
+                    .andExpect(model().attributeErrorCount("pet", 1))
+                    .andExpect(model().attribute("currentPet", guardada))
+                    .andExpect(content().string(containsString("Leonidas")))
+                    .andExpect(content().string(containsString("name=\"version\" value=\"5\"")));
+            assertThat(eventos.stream(OwnersChangedEvent.class)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Debería cargar el owner una sola vez por request")
+        void processUpdateForm_ShouldLoadOwnerOnce() throws Exception {
+            // Arrange
+            propietarioBase.getPets().add(animalExistente);
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietarioBase));
+            when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoPerro, tipoFelino));
+            when(ownerRepository.updatePetDetails(any(Pet.class))).thenReturn(1);
+            // Act
+            mockMvc.perform(post("/owners/{ownerId}/pets/{petId}/edit", 1, 1)
+                    .param("name", "Leo Updated")
+                    .param("birthDate", "2020-05-15")
+                    .param("type", "cat"))
+                    .andExpect(status().is3xxRedirection());
+            // Assert
+            verify(ownerRepository, times(1)).findWithPetsById(1);
+        }
+
+        @Test
+        @DisplayName("Debería resolver los tipos de mascota sin consultar en cada request")
+        void processUpdateForm_ShouldNotQueryPetTypesPerRequest() throws Exception {
+            // Arrange
+            propietarioBase.getPets().add(animalExistente);
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietarioBase));
+            when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoPerro, tipoFelino));
+            when(ownerRepository.updatePetDetails(any(Pet.class))).thenReturn(1);
+            // Act
+            for (int i = 0; i < 2; i++) {
+                mockMvc.perform(post("/owners/{ownerId}/pets/{petId}/edit", 1, 1)
+                        .param("name", "Leo Updated")
+                        .param("birthDate", "2020-05-15")
+                        .param("type", "cat"))
+                        .andExpect(status().is3xxRedirection());
+            }
+            // Assert
+            verify(petTypeRepository, times(1)).findPetTypes();
+        }
+
+        @Test
+        @DisplayName("Debería detectar nombre duplicado aunque la mascota editada aparezca primero")
+        void processUpdateForm_ShouldShowErrors_WhenDuplicateNameAndEditedPetListedFirst() throws Exception {
+            // Arrange
+            Pet otraMascota = new Pet();
+            otraMascota.setId(2);
+            otraMascota.setName("Max");
+            otraMascota.setType(tipoPerro);
+            otraMascota.setBirthDate(LocalDate.of(2019, 1, 1));
+            propietarioBase.getPets().add(animalExistente);
+            propietarioBase.getPets().add(otraMascota);
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietarioBase));
+            when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoPerro, tipoFelino));
+            // Act & Assert
+            mockMvc.perform(post("/owners/{ownerId}/pets/{petId}/edit", 1, 1)
+                    .param("name", "Max")
+                    .param("birthDate", "2020-05-15")
+                    .param("type", "cat"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attributeHasFieldErrors("pet", "name"));
         }
 
         @Test
@@ -265,7 +405,7 @@ class PetControllerTest {
         void processUpdateForm_ShouldShowErrors_WhenNameEmpty() throws Exception {
             // Arrange
             propietarioBase.getPets().add(animalExistente);
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietarioBase));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietarioBase));
             when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoPerro, tipoFelino));
             // Act & Assert
             mockMvc.perform(post("/owners/{ownerId}/pets/{petId}/edit", 1, 1)
@@ -282,7 +422,7 @@ class PetControllerTest {
         void processUpdateForm_ShouldShowErrors_WhenBirthDateInFuture() throws Exception {
             // Arrange
             propietarioBase.getPets().add(animalExistente);
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietarioBase));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietarioBase));
             when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoPerro, tipoFelino));
             // Act
             String fechaPosterior = LocalDate.now().plusDays(30).toString();
@@ -308,7 +448,7 @@ class PetControllerTest {
             propietarioBase.getPets().add(otraMascota);
             propietarioBase.getPets().add(animalExistente);
             // Act
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietarioBase));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietarioBase));
             when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoPerro, tipoFelino));
             // Assert
             mockMvc.perform(post("/owners/{ownerId}/pets/{petId}/edit", 1, 1)
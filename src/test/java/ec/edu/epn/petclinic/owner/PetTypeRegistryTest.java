@@ -0,0 +1,79 @@
+package ec.edu.epn.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas unitarias del registro en memoria de tipos de mascota.
+ */
+class PetTypeRegistryTest {
+
+	private PetTypeRepository petTypeRepository;
+
+	private PetTypeRegistry registro;
+
+	private PetType tipoFelino;
+
+	private PetType tipoPerro;
+
+	@BeforeEach
+	void setUp() {
+		tipoFelino = new PetType();
+		tipoFelino.setId(1);
+		tipoFelino.setName("cat");
+		tipoPerro = new PetType();
+		tipoPerro.setId(2);
+		tipoPerro.setName("dog");
+		petTypeRepository = mock(PetTypeRepository.class);
+		when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoFelino, tipoPerro));
+		registro = new PetTypeRegistry(petTypeRepository);
+	}
+
+	@Test
+	@DisplayName("Debería buscar tipos por nombre e id con una sola consulta")
+	void find_ShouldQueryRepositoryOnce() {
+		// Act & Assert
+		assertThat(registro.findByName("dog")).containsSame(tipoPerro);
+		assertThat(registro.findById(1)).containsSame(tipoFelino);
+		assertThat(registro.findByName("Dog")).isEmpty();
+		assertThat(registro.findById(99)).isEmpty();
+		assertThat(registro.findAll()).containsExactly(tipoFelino, tipoPerro);
+		verify(petTypeRepository, times(1)).findPetTypes();
+	}
+
+	@Test
+	@DisplayName("Debería retornar una lista inmutable")
+	void findAll_ShouldReturnImmutableList() {
+		// Act
+		List<PetType> tipos = registro.findAll();
+		// Assert
+		assertThrows(UnsupportedOperationException.class, () -> tipos.add(new PetType()));
+	}
+
+	@Test
+	@DisplayName("Debería recargar los tipos después de invalidar")
+	void invalidate_ShouldReloadOnNextLookup() {
+		// Arrange
+		registro.preload();
+		PetType tipoHamster = new PetType();
+		tipoHamster.setId(3);
+		tipoHamster.setName("hamster");
+		when(petTypeRepository.findPetTypes()).thenReturn(List.of(tipoFelino, tipoPerro, tipoHamster));
+		// Act
+		registro.invalidate();
+		// Assert
+		assertThat(registro.findByName("hamster")).containsSame(tipoHamster);
+		verify(petTypeRepository, times(2)).findPetTypes();
+	}
+
+}
@@ -8,19 +8,25 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
 
 /**
  * Tests de integración para PetTypeRepository.
  * Valida las operaciones sobre tipos de mascota.
  */
 @DataJpaTest
+@Import(PetTypeRegistry.class)
 @ActiveProfiles("test")
 class PetTypeRepositoryTest {
 
     @Autowired
     private PetTypeRepository petTypeRepository;
 
+    @Autowired
+    private PetTypeRegistry petTypeRegistry;
+
     @Test
     @DisplayName("findPetTypes - Debería retornar todos los tipos de mascotas ordenados por nombre")
     void findPetTypes_ShouldReturnAllPetTypesSortedByName() {
@@ -179,4 +185,32 @@ void findPetTypes_ShouldReturnTypesWithValidIdAndName() {
         // Assert
         assertThat(existe).isFalse();
     }
+
+    // -- Invalidación del registro --
+
+    @Test
+    @DisplayName("save/delete - Debería invalidar el registro de tipos al confirmar la transacción")
+    void saveAndDelete_ShouldInvalidateRegistryOnCommit() {
+        // Arrange
+        assertThat(petTypeRegistry.findByName("ferret")).isEmpty();
+        PetType huron = new PetType();
+        huron.setName("ferret");
+        // Act
+        petTypeRepository.saveAndFlush(huron);
+        boolean visibleAntesDelCommit = petTypeRegistry.findByName("ferret").isPresent();
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        boolean visibleDespuesDelCommit = petTypeRegistry.findByName("ferret").isPresent();
+
+        TestTransaction.start();
+        petTypeRepository.delete(petTypeRepository.findById(huron.getId()).orElseThrow());
+        petTypeRepository.flush();
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        // Assert
+        assertThat(visibleAntesDelCommit).isFalse();
+        assertThat(visibleDespuesDelCommit).isTrue();
+        assertThat(petTypeRegistry.findByName("ferret")).isEmpty();
+        assertThat(petTypeRegistry.findAll()).hasSize(6);
+    }
 }
@@ -1,6 +1,10 @@
 package ec.edu.epn.petclinic.owner;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -20,8 +24,11 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MockMvc;
 
 /**
@@ -29,15 +36,23 @@ import org.springframework.test.web.servlet.MockMvc;
  * Cubre escenarios de creación de visitas mediante MockMvc.
  */
 @WebMvcTest(VisitController.class)
+@Import(OwnerResolver.class)
 @ActiveProfiles("test")
+@RecordApplicationEvents
 class VisitControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ApplicationEvents eventos;
+
     @MockitoBean
     private OwnerRepository ownerRepository;
 
+    @MockitoBean
+    private VisitRepository visitRepository;
+
     private Owner propietario;
     private Pet mascotaPrueba;
     private PetType tipoGato;
@@ -71,7 +86,7 @@ class VisitControllerTest {
         @Test
         @DisplayName("Debería mostrar formulario de nueva visita")
         void initNewVisitForm_ShouldShowVisitForm() throws Exception {
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietario));
+            when(ownerRepository.findWithPetsAndVisitsById(1)).thenReturn(Optional.of(propietario));
 
             mockMvc.perform(get("/owners/{ownerId}/pets/{petId}/visits/new", 1, 1))
                     .andExpect(status().isOk())
@@ -84,7 +99,7 @@ class VisitControllerTest {
         @Test
         @DisplayName("Debería lanzar excepción cuando owner no existe")
         void initNewVisitForm_ShouldThrowException_WhenOwnerNotFound()  {
-            when(ownerRepository.findById(999)).thenReturn(Optional.empty());
+            when(ownerRepository.findWithPetsAndVisitsById(999)).thenReturn(Optional.empty());
             ServletException ex = assertThrows(ServletException.class,
                     () -> mockMvc.perform(get("/owners/{ownerId}/pets/{petId}/visits/new", 999, 1)));
             assertInstanceOf(IllegalArgumentException.class, ex.getCause());
@@ -93,7 +108,7 @@ class VisitControllerTest {
         @Test
         @DisplayName("Debería lanzar excepción cuando pet no existe para el owner")
         void initNewVisitForm_ShouldThrowException_WhenPetNotFound()  {
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietario));
+            when(ownerRepository.findWithPetsAndVisitsById(1)).thenReturn(Optional.of(propietario));
             ServletException thrown = assertThrows(ServletException.class,
                     () -> mockMvc.perform(get("/owners/{ownerId}/pets/{petId}/visits/new", 1, 999)));
             assertInstanceOf(IllegalArgumentException.class, thrown.getCause());
@@ -108,8 +123,7 @@ class VisitControllerTest {
         @Test
         @DisplayName("Debería crear visita y redirigir cuando datos son válidos")
         void processNewVisitForm_ShouldCreateAndRedirect_WhenValidData() throws Exception {
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietario));
-            when(ownerRepository.save(any(Owner.class))).thenReturn(propietario);
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietario));
 
             mockMvc.perform(post("/owners/{ownerId}/pets/{petId}/visits/new", 1, 1)
                     .param("date", LocalDate.now().toString())
@@ -117,12 +131,18 @@ class VisitControllerTest {
                     .andExpect(status().is3xxRedirection())
                     .andExpect(redirectedUrl("/owners/1"))
                     .andExpect(flash().attribute("message", "Your visit has been booked"));
+            verify(visitRepository).book(1, LocalDate.now(), "Annual checkup");
+            assertThat(eventos.stream(OwnersChangedEvent.class))
+                    .containsExactly(OwnersChangedEvent.visitBooked(propietario));
+            verify(ownerRepository, never()).save(any(Owner.class));
+            verify(ownerRepository, never()).findWithPetsAndVisitsById(any());
         }
 
         @Test
         @DisplayName("Debería mostrar errores cuando description está vacía")
         void processNewVisitForm_ShouldShowErrors_WhenDescriptionEmpty() throws Exception {
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietario));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietario));
+            when(ownerRepository.findWithPetsAndVisitsById(1)).thenReturn(Optional.of(propietario));
 
             mockMvc.perform(post("/owners/{ownerId}/pets/{petId}/visits/new", 1, 1)
                     .param("date", LocalDate.now().toString())
@@ -130,12 +150,14 @@ class VisitControllerTest {
                     .andExpect(status().isOk())
                     .andExpect(view().name("pets/createOrUpdateVisitForm"))
                     .andExpect(model().attributeHasFieldErrors("visit", "description"));
+            verifyNoInteractions(visitRepository);
         }
 
         @Test
         @DisplayName("Debería mostrar errores cuando description es solo espacios")
         void processNewVisitForm_ShouldShowErrors_WhenDescriptionBlank() throws Exception {
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietario));
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietario));
+            when(ownerRepository.findWithPetsAndVisitsById(1)).thenReturn(Optional.of(propietario));
             mockMvc.perform(post("/owners/{ownerId}/pets/{petId}/visits/new", 1, 1)
                     .param("date", LocalDate.now().toString())
                     .param("description", "   "))
@@ -147,8 +169,7 @@ class VisitControllerTest {
         @Test
         @DisplayName("Debería aceptar visita con fecha pasada")
         void processNewVisitForm_ShouldAccept_WhenDateInPast() throws Exception {
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietario));
-            when(ownerRepository.save(any(Owner.class))).thenReturn(propietario);
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietario));
 
             String fechaAnterior = LocalDate.now().minusDays(7).toString();
 
@@ -162,8 +183,7 @@ class VisitControllerTest {
         @Test
         @DisplayName("Debería aceptar visita con fecha futura")
         void processNewVisitForm_ShouldAccept_WhenDateInFuture() throws Exception {
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietario));
-            when(ownerRepository.save(any(Owner.class))).thenReturn(propietario);
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietario));
 
             String fechaProgramada = LocalDate.now().plusDays(7).toString();
 
@@ -177,8 +197,7 @@ class VisitControllerTest {
         @Test
         @DisplayName("Debería crear visita con descripción larga")
         void processNewVisitForm_ShouldAccept_WhenDescriptionLong() throws Exception {
-            when(ownerRepository.findById(1)).thenReturn(Optional.of(propietario));
-            when(ownerRepository.save(any(Owner.class))).thenReturn(propietario);
+            when(ownerRepository.findWithPetsById(1)).thenReturn(Optional.of(propietario));
 
             String textoExtendido = "This is a very detailed description of the visit " +
                     "including all symptoms observed, treatments administered, " +
@@ -0,0 +1,98 @@
+package ec.edu.epn.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Window;
+import org.springframework.test.context.ActiveProfiles;
+
+import ec.edu.epn.petclinic.system.QueryCounter;
+
+/**
+ * Tests de integración - VisitRepository
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class VisitRepositoryTest {
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Test
+    @DisplayName("insert - Debería registrar la visita de la mascota con una sola sentencia")
+    void insert_ShouldAddVisitToPet_WithOneStatement() {
+        // Arrange
+        LocalDate fecha = LocalDate.of(2024, 3, 1);
+        QueryCounter.start();
+        // Act
+        int filas = visitRepository.insert(8, fecha, "control anual");
+        int sentencias = QueryCounter.stop();
+        // Assert
+        assertThat(filas).isEqualTo(1);
+        assertThat(sentencias).isEqualTo(1);
+        Owner coleman = ownerRepository.findWithPetsAndVisitsById(6).orElseThrow();
+        assertThat(coleman.getPet(8).getVisits())
+                .extracting(Visit::getDate, Visit::getDescription)
+                .contains(tuple(fecha, "control anual"));
+        assertThat(coleman.getPet(8).getVisits()).hasSize(3);
+        assertThat(coleman.getPet(7).getVisits()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("book - Debería registrar la visita e incrementar la versión de la mascota")
+    void book_ShouldAddVisitAndIncrementPetVersion() {
+        // Arrange
+        LocalDate fecha = LocalDate.of(2024, 3, 1);
+        QueryCounter.start();
+        // Act
+        int filas = visitRepository.book(8, fecha, "control anual");
+        int sentencias = QueryCounter.stop();
+        // Assert
+        assertThat(filas).isEqualTo(1);
+        assertThat(sentencias).isEqualTo(2);
+        Owner coleman = ownerRepository.findWithPetsAndVisitsById(6).orElseThrow();
+        assertThat(coleman.getPet(8).getVersion()).isEqualTo(1);
+        assertThat(coleman.getPet(7).getVersion()).isZero();
+        assertThat(coleman.getPet(8).getVisits()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("findRecentByPetIdIn - Debería retornar las visitas más recientes de cada mascota")
+    void findRecentByPetIdIn_ShouldReturnLatestVisitsPerPet() {
+        // Act
+        Map<Integer, Window<Visit>> recientes = visitRepository.findRecentByPetIdIn(List.of(7, 8, 1), 1);
+        // Assert
+        assertThat(recientes.get(7).getContent()).extracting(Visit::getDescription).containsExactly("spayed");
+        assertThat(recientes.get(7).hasNext()).isTrue();
+        assertThat(recientes.get(8).getContent()).extracting(Visit::getDescription).containsExactly("neutered");
+        assertThat(recientes.get(8).hasNext()).isTrue();
+        assertThat(recientes.get(1).getContent()).isEmpty();
+        assertThat(recientes.get(1).hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("findByPetIdOrderByPetIdDescDateDescIdDesc - Debería continuar después de la última visita mostrada")
+    void findByPetIdOrderByPetIdDescDateDescIdDesc_ShouldContinueAfterLastVisit() {
+        // Arrange
+        Window<Visit> primera = visitRepository.findRecentByPetIdIn(List.of(7), 1).get(7);
+        // Act
+        Window<Visit> siguiente = visitRepository.findByPetIdOrderByPetIdDescDateDescIdDesc(7,
+                VisitRepository.position(primera.getContent().get(0)), Limit.of(10));
+        // Assert
+        assertThat(siguiente.getContent()).extracting(Visit::getDate, Visit::getDescription)
+                .containsExactly(tuple(LocalDate.of(2013, 1, 1), "rabies shot"));
+        assertThat(siguiente.hasNext()).isFalse();
+    }
+}
@@ -0,0 +1,55 @@
+package ec.edu.epn.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.cache.autoconfigure.CacheAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+/**
+ * Tests de la topología de caches configurada desde propiedades.
+ */
+class CacheConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(CacheAutoConfiguration.class))
+            .withUserConfiguration(CacheConfiguration.class)
+            .withPropertyValues("spring.cache.type=caffeine",
+                    "spring.cache.caffeine.spec=maximumSize=10",
+                    "petclinic.cache.specs.vets=maximumSize=1,expireAfterWrite=10m,recordStats",
+                    "petclinic.cache.specs.vetPages=maximumSize=200,expireAfterWrite=5m");
+
+    @Test
+    @DisplayName("Debería crear cada cache con su propia especificación de Caffeine")
+    void cacheManager_ShouldApplySpecPerCache() {
+        this.contextRunner.run(context -> {
+            // Arrange
+            CacheManager cacheManager = context.getBean(CacheManager.class);
+            // Act
+            CaffeineCache vets = (CaffeineCache) cacheManager.getCache("vets");
+            CaffeineCache vetPages = (CaffeineCache) cacheManager.getCache("vetPages");
+            // Assert
+            assertThat(cacheManager).isInstanceOf(CaffeineCacheManager.class);
+            assertThat(vets.getNativeCache().policy().eviction().orElseThrow().getMaximum()).isEqualTo(1);
+            assertThat(vets.getNativeCache().policy().isRecordingStats()).isTrue();
+            assertThat(vetPages.getNativeCache().policy().eviction().orElseThrow().getMaximum()).isEqualTo(200);
+            assertThat(vetPages.getNativeCache().policy().isRecordingStats()).isFalse();
+        });
+    }
+
+    @Test
+    @DisplayName("Debería usar la especificación por defecto para caches no configurados")
+    void cacheManager_ShouldUseDefaultSpec_ForOtherCaches() {
+        this.contextRunner.run(context -> {
+            // Act
+            CaffeineCache otra = (CaffeineCache) context.getBean(CacheManager.class).getCache("otra");
+            // Assert
+            assertThat(otra.getNativeCache().policy().eviction().orElseThrow().getMaximum()).isEqualTo(10);
+        });
+    }
+}
@@ -0,0 +1,63 @@
+package ec.edu.epn.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+
+/**
+ * Tests unitarios de las etiquetas agregadas a http.server.requests.
+ */
+class HandlerObservationConventionTest {
+
+    private final HandlerObservationConvention convention = new HandlerObservationConvention();
+
+    @Test
+    @DisplayName("Debería etiquetar el método del controlador y la página pedida")
+    void lowCardinalityKeyValues_ShouldContainHandlerAndPage() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/owners");
+        request.setParameter("page", "7");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new Handlers(), Handlers.class.getMethod("processFindForm")));
+        // Act
+        KeyValues keyValues = convention.getLowCardinalityKeyValues(contexto(request));
+        // Assert
+        assertThat(keyValues).contains(KeyValue.of("handler", "Handlers.processFindForm"),
+                KeyValue.of("page", "3-10"));
+    }
+
+    @Test
+    @DisplayName("Debería usar valores fijos sin controlador ni página válida")
+    void lowCardinalityKeyValues_WithoutHandler_ShouldUseFixedValues() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/resources/css/petclinic.css");
+        request.setParameter("page", "abc");
+        // Act
+        KeyValues keyValues = convention.getLowCardinalityKeyValues(contexto(request));
+        // Assert
+        assertThat(keyValues).contains(KeyValue.of("handler", "none"),
+                KeyValue.of("page", "invalid"));
+    }
+
+    private ServerRequestObservationContext contexto(MockHttpServletRequest request) {
+        return new ServerRequestObservationContext(request, new MockHttpServletResponse());
+    }
+
+    static class Handlers {
+
+        public String processFindForm() {
+            return "owners/ownersList";
+        }
+
+    }
+
+}
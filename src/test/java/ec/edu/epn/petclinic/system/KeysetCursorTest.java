@@ -0,0 +1,63 @@
+package ec.edu.epn.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+/**
+ * Pruebas unitarias para KeysetCursor.
+ */
+class KeysetCursorTest {
+
+    @Test
+    @DisplayName("encode/decode - Debería conservar apellido e id")
+    void encodeDecode_ShouldRoundTripKeys() {
+        // Arrange
+        Map<String, Object> claves = new LinkedHashMap<>();
+        claves.put("lastName", "O'Brien: de la Cruz");
+        claves.put("id", 42);
+        // Act
+        String token = KeysetCursor.encode(ScrollPosition.forward(claves));
+        ScrollPosition posicion = KeysetCursor.decode(token);
+        // Assert
+        assertThat(token).doesNotContain("O'Brien").matches("[A-Za-z0-9_-]+");
+        assertThat(posicion).isInstanceOf(KeysetScrollPosition.class);
+        assertThat(((KeysetScrollPosition) posicion).getKeys())
+                .containsEntry("lastName", "O'Brien: de la Cruz")
+                .containsEntry("id", 42);
+    }
+
+    @Test
+    @DisplayName("decode - Debería retornar la posición inicial con token vacío")
+    void decode_ShouldReturnInitialPosition_WhenTokenEmpty() {
+        // Act
+        ScrollPosition posicion = KeysetCursor.decode("");
+        // Assert
+        assertThat(posicion.isInitial()).isTrue();
+        assertThat(KeysetCursor.encode(posicion)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("decode - Debería lanzar IllegalArgumentException con token inválido")
+    void decode_ShouldThrowException_WhenTokenMalformed() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("no-es-un-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("%%%"));
+    }
+
+    @Test
+    @DisplayName("decodeOrFirst - Debería retornar la posición inicial con token inválido")
+    void decodeOrFirst_ShouldReturnInitialPosition_WhenTokenMalformed() {
+        // Act & Assert
+        assertThat(KeysetCursor.decodeOrFirst("no-es-un-cursor").isInitial()).isTrue();
+        assertThat(KeysetCursor.decodeOrFirst("%%%").isInitial()).isTrue();
+        assertThat(KeysetCursor.decodeOrFirst("MjpMZWFyeQ").isInitial()).isFalse();
+    }
+}
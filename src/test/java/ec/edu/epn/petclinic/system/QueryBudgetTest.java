@@ -0,0 +1,111 @@
+package ec.edu.epn.petclinic.system;
+
+import static ec.edu.epn.petclinic.system.QueryCountMatchers.atMost;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Presupuestos de sentencias SQL por endpoint, para detectar consultas N+1. Los caches se
+ * vacían antes de cada petición para medir el camino a la base de datos.
+ */
+@SpringBootTest(properties = "petclinic.query-count.header=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private QueryCountInterceptor interceptor;
+
+    @Test
+    @DisplayName("Debería buscar propietarios con una sola sentencia")
+    void findOwners_ShouldStayWithinBudget() throws Exception {
+        // Act & Assert
+        this.mockMvc.perform(get("/owners").param("lastName", "")).andExpect(status().isOk()).andExpect(atMost(1));
+        this.mockMvc.perform(get("/owners").param("lastName", "Davis"))
+                .andExpect(status().isOk())
+                .andExpect(atMost(1));
+    }
+
+    @Test
+    @DisplayName("Debería mostrar un propietario con sus mascotas y visitas en pocas sentencias")
+    void showOwner_ShouldStayWithinBudget() throws Exception {
+        // Act & Assert
+        this.mockMvc.perform(get("/owners/6")).andExpect(status().isOk()).andExpect(atMost(3));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Debería registrar una visita sin volver a guardar el propietario")
+    void bookVisit_ShouldStayWithinBudget() throws Exception {
+        // Act & Assert: propietario con sus mascotas, versión de la mascota e inserción de la visita
+        this.mockMvc.perform(post("/owners/6/pets/7/visits/new").param("date", "2024-03-01")
+                .param("description", "control anual"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(atMost(3));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Debería editar un propietario con un solo UPDATE, sin volver a leerlo para fusionarlo")
+    void updateOwner_ShouldStayWithinBudget() throws Exception {
+        // Act & Assert: propietario y actualización con control de versión
+        this.mockMvc.perform(post("/owners/6/edit").param("version", "0")
+                .param("firstName", "Jean")
+                .param("lastName", "Coleman")
+                .param("address", "105 N. Lake St.")
+                .param("city", "Monona")
+                .param("telephone", "6085552654"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(atMost(2));
+    }
+
+    @Test
+    @DisplayName("Debería listar veterinarios sin una consulta por veterinario")
+    void listVets_ShouldStayWithinBudget() throws Exception {
+        // Arrange
+        clearCaches();
+        // Act & Assert
+        this.mockMvc.perform(get("/vets.html")).andExpect(status().isOk()).andExpect(atMost(3));
+        clearCaches();
+        this.mockMvc.perform(get("/vets").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(atMost(1));
+    }
+
+    @Test
+    @DisplayName("Debería acumular estadísticas por patrón de ruta")
+    void statistics_ShouldBeKeyedByPattern() throws Exception {
+        // Arrange
+        this.interceptor.reset();
+        // Act
+        this.mockMvc.perform(get("/owners/1")).andExpect(status().isOk());
+        this.mockMvc.perform(get("/owners/2")).andExpect(status().isOk());
+        // Assert
+        assertThat(this.interceptor.statistics()).containsOnlyKeys("GET /owners/{ownerId}");
+        assertThat(this.interceptor.statistics().get("GET /owners/{ownerId}").requests()).isEqualTo(2);
+        assertThat(this.interceptor.statistics().get("GET /owners/{ownerId}").statements()).isPositive();
+    }
+
+    private void clearCaches() {
+        this.cacheManager.getCacheNames().forEach(name -> this.cacheManager.getCache(name).clear());
+    }
+}
@@ -0,0 +1,30 @@
+package ec.edu.epn.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * Matchers sobre el número de sentencias SQL de una petición, leído de la cabecera
+ * {@value QueryCountInterceptor#HEADER}. Requieren {@code petclinic.query-count.header=true}.
+ */
+public final class QueryCountMatchers {
+
+    private QueryCountMatchers() {
+    }
+
+    /**
+     * Falla si la petición ejecutó más de {@code max} sentencias.
+     * @param max el presupuesto de sentencias
+     * @return el matcher
+     */
+    public static ResultMatcher atMost(int max) {
+        return result -> {
+            String header = result.getResponse().getHeader(QueryCountInterceptor.HEADER);
+            assertThat(header).as("cabecera %s (¿petclinic.query-count.header=true?)", QueryCountInterceptor.HEADER)
+                    .isNotNull();
+            assertThat(Integer.parseInt(header)).as("sentencias SQL de %s", result.getRequest().getRequestURI())
+                    .isLessThanOrEqualTo(max);
+        };
+    }
+}
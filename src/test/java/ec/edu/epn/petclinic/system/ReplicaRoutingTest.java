@@ -0,0 +1,167 @@
+package ec.edu.epn.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ec.edu.epn.petclinic.owner.OwnerRepository;
+import ec.edu.epn.petclinic.owner.Visit;
+import ec.edu.epn.petclinic.owner.VisitRepository;
+
+/**
+ * Pruebas del enrutamiento de transacciones de solo lectura a réplicas, con una base H2
+ * primaria y dos réplicas H2 que se distinguen por el apellido del owner 1.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = { "petclinic.datasource.replicas.urls=jdbc:h2:mem:replica0;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1",
+                "petclinic.datasource.replicas.lag-query=SELECT seconds FROM replica_lag",
+                "petclinic.datasource.replicas.max-lag=5s",
+                // solo la comprobación inicial, las pruebas comprueban explícitamente
+                "petclinic.datasource.replicas.check-interval=1h" })
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private ReplicaDataSource replicaDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<JdbcTemplate> replicas = IntStream.range(0, 2)
+            .mapToObj(i -> new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:replica" + i + ";DB_CLOSE_DELAY=-1", "sa", "")))
+            .toList();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < replicas.size(); i++) {
+            JdbcTemplate replica = replicas.get(i);
+            DataSource dataSource = replica.getDataSource();
+            new ResourceDatabasePopulator(new ClassPathResource("db/h2/schema.sql"),
+                    new ClassPathResource("db/h2/data.sql")).execute(dataSource);
+            replica.execute("DROP TABLE replica_lag IF EXISTS");
+            replica.execute("CREATE TABLE replica_lag (seconds DOUBLE)");
+            replica.update("INSERT INTO replica_lag VALUES (0)");
+            replica.update("UPDATE owners SET last_name = ? WHERE id = 1", "Replica" + i);
+        }
+        replicaDataSource.checkReplicas();
+    }
+
+    @Test
+    @DisplayName("Debería leer de las réplicas por turnos en transacciones de solo lectura")
+    void readOnlyTransactions_ShouldUseReplicasInTurn() {
+        // Act
+        List<String> apellidos = IntStream.range(0, 4)
+                .mapToObj(i -> apellidoLeido())
+                .toList();
+        // Assert
+        assertThat(apellidos).containsOnly("Replica0", "Replica1");
+    }
+
+    @Test
+    @DisplayName("Debería leer en la primaria fuera de transacciones de solo lectura")
+    void readWriteTransactions_ShouldUsePrimary() {
+        // Arrange
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        // Act
+        String apellido = transaccion.execute(status -> apellidoLeido());
+        // Assert
+        assertThat(apellido).isEqualTo("Franklin");
+    }
+
+    @Test
+    @DisplayName("Debería leer el agregado del owner siempre en la primaria")
+    void ownerAggregate_ShouldBeReadFromPrimary() {
+        // Act & Assert
+        assertThat(ownerRepository.findById(1).orElseThrow().getLastName()).isEqualTo("Franklin");
+        assertThat(ownerRepository.findWithPetsById(1).orElseThrow().getLastName()).isEqualTo("Franklin");
+        assertThat(ownerRepository.findWithPetsAndVisitsById(1).orElseThrow().getLastName()).isEqualTo("Franklin");
+    }
+
+    @Test
+    @DisplayName("Debería leer en la primaria dentro de una transacción de solo lectura cuando se pide")
+    void primaryReads_ShouldUsePrimary_InReadOnlyTransactions() {
+        // Arrange
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.setReadOnly(true);
+        // Act
+        String apellido = transaccion.execute(status -> PrimaryReads.call(this::apellidoLeido));
+        // Assert
+        assertThat(apellido).isEqualTo("Franklin");
+        assertThat(apellidoLeido()).startsWith("Replica");
+    }
+
+    @Test
+    @DisplayName("Debería leer las visitas recientes de la página del owner en la primaria")
+    void recentVisits_ShouldBeReadFromPrimary() {
+        // Arrange
+        replicas.forEach(replica -> replica.update("UPDATE visits SET description = 'replica'"));
+        // Act
+        List<Visit> recientes = visitRepository.findRecentByPetIdIn(List.of(7), 10).get(7).getContent();
+        // Assert
+        assertThat(recientes).isNotEmpty().extracting(Visit::getDescription).doesNotContain("replica");
+    }
+
+    @Test
+    @DisplayName("Debería evitar una réplica atrasada y volver a la primaria si todas lo están")
+    void readOnlyTransactions_ShouldSkipLaggingReplicas() {
+        // Arrange
+        replicas.get(0).update("UPDATE replica_lag SET seconds = 60");
+        replicaDataSource.checkReplicas();
+        // Act & Assert
+        assertThat(apellidoLeido()).isEqualTo("Replica1");
+        assertThat(apellidoLeido()).isEqualTo("Replica1");
+        // Arrange
+        replicas.get(1).update("UPDATE replica_lag SET seconds = 5.5");
+        replicaDataSource.checkReplicas();
+        // Act & Assert
+        assertThat(apellidoLeido()).isEqualTo("Franklin");
+    }
+
+    @Test
+    @DisplayName("Debería evitar una réplica que dejó de replicar")
+    void readOnlyTransactions_ShouldSkipReplicasNotReplicating() {
+        // Arrange
+        replicas.get(0).update("UPDATE replica_lag SET seconds = NULL");
+        replicaDataSource.checkReplicas();
+        // Act & Assert
+        assertThat(apellidoLeido()).isEqualTo("Replica1");
+        assertThat(apellidoLeido()).isEqualTo("Replica1");
+    }
+
+    @Test
+    @DisplayName("Debería volver a la primaria cuando las réplicas no responden a la comprobación")
+    void readOnlyTransactions_ShouldUsePrimary_WhenReplicaChecksFail() {
+        // Arrange
+        replicas.forEach(replica -> replica.execute("DROP TABLE replica_lag"));
+        replicaDataSource.checkReplicas();
+        // Act & Assert
+        assertThat(apellidoLeido()).isEqualTo("Franklin");
+    }
+
+    private String apellidoLeido() {
+        return ownerRepository.findByIdIn(List.of(1)).get(0).getLastName();
+    }
+}
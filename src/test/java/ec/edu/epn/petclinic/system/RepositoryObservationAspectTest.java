@@ -0,0 +1,119 @@
+package ec.edu.epn.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.cache.autoconfigure.CacheAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import ec.edu.epn.petclinic.owner.OwnerRepository;
+import ec.edu.epn.petclinic.vet.VetRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Tests de integración de las métricas de los repositorios.
+ */
+@DataJpaTest
+@Import({ MetricsConfiguration.class, CacheConfiguration.class,
+        RepositoryObservationAspectTest.ObservationConfiguration.class })
+@ImportAutoConfiguration({ AopAutoConfiguration.class, CacheAutoConfiguration.class })
+@ActiveProfiles("test")
+class RepositoryObservationAspectTest {
+
+    @Autowired
+    private VetRepository vetRepository;
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry.clear();
+        cacheManager.getCache("vets").clear();
+    }
+
+    @Test
+    @DisplayName("Debería distinguir aciertos y fallos de cache en métodos @Cacheable")
+    void cacheableMethod_ShouldBeTaggedWithHitOrMiss() {
+        // Act
+        vetRepository.findAll();
+        vetRepository.findAll();
+        // Assert
+        assertThat(timer("method", "findAll", "cache", "miss").count()).isEqualTo(1);
+        assertThat(timer("method", "findAll", "cache", "hit").count()).isEqualTo(1);
+        assertThat(timer("method", "findAll", "cache", "hit").getId().getTag("repository"))
+            .isEqualTo("VetRepository");
+        assertThat(timer("method", "findAll", "cache", "hit").getId().getTag("result.size")).isEqualTo("2-10");
+    }
+
+    @Test
+    @DisplayName("Debería etiquetar la página pedida y el tamaño del resultado")
+    void pagedMethod_ShouldBeTaggedWithPageAndResultSize() {
+        // Act
+        ownerRepository.findSummariesByLastNameStartingWith("", PageRequest.of(1, 5));
+        ownerRepository.findById(999);
+        // Assert
+        Timer paginado = timer("method", "findSummariesByLastNameStartingWith");
+        assertThat(paginado.getId().getTag("page")).isEqualTo("2");
+        assertThat(paginado.getId().getTag("result.size")).isEqualTo("2-10");
+        assertThat(paginado.getId().getTag("cache")).isEqualTo("none");
+        Timer vacio = timer("method", "findById");
+        assertThat(vacio.getId().getTag("page")).isEqualTo("none");
+        assertThat(vacio.getId().getTag("result.size")).isEqualTo("0");
+    }
+
+    @Test
+    @DisplayName("Debería registrar el error cuando el repositorio lanza una excepción")
+    void failingMethod_ShouldBeTaggedWithError() {
+        // Act
+        assertThatThrownBy(() -> ownerRepository.findById(null)).isInstanceOf(RuntimeException.class);
+        // Assert
+        Timer fallido = timer("method", "findById");
+        assertThat(fallido.getId().getTag("error")).isNotEqualTo("none");
+        assertThat(fallido.getId().getTag("result.size")).isEqualTo("none");
+    }
+
+    private Timer timer(String... tags) {
+        return meterRegistry.get(RepositoryObservationAspect.NAME).tags(tags).timer();
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class ObservationConfiguration {
+
+        @Bean
+        SimpleMeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObservationRegistry observationRegistry(MeterRegistry meterRegistry) {
+            ObservationRegistry registry = ObservationRegistry.create();
+            registry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+            return registry;
+        }
+
+    }
+
+}
@@ -0,0 +1,135 @@
+package ec.edu.epn.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import ec.edu.epn.petclinic.owner.Owner;
+import ec.edu.epn.petclinic.owner.OwnerRepository;
+import ec.edu.epn.petclinic.owner.Visit;
+import ec.edu.epn.petclinic.owner.VisitRepository;
+import ec.edu.epn.petclinic.vet.VetRepository;
+
+/**
+ * Verifica con {@code EXPLAIN} que las consultas frecuentes usan un índice del esquema de H2
+ * en lugar de recorrer la tabla completa. Se analizan las sentencias que Hibernate genera
+ * para los repositorios, registradas por {@link StatementRecorder}.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(StatementRecorder.class)
+class SchemaIndexTest {
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private VetRepository vetRepository;
+
+    @Autowired
+    private StatementRecorder recorder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Debería buscar por prefijo de apellido y agregar las mascotas con índices")
+    void summarySlice_ShouldUseIndexes() {
+        // Act
+        String plan = explain(() -> ownerRepository.findSummariesByLastNameStartingWith("Da", PageRequest.of(0, 5)));
+        // Assert
+        assertThat(plan).as(plan)
+                .contains("PUBLIC.OWNERS_LAST_NAME_ID:")
+                .contains("PUBLIC.PETS_OWNER_ID:")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("Debería leer la primera ventana por keyset en el orden del índice")
+    void firstKeysetWindow_ShouldUseSortedIndex() {
+        // Act
+        String plan = explain(() -> ownerRepository.findByLastNameStartingWithOrderByLastNameAscIdAsc("Da",
+                ScrollPosition.keyset(), Limit.of(1)));
+        // Assert
+        assertThat(plan).as(plan)
+                .contains("PUBLIC.OWNERS_LAST_NAME_ID:")
+                .contains("/* index sorted */")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("Debería continuar la ventana por keyset en el orden del índice")
+    void nextKeysetWindow_ShouldUseSortedIndex() {
+        // Arrange
+        Window<Owner> primera = ownerRepository.findByLastNameStartingWithOrderByLastNameAscIdAsc("Da",
+                ScrollPosition.keyset(), Limit.of(1));
+        // Act
+        String plan = explain(() -> ownerRepository.findByLastNameStartingWithOrderByLastNameAscIdAsc("Da",
+                primera.positionAt(0), Limit.of(1)));
+        // Assert
+        assertThat(plan).as(plan)
+                .contains("PUBLIC.OWNERS_LAST_NAME_ID:")
+                .contains("/* index sorted */")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("Debería leer las visitas recientes de varias mascotas con el índice de la mascota")
+    void latestVisits_ShouldUseIndex() {
+        // Act: H2 numera todas las visitas de cada mascota, así que el orden del índice no ayuda
+        String plan = explain(() -> visitRepository.findRecentByPetIdIn(List.of(7, 8), 10));
+        // Assert
+        assertThat(plan).as(plan)
+                .contains("PUBLIC.VISITS_PET_ID:")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("Debería leer las visitas anteriores de una mascota en el orden del índice")
+    void olderVisits_ShouldUseSortedIndex() {
+        // Arrange
+        Window<Visit> recientes = visitRepository.findRecentByPetIdIn(List.of(7), 1).get(7);
+        // Act
+        String plan = explain(() -> visitRepository.findByPetIdOrderByPetIdDescDateDescIdDesc(7,
+                recientes.positionAt(0), Limit.of(10)));
+        // Assert
+        assertThat(plan).as(plan)
+                .contains("PUBLIC.VISITS_PET_ID_VISIT_DATE:")
+                .contains("/* index sorted */")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("Debería cargar las especialidades de los veterinarios con el índice")
+    void vetSpecialties_ShouldUseIndex() {
+        // Act
+        String plan = explain(() -> vetRepository.findByIdIn(List.of(2, 3)));
+        // Assert
+        assertThat(plan).as(plan)
+                .contains("PUBLIC.VET_SPECIALTIES_VET_ID_SPECIALTY_ID:")
+                .doesNotContain("tableScan");
+    }
+
+    private String explain(Runnable consulta) {
+        recorder.clear();
+        consulta.run();
+        List<String> sentencias = recorder.statements();
+        assertThat(sentencias).as("sentencias ejecutadas").hasSize(1);
+        return jdbcTemplate.queryForObject("EXPLAIN " + sentencias.get(0), String.class);
+    }
+}
@@ -0,0 +1,145 @@
+package ec.edu.epn.petclinic.system;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Registra las consultas que la aplicación ejecuta a través del {@link DataSource}, con
+ * los valores de sus parámetros, para poder analizar después con {@code EXPLAIN} las
+ * sentencias que Hibernate genera realmente.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class StatementRecorder implements BeanPostProcessor {
+
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return record(super.getConnection());
+                }
+
+                @Override
+                public Connection getConnection(String username, String password) throws SQLException {
+                    return record(super.getConnection(username, password));
+                }
+            };
+        }
+        return bean;
+    }
+
+    /**
+     * Olvida las consultas registradas hasta ahora.
+     */
+    public void clear() {
+        statements.clear();
+    }
+
+    /**
+     * Devuelve las consultas ejecutadas desde el último {@link #clear()}, con los
+     * parámetros sustituidos por literales SQL, como los envía un driver que prepara las
+     * sentencias en el cliente.
+     * @return las consultas en el orden en que se ejecutaron
+     */
+    public List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    private Connection record(Connection connection) {
+        return proxy(Connection.class, (method, args) -> {
+            Object result = method.invoke(connection, args);
+            if (method.getName().equals("prepareStatement")) {
+                return record((PreparedStatement) result, (String) args[0]);
+            }
+            return result;
+        });
+    }
+
+    private PreparedStatement record(PreparedStatement statement, String sql) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return proxy(PreparedStatement.class, (method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+            }
+            else if (name.equals("clearParameters")) {
+                parameters.clear();
+            }
+            else if (name.equals("executeQuery") && (args == null || args.length == 0)) {
+                statements.add(inline(sql, new ArrayList<>(parameters.values())));
+            }
+            return method.invoke(statement, args);
+        });
+    }
+
+    private static String inline(String sql, List<Object> parameters) {
+        StringBuilder inlined = new StringBuilder();
+        boolean quoted = false;
+        int next = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            if (c == '?' && !quoted) {
+                inlined.append(literal(parameters.get(next++)));
+            }
+            else {
+                inlined.append(c);
+            }
+        }
+        return inlined.toString();
+    }
+
+    private static String literal(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        if (value instanceof LocalDate || value instanceof java.sql.Date) {
+            return "DATE '" + value + "'";
+        }
+        return "'" + value.toString().replace("'", "''") + "'";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Invocation invocation) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            try {
+                return invocation.invoke(method, args);
+            }
+            catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        };
+        return (T) Proxy.newProxyInstance(StatementRecorder.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    @FunctionalInterface
+    private interface Invocation {
+
+        Object invoke(Method method, Object[] args) throws Exception;
+
+    }
+}
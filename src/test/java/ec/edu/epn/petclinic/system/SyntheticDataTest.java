@@ -0,0 +1,82 @@
+package ec.edu.epn.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests unitarios del generador de datos sintéticos.
+ */
+class SyntheticDataTest {
+
+    @Test
+    @DisplayName("SyntheticData - La misma semilla debería producir los mismos valores")
+    void sameSeed_ShouldProduceSameValues() {
+        // Arrange
+        SyntheticData primero = new SyntheticData(7);
+        SyntheticData segundo = new SyntheticData(7);
+        // Act
+        List<String> valoresPrimero = IntStream.range(0, 20).mapToObj(i -> primero.digits(10)).toList();
+        List<String> valoresSegundo = IntStream.range(0, 20).mapToObj(i -> segundo.digits(10)).toList();
+        // Assert
+        assertThat(valoresPrimero).isEqualTo(valoresSegundo);
+        assertThat(valoresPrimero).allMatch(valor -> valor.matches("\\d{10}"));
+    }
+
+    @Test
+    @DisplayName("geometric - Debería respetar la media y favorecer valores pequeños")
+    void geometric_ShouldMatchMeanAndFavorSmallValues() {
+        // Arrange
+        SyntheticData datos = new SyntheticData(42);
+        // Act
+        int[] valores = IntStream.range(0, 20_000).map(i -> datos.geometric(2)).toArray();
+        // Assert
+        double media = IntStream.of(valores).average().orElseThrow();
+        assertThat(media).isBetween(1.9, 2.1);
+        long ceros = IntStream.of(valores).filter(valor -> valor == 0).count();
+        long cincos = IntStream.of(valores).filter(valor -> valor == 5).count();
+        assertThat(ceros).isGreaterThan(cincos * 5);
+        assertThat(new SyntheticData(42).geometric(0)).isZero();
+    }
+
+    @Test
+    @DisplayName("zipf - Los primeros valores deberían ser los más frecuentes")
+    void zipf_ShouldFavorFirstValues() {
+        // Arrange
+        Supplier<String> nombres = new SyntheticData(42).zipf(List.of("Davis", "Garcia", "Smith", "Vega"), 1);
+        Map<String, Integer> frecuencias = new HashMap<>();
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            frecuencias.merge(nombres.get(), 1, Integer::sum);
+        }
+        // Assert
+        assertThat(frecuencias.get("Davis")).isGreaterThan(frecuencias.get("Garcia"));
+        assertThat(frecuencias.get("Garcia")).isGreaterThan(frecuencias.get("Smith"));
+        assertThat(frecuencias.get("Smith")).isGreaterThan(frecuencias.get("Vega"));
+        // 1 / (1 + 1/2 + 1/3 + 1/4) = 0.48
+        assertThat(frecuencias.get("Davis")).isBetween(4_500, 5_100);
+    }
+
+    @Test
+    @DisplayName("date - Debería devolver fechas dentro del rango, incluidos los extremos")
+    void date_ShouldStayWithinRange() {
+        // Arrange
+        SyntheticData datos = new SyntheticData(42);
+        LocalDate desde = LocalDate.of(2024, 1, 1);
+        LocalDate hasta = LocalDate.of(2024, 1, 3);
+        // Act
+        List<LocalDate> fechas = IntStream.range(0, 200).mapToObj(i -> datos.date(desde, hasta)).toList();
+        // Assert
+        assertThat(fechas).allMatch(fecha -> !fecha.isBefore(desde) && !fecha.isAfter(hasta));
+        assertThat(fechas).contains(desde, hasta);
+    }
+
+}
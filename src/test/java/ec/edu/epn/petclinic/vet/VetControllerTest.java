@@ -1,11 +1,21 @@
 package ec.edu.epn.petclinic.vet;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,19 +23,26 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 /**
  * Pruebas de integración para VetController usando MockMvc.
  */
 @WebMvcTest(VetController.class)
+@Import(VetRevision.class)
 @ActiveProfiles("test")
 class VetControllerTest {
 
@@ -35,6 +52,12 @@ class VetControllerTest {
     @MockitoBean
     private VetRepository vetRepository;
 
+    @MockitoBean
+    private VetExporter vetExporter;
+
+    @Autowired
+    private VetRevision revision;
+
     private Vet jamesCarter;
     private Vet helenLeary;
     private Vet lindaDouglas;
@@ -161,6 +184,131 @@ class VetControllerTest {
         }
     }
 
+    // Tests de GET condicional con ETag y Last-Modified
+
+    @Nested
+    @DisplayName("GET condicional - ETag y Last-Modified de los veterinarios")
+    class ConditionalGetTests {
+
+        @Test
+        @DisplayName("Debería responder 304 sin consultar cuando la página no cambió")
+        void showVetList_ShouldReturnNotModified_WhenETagMatches() throws Exception {
+            // Arrange
+            when(vetRepository.findAll(any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of(jamesCarter), PageRequest.of(0, 5), 1));
+            MvcResult primera = mockMvc.perform(get("/vets.html"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().exists(HttpHeaders.ETAG))
+                    .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                    .andReturn();
+            String etag = primera.getResponse().getHeader(HttpHeaders.ETAG);
+            // Act & Assert
+            mockMvc.perform(get("/vets.html").header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+            mockMvc.perform(get("/vets.html").header(HttpHeaders.IF_MODIFIED_SINCE,
+                    primera.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)))
+                    .andExpect(status().isNotModified());
+            verify(vetRepository, times(1)).findAll(any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Debería volver a mostrar la página en otro idioma o cuando los veterinarios cambian")
+        void showVetList_ShouldRender_WhenLocaleOrRevisionChanges() throws Exception {
+            // Arrange
+            when(vetRepository.findAll(any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of(jamesCarter), PageRequest.of(0, 5), 1));
+            String etag = mockMvc.perform(get("/vets.html"))
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            // Act & Assert
+            mockMvc.perform(get("/vets.html").header(HttpHeaders.IF_NONE_MATCH, etag).param("lang", "es"))
+                    .andExpect(status().isOk());
+            revision.increment();
+            mockMvc.perform(get("/vets.html").header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+        }
+
+        @Test
+        @DisplayName("Debería etiquetar JSON y XML por separado y variar según Accept")
+        void showResourcesVetList_ShouldTagEachRepresentation() throws Exception {
+            // Arrange
+            when(vetRepository.findAll()).thenReturn(List.of(jamesCarter));
+            String etagJson = mockMvc.perform(get("/vets").accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            // Act & Assert
+            mockMvc.perform(get("/vets").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, etagJson))
+                    .andExpect(status().isNotModified());
+            mockMvc.perform(get("/vets").accept(MediaType.APPLICATION_XML).header(HttpHeaders.IF_NONE_MATCH, etagJson))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_XML));
+            verify(vetRepository, times(2)).findAll();
+        }
+    }
+
+    // Tests para GET /vets.html?cursor= (paginación por keyset)
+
+    @Nested
+    @DisplayName("GET /vets.html?cursor= - Vista HTML con paginación por keyset")
+    class ShowVetListKeysetTests {
+
+        @Test
+        @DisplayName("Debería mostrar ventana de veterinarios con cursor siguiente")
+        void showVetList_ShouldShowWindowWithNextCursor() throws Exception {
+            // ARRANGE
+            Window<Vet> ventana = Window.from(List.of(jamesCarter, lindaDouglas),
+                    indice -> ScrollPosition.forward(Map.of("lastName", "Douglas", "id", 3)), true);
+            when(vetRepository.findAllByOrderByLastNameAscIdAsc(any(ScrollPosition.class), any(Limit.class)))
+                    .thenReturn(ventana);
+
+            // ACT & ASSERT
+            mockMvc.perform(get("/vets.html")
+                    .param("cursor", ""))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("vets/vetList"))
+                    .andExpect(model().attribute("keyset", true))
+                    .andExpect(model().attributeExists("nextCursor"))
+                    .andExpect(model().attributeDoesNotExist("totalPages"));
+        }
+
+        @Test
+        @DisplayName("Debería omitir cursor siguiente en la última ventana")
+        void showVetList_ShouldOmitNextCursor_OnLastWindow() throws Exception {
+            // ARRANGE
+            Window<Vet> ultimaVentana = Window.from(List.of(helenLeary),
+                    indice -> ScrollPosition.forward(Map.of("lastName", "Leary", "id", 2)), false);
+            when(vetRepository.findAllByOrderByLastNameAscIdAsc(any(ScrollPosition.class), any(Limit.class)))
+                    .thenReturn(ultimaVentana);
+
+            // ACT & ASSERT
+            mockMvc.perform(get("/vets.html")
+                    .param("cursor", "MjpMZWFyeQ"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attribute("nextCursor", org.hamcrest.Matchers.nullValue()));
+        }
+
+        @Test
+        @DisplayName("Debería mostrar la primera ventana cuando el cursor es inválido")
+        void showVetList_ShouldShowFirstWindow_WhenCursorMalformed() throws Exception {
+            // ARRANGE
+            Window<Vet> ventana = Window.from(List.of(jamesCarter, lindaDouglas),
+                    indice -> ScrollPosition.forward(Map.of("lastName", "Douglas", "id", 3)), true);
+            when(vetRepository.findAllByOrderByLastNameAscIdAsc(any(ScrollPosition.class), any(Limit.class)))
+                    .thenReturn(ventana);
+
+            // ACT & ASSERT
+            mockMvc.perform(get("/vets.html")
+                    .param("cursor", "no-es-un-cursor"))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("vets/vetList"))
+                    .andExpect(model().attribute("listVets", List.of(jamesCarter, lindaDouglas)));
+            verify(vetRepository).findAllByOrderByLastNameAscIdAsc(argThat(ScrollPosition::isInitial),
+                    any(Limit.class));
+        }
+    }
+
     // Tests para GET /vets (API REST JSON)
     @Nested
     @DisplayName("GET /vets - API REST JSON")
@@ -276,4 +424,56 @@ class VetControllerTest {
                     .andExpect(jsonPath("$.vetList.length()").value(3));
         }
     }
+
+    // Tests para GET /vets/stream (exportación en streaming)
+
+    @Nested
+    @DisplayName("GET /vets/stream - Exportación en streaming")
+    class StreamVetsTests {
+
+        @Test
+        @DisplayName("Debería transmitir veterinarios como NDJSON por defecto")
+        void streamVets_ShouldStreamNdjsonByDefault() throws Exception {
+            // ARRANGE
+            doAnswer(invocacion -> {
+                OutputStream salida = invocacion.getArgument(0);
+                salida.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+                return null;
+            }).when(vetExporter).writeNdjson(any(OutputStream.class));
+
+            // ACT
+            MvcResult resultado = mockMvc.perform(get("/vets/stream"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // ASSERT
+            mockMvc.perform(asyncDispatch(resultado))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                    .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+        }
+
+        @Test
+        @DisplayName("Debería transmitir veterinarios como XML cuando se solicita")
+        void streamVets_ShouldStreamXml_WhenRequested() throws Exception {
+            // ARRANGE
+            doAnswer(invocacion -> {
+                OutputStream salida = invocacion.getArgument(0);
+                salida.write("<vets></vets>".getBytes(StandardCharsets.UTF_8));
+                return null;
+            }).when(vetExporter).writeXml(any(OutputStream.class));
+
+            // ACT
+            MvcResult resultado = mockMvc.perform(get("/vets/stream")
+                    .accept(MediaType.APPLICATION_XML))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // ASSERT
+            mockMvc.perform(asyncDispatch(resultado))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_XML))
+                    .andExpect(content().string("<vets></vets>"));
+        }
+    }
 }
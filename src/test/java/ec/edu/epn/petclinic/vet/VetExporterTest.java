@@ -0,0 +1,76 @@
+package ec.edu.epn.petclinic.vet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jackson.autoconfigure.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import ec.edu.epn.petclinic.system.QueryCounter;
+
+/**
+ * Tests de integración - exportación en streaming de veterinarios.
+ */
+@DataJpaTest
+@Import(VetExporter.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@ActiveProfiles("test")
+class VetExporterTest {
+
+    @Autowired
+    private VetExporter vetExporter;
+
+    @Test
+    @DisplayName("writeNdjson - Debería escribir un documento JSON por veterinario")
+    void writeNdjson_ShouldWriteOneJsonDocumentPerVet() throws Exception {
+        // Arrange
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        // Act
+        vetExporter.writeNdjson(salida);
+        // Assert
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lineas).hasSize(6);
+        assertThat(lineas[0]).contains("\"lastName\":\"Carter\"");
+        assertThat(lineas[1]).contains("\"lastName\":\"Douglas\"").contains("\"name\":\"dentistry\"");
+    }
+
+    @Test
+    @DisplayName("writeNdjson - Debería leer los veterinarios ordenados y con sus especialidades en una sola consulta")
+    void writeNdjson_ShouldReadVetsWithSpecialtiesInOneStatement() throws Exception {
+        // Arrange
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        // Act
+        QueryCounter.start();
+        vetExporter.writeNdjson(salida);
+        int consultas = QueryCounter.stop();
+        // Assert
+        assertThat(consultas).isEqualTo(1);
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(Arrays.stream(lineas).map(linea -> linea.replaceAll(".*\"lastName\":\"([^\"]+)\".*", "$1")))
+                .containsExactly("Carter", "Douglas", "Jenkins", "Leary", "Ortega", "Stevens");
+        assertThat(lineas[1]).contains("\"name\":\"dentistry\"").contains("\"name\":\"surgery\"");
+    }
+
+    @Test
+    @DisplayName("writeXml - Debería escribir un documento vets con un vetList por veterinario")
+    void writeXml_ShouldWriteVetsDocument() throws Exception {
+        // Arrange
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        // Act
+        vetExporter.writeXml(salida);
+        // Assert
+        String xml = salida.toString(StandardCharsets.UTF_8);
+        assertThat(xml).startsWith("<?xml").contains("<vets>").endsWith("</vets>");
+        assertThat(xml.split("<vetList>", -1)).hasSize(7);
+        assertThat(xml).contains("<lastName>Stevens</lastName>");
+    }
+}
@@ -0,0 +1,55 @@
+package ec.edu.epn.petclinic.vet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.autoconfigure.JdbcTemplateAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import ec.edu.epn.petclinic.system.DataGeneratorProperties;
+import ec.edu.epn.petclinic.system.SyntheticData;
+
+/**
+ * Tests de integración del generador de vets sintéticos.
+ */
+@DataJpaTest(properties = "petclinic.generator.enabled=true")
+@Import({ VetGenerator.class, VetRevision.class })
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+@EnableConfigurationProperties(DataGeneratorProperties.class)
+@ActiveProfiles("test")
+class VetGeneratorTest {
+
+    @Autowired
+    private VetGenerator vetGenerator;
+
+    @Autowired
+    private VetRepository vetRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("generate - Debería agregar especialidades y vets con especialidades distintas")
+    void generate_ShouldAddSpecialtiesAndVets() {
+        // Arrange
+        int vetsAntes = vetRepository.findAll().size();
+        // Act
+        vetGenerator.generate(new SyntheticData(42), 2, 50);
+        // Assert
+        assertThat(vetRepository.findAll()).hasSize(vetsAntes + 50);
+        assertThat(jdbcTemplate.queryForList("SELECT name FROM specialties ORDER BY id", String.class))
+            .containsExactly("radiology", "surgery", "dentistry", "cardiology", "dermatology");
+        Integer repetidas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT vet_id, specialty_id"
+                + " FROM vet_specialties GROUP BY vet_id, specialty_id HAVING COUNT(*) > 1)", Integer.class);
+        assertThat(repetidas).isZero();
+        assertThat(vetRepository.findAll()).anyMatch(vet -> vet.getNrOfSpecialties() > 0);
+    }
+
+}
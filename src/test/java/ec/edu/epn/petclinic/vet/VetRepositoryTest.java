@@ -5,16 +5,24 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.test.context.ActiveProfiles;
 
+import ec.edu.epn.petclinic.system.QueryCounter;
+import jakarta.persistence.EntityManager;
+
 /**
  * Tests de integración - VetRepository
  */
@@ -25,6 +33,9 @@ class VetRepositoryTest {
     @Autowired
     private VetRepository vetRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
     @DisplayName("findAll - Debería retornar todos los veterinarios")
     void findAll_ShouldReturnAllVets() {
@@ -224,4 +235,81 @@ class VetRepositoryTest {
         assertThat(paginaResultado.getTotalElements()).isEqualTo(6);
         assertThat(paginaResultado.getTotalPages()).isEqualTo(2);
     }
+
+    @Test
+    @DisplayName("findAll(Pageable) - Debería conservar el orden de la página al cargar especialidades")
+    void findAllPageable_ShouldKeepOrder_WhenSorted() {
+        // Arrange
+        Pageable porApellidoDesc = PageRequest.of(0, 4, Sort.by(Sort.Direction.DESC, "lastName"));
+        // Act
+        Page<Vet> pagina = vetRepository.findAll(porApellidoDesc);
+        // Assert
+        assertThat(pagina.getContent())
+                .extracting(Vet::getLastName)
+                .containsExactly("Stevens", "Ortega", "Leary", "Jenkins");
+        assertThat(pagina.getContent())
+                .filteredOn(v -> v.getLastName().equals("Ortega"))
+                .singleElement()
+                .satisfies(v -> assertThat(v.getSpecialties()).extracting(Specialty::getName)
+                        .containsExactly("surgery"));
+    }
+
+    @Test
+    @DisplayName("findAll(Pageable) - Debería ordenar por id las páginas sin orden")
+    void findAllPageable_ShouldOrderById_WhenUnsorted() {
+        // Act
+        Page<Vet> primera = vetRepository.findAll(PageRequest.of(0, 3));
+        Page<Vet> segunda = vetRepository.findAll(PageRequest.of(1, 3));
+        // Assert
+        assertThat(primera.getContent()).extracting(Vet::getId).containsExactly(1, 2, 3);
+        assertThat(segunda.getContent()).extracting(Vet::getId).containsExactly(4, 5, 6);
+    }
+
+    @Test
+    @DisplayName("findAll(Pageable) - Debería usar las mismas sentencias sin importar el tamaño de página")
+    void findAllPageable_ShouldUseConstantStatements_RegardlessOfPageSize() {
+        // Act
+        int sentenciasPaginaDos = countStatements(() -> vetRepository.findAll(PageRequest.of(0, 2)));
+        entityManager.clear();
+        int sentenciasPaginaCinco = countStatements(() -> vetRepository.findAll(PageRequest.of(0, 5)));
+        // Assert
+        assertThat(sentenciasPaginaDos).isEqualTo(3);
+        assertThat(sentenciasPaginaCinco).isEqualTo(sentenciasPaginaDos);
+    }
+
+    @Test
+    @DisplayName("findAll - Debería cargar veterinarios y especialidades en una sola sentencia")
+    void findAll_ShouldLoadSpecialtiesInOneStatement() {
+        // Act
+        int sentencias = countStatements(() -> vetRepository.findAll());
+        // Assert
+        assertThat(sentencias).isEqualTo(1);
+    }
+
+    // Paginación por keyset
+
+    @Test
+    @DisplayName("findAllByOrderByLastNameAscIdAsc - Debería recorrer veterinarios por apellido")
+    void findAllByOrderByLastNameAscIdAsc_ShouldScrollByLastName() {
+        // Act
+        Window<Vet> primeraVentana = vetRepository.findAllByOrderByLastNameAscIdAsc(ScrollPosition.keyset(),
+                Limit.of(4));
+        Window<Vet> segundaVentana = vetRepository.findAllByOrderByLastNameAscIdAsc(
+                primeraVentana.positionAt(primeraVentana.size() - 1), Limit.of(4));
+        // Assert
+        assertThat(primeraVentana.getContent())
+                .extracting(Vet::getLastName)
+                .containsExactly("Carter", "Douglas", "Jenkins", "Leary");
+        assertThat(primeraVentana.hasNext()).isTrue();
+        assertThat(segundaVentana.getContent())
+                .extracting(Vet::getLastName)
+                .containsExactly("Ortega", "Stevens");
+        assertThat(segundaVentana.hasNext()).isFalse();
+    }
+
+    private int countStatements(Supplier<Iterable<Vet>> query) {
+        QueryCounter.start();
+        query.get().forEach(Vet::getNrOfSpecialties);
+        return QueryCounter.stop();
+    }
 }
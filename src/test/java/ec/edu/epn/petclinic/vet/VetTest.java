@@ -1,6 +1,7 @@
 package ec.edu.epn.petclinic.vet;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.util.List;
 
@@ -145,8 +146,8 @@ class VetTest {
 		}
 
 		@Test
-		@DisplayName("Debería retornar lista nueva en cada llamada (no Set interno)")
-		void getSpecialties_ShouldReturnNewListEachTime() {
+		@DisplayName("Debería retornar la misma lista inmutable mientras no cambien las especialidades")
+		void getSpecialties_ShouldReturnSameUnmodifiableList() {
 			// Arrange
 			Specialty radiology = new Specialty();
 			radiology.setId(1);
@@ -156,8 +157,26 @@ class VetTest {
 			List<Specialty> lista1 = vet.getSpecialties();
 			List<Specialty> lista2 = vet.getSpecialties();
 			// Assert
-			assertThat(lista1).isNotSameAs(lista2);
-			assertThat(lista1).containsExactlyElementsOf(lista2);
+			assertThat(lista1).isSameAs(lista2);
+			assertThatThrownBy(() -> lista1.add(new Specialty())).isInstanceOf(UnsupportedOperationException.class);
+		}
+
+		@Test
+		@DisplayName("Debería reconstruir la lista ordenada al agregar una especialidad")
+		void getSpecialties_ShouldRebuild_WhenSpecialtyAdded() {
+			// Arrange
+			Specialty surgery = new Specialty();
+			surgery.setName("surgery");
+			Specialty dentistry = new Specialty();
+			dentistry.setName("dentistry");
+			vet.addSpecialty(surgery);
+			List<Specialty> antes = vet.getSpecialties();
+			// Act
+			vet.addSpecialty(dentistry);
+			List<Specialty> despues = vet.getSpecialties();
+			// Assert
+			assertThat(antes).extracting(Specialty::getName).containsExactly("surgery");
+			assertThat(despues).extracting(Specialty::getName).containsExactly("dentistry", "surgery");
 		}
 
 		@Test